@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Measures time from container start to a passing readiness probe.
+#
+# Usage: scripts/startup-benchmark.sh <image> [runs] [env-file]
+#
+# Compare the default image (AOT + AppCDS) with a plain launch of the same jar:
+#   docker build -t nexttern .
+#   scripts/startup-benchmark.sh nexttern 5
+#   BENCH_CMD="java -cp BOOT-INF/classes:BOOT-INF/lib/* com.nexttern.NextternApplication" scripts/startup-benchmark.sh nexttern 5
+#
+# Prints one JSON object per run plus a summary line, so results can be diffed across commits.
+set -euo pipefail
+
+IMAGE="${1:?image required}"
+RUNS="${2:-5}"
+ENV_FILE="${3:-.env}"
+PORT="${BENCH_PORT:-18080}"
+TIMEOUT_S="${BENCH_TIMEOUT_S:-120}"
+
+now_ms() { date +%s%3N; }
+
+total=0
+for run in $(seq 1 "$RUNS"); do
+    args=(-d --rm -p "$PORT:8080")
+    [ -f "$ENV_FILE" ] && args+=(--env-file "$ENV_FILE")
+    start=$(now_ms)
+    if [ -n "${BENCH_CMD:-}" ]; then
+        cid=$(docker run "${args[@]}" "$IMAGE" sh -c "$BENCH_CMD")
+    else
+        cid=$(docker run "${args[@]}" "$IMAGE")
+    fi
+
+    ready=""
+    while [ $(( $(now_ms) - start )) -lt $(( TIMEOUT_S * 1000 )) ]; do
+        if curl -fs "http://localhost:$PORT/actuator/health/readiness" >/dev/null 2>&1; then
+            ready=$(now_ms)
+            break
+        fi
+        sleep 0.05
+    done
+    started=$(docker logs "$cid" 2>&1 | grep -o 'Started NextternApplication in [0-9.]* seconds' | grep -o '[0-9.]*' | head -1 || true)
+    docker stop "$cid" >/dev/null
+
+    if [ -z "$ready" ]; then
+        echo "{\"run\":$run,\"image\":\"$IMAGE\",\"error\":\"not ready after ${TIMEOUT_S}s\"}"
+        exit 1
+    fi
+    elapsed=$(( ready - start ))
+    total=$(( total + elapsed ))
+    echo "{\"run\":$run,\"image\":\"$IMAGE\",\"readyMs\":$elapsed,\"springStartedSeconds\":\"${started:-}\"}"
+done
+echo "{\"image\":\"$IMAGE\",\"runs\":$RUNS,\"meanReadyMs\":$(( total / RUNS ))}"
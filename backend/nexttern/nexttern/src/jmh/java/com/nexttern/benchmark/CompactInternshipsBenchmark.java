@@ -0,0 +1,160 @@
+package com.nexttern.benchmark;
+
+import java.lang.ref.Reference;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexttern.model.CompactInternships;
+import com.nexttern.model.Internship;
+import com.nexttern.model.InternshipView;
+import com.nexttern.util.InternshipIds;
+import com.nexttern.util.InternshipMatcher;
+
+/**
+ * Reading the catalog as Internship POJOs versus CompactInternships views: a keyword scan over every row
+ * and serializing a page, and building the next generation after a batch of 50 changed items.
+ * Running main() instead prints the heap (and direct memory) each representation holds for the full dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactInternshipsBenchmark {
+
+    @Param({"pojo", "heap", "off-heap"})
+    public String store;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<? extends InternshipView> internships;
+    private List<InternshipView> nextGeneration;
+
+    @Setup
+    public void setup() {
+        List<Internship> loaded = asLoaded(SyntheticData.internships(5000));
+        internships = build(store, loaded);
+        nextGeneration = new ArrayList<>(internships);
+        List<Internship> changed = asLoaded(SyntheticData.internships(50));
+        for (int i = 0; i < changed.size(); i++) {
+            nextGeneration.set(i * 100, changed.get(i));
+        }
+    }
+
+    @Benchmark
+    public List<? extends InternshipView> keywordScan() {
+        return InternshipMatcher.filter(internships, "kubernetes mentorship", "", 100);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(internships.subList(0, 50));
+    }
+
+    @Benchmark
+    public List<? extends InternshipView> publishBatch() {
+        if (internships instanceof CompactInternships previous) {
+            return CompactInternships.of(nextGeneration, previous, previous.isOffHeap());
+        }
+        return List.copyOf(nextGeneration);
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        List<Internship> source = SyntheticData.internships(count);
+
+        // First builds allocate one-off JDK state (direct buffer bookkeeping, date parsers) that would be counted
+        for (String store : new String[] {"pojo", "heap", "off-heap"}) {
+            footprint(() -> build(store, asLoaded(source.subList(0, Math.min(count, 100)))));
+        }
+
+        System.out.printf("items %d%n", count);
+        System.out.printf("%-10s %14s %14s %14s %8s%n", "store", "heap bytes", "direct bytes", "heap/item", "ratio");
+        long pojo = 0;
+        for (String store : new String[] {"pojo", "heap", "off-heap"}) {
+            long[] footprint = footprint(() -> build(store, asLoaded(source)));
+            if (pojo == 0) {
+                pojo = footprint[0];
+            }
+            System.out.printf("%-10s %14d %14d %14.1f %7.2fx%n",
+                store, footprint[0], footprint[1], footprint[0] / (double) count, pojo / (double) footprint[0]);
+        }
+    }
+
+    private static List<? extends InternshipView> build(String store, List<Internship> loaded) {
+        return switch (store) {
+            case "pojo" -> List.copyOf(loaded);
+            case "heap" -> CompactInternships.of(loaded, false);
+            case "off-heap" -> CompactInternships.of(loaded, true);
+            default -> throw new IllegalArgumentException(store);
+        };
+    }
+
+    // Items read from DynamoDB share no strings and have hashed ids, unlike the synthetic constants
+    private static List<Internship> asLoaded(List<Internship> internships) {
+        List<Internship> loaded = new ArrayList<>(internships.size());
+        for (Internship internship : internships) {
+            Internship copy = new Internship(InternshipIds.forUrl(internship.getUrl()), copy(internship.getTitle()),
+                copy(internship.getCompany()), copy(internship.getLocation()), copy(internship.getDescription()),
+                copy(internship.getUrl()), copy(internship.getPostedDate()), copy(internship.getSource()));
+            copy.setExpiresAt(1_800_000_000L);
+            copy.markUpdated(1_750_000_000_000L);
+            loaded.add(copy);
+        }
+        return loaded;
+    }
+
+    private static String copy(String value) {
+        return value == null ? null : new String(value.toCharArray());
+    }
+
+    /**
+     * Retained heap and direct memory of what the supplier builds, measured as used memory after GC
+     * @return {heap bytes, direct bytes}
+     */
+    private static long[] footprint(Supplier<Object> supplier) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeap(memory);
+        long directBefore = usedDirect();
+        Object built = supplier.get();
+        long heapAfter = usedHeap(memory);
+        long directAfter = usedDirect();
+        Reference.reachabilityFence(built);
+        return new long[] {heapAfter - heapBefore, directAfter - directBefore};
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+}
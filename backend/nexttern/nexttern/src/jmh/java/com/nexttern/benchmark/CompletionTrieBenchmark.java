@@ -0,0 +1,103 @@
+package com.nexttern.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nexttern.search.CompletionTrie;
+
+/**
+ * Typeahead completion: a prefix lookup in the suggestion trie, and building it.
+ * Values are one to three made-up words indexed under every word start, as InternshipSuggestService does
+ * for company, title and location values; popularity falls off with rank. Prefixes are one to five
+ * characters of a word start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionTrieBenchmark {
+
+    private static final int MAX_COMPLETIONS = 10;
+
+    @Param({"1000", "50000"})
+    public int values;
+
+    private String[] keys;
+    private int[] ordinals;
+    private int[] weights;
+    private String[] prefixes;
+    private CompletionTrie trie;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(11);
+        Set<String> distinct = new HashSet<>();
+        List<String> phrases = new ArrayList<>(values);
+        while (phrases.size() < values) {
+            StringBuilder phrase = new StringBuilder(SyntheticData.word(random));
+            for (int w = random.nextInt(3); w > 0; w--) {
+                phrase.append(' ').append(SyntheticData.word(random));
+            }
+            if (distinct.add(phrase.toString())) {
+                phrases.add(phrase.toString());
+            }
+        }
+
+        List<String> keyList = new ArrayList<>();
+        List<Integer> ordinalList = new ArrayList<>();
+        weights = new int[values];
+        for (int ordinal = 0; ordinal < values; ordinal++) {
+            String phrase = phrases.get(ordinal);
+            weights[ordinal] = 1 + 100_000 / (ordinal + 1);
+            for (int start = 0; start >= 0; start = nextWord(phrase, start)) {
+                keyList.add(phrase.substring(start));
+                ordinalList.add(ordinal);
+            }
+        }
+        keys = keyList.toArray(new String[0]);
+        ordinals = ordinalList.stream().mapToInt(Integer::intValue).toArray();
+        trie = CompletionTrie.build(keys, ordinals, weights, MAX_COMPLETIONS);
+
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String key = keys[random.nextInt(keys.length)];
+            prefixes[i] = key.substring(0, Math.min(key.length(), 1 + random.nextInt(5)));
+        }
+    }
+
+    @Benchmark
+    public int[] complete() {
+        String prefix = prefixes[next++ & (prefixes.length - 1)];
+        return trie.complete(prefix, 8);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CompletionTrie build() {
+        return CompletionTrie.build(keys, ordinals, weights, MAX_COMPLETIONS);
+    }
+
+    private static int nextWord(String phrase, int start) {
+        int space = phrase.indexOf(' ', start);
+        return space < 0 ? -1 : space + 1;
+    }
+}
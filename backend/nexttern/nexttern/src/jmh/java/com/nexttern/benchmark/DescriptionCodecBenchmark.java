@@ -0,0 +1,102 @@
+package com.nexttern.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nexttern.model.Internship;
+import com.nexttern.util.DescriptionCodec;
+
+/**
+ * CPU cost of the description codec per item.
+ * Running main() instead prints the capacity side: item sizes and the RCU/WCU a write, a
+ * strongly consistent read and a full scan cost with plain versus compressed descriptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DescriptionCodecBenchmark {
+
+    private String description;
+    private byte[] compressed;
+
+    @Setup
+    public void setup() {
+        description = SyntheticData.internships(1).get(0).getDescription();
+        compressed = DescriptionCodec.compress(description);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return DescriptionCodec.compress(description);
+    }
+
+    @Benchmark
+    public String decompress() {
+        return DescriptionCodec.decompress(compressed);
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        List<Internship> internships = SyntheticData.internships(count);
+
+        long plainBytes = 0, compressedBytes = 0;
+        long plainWcu = 0, compressedWcu = 0;
+        long plainRcu = 0, compressedRcu = 0;
+        for (Internship internship : internships) {
+            long base = itemSizeWithoutDescription(internship);
+            long plain = base + "description".length() + utf8(internship.getDescription());
+            long packed = base + "descriptionZ".length() + DescriptionCodec.compress(internship.getDescription()).length;
+            plainBytes += plain;
+            compressedBytes += packed;
+            // Writes are billed per started 1 KB, strongly consistent reads per started 4 KB
+            plainWcu += (plain + 1023) / 1024;
+            compressedWcu += (packed + 1023) / 1024;
+            plainRcu += (plain + 4095) / 4096;
+            compressedRcu += (packed + 4095) / 4096;
+        }
+        // A scan is billed on the total size read, halved for eventually consistent reads
+        double plainScanRcu = Math.ceil(plainBytes / 4096.0) / 2;
+        double compressedScanRcu = Math.ceil(compressedBytes / 4096.0) / 2;
+
+        System.out.printf("items                      %12d%n", count);
+        System.out.printf("                           %12s %12s %8s%n", "plain", "compressed", "ratio");
+        row("avg item bytes", plainBytes / (double) count, compressedBytes / (double) count);
+        row("WCU per full rewrite", plainWcu, compressedWcu);
+        row("RCU per GetItem (all)", plainRcu, compressedRcu);
+        row("RCU per full scan", plainScanRcu, compressedScanRcu);
+    }
+
+    private static void row(String label, double plain, double compressed) {
+        System.out.printf("%-26s %12.1f %12.1f %7.2fx%n", label, plain, compressed, plain / compressed);
+    }
+
+    // DynamoDB item size: UTF-8 attribute names plus value sizes
+    private static long itemSizeWithoutDescription(Internship internship) {
+        return "id".length() + utf8(internship.getId())
+            + "title".length() + utf8(internship.getTitle())
+            + "company".length() + utf8(internship.getCompany())
+            + "location".length() + utf8(internship.getLocation())
+            + "url".length() + utf8(internship.getUrl())
+            + "postedDate".length() + utf8(internship.getPostedDate())
+            + "source".length() + utf8(internship.getSource());
+    }
+
+    private static long utf8(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
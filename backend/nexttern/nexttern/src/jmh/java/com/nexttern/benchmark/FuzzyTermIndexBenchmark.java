@@ -0,0 +1,92 @@
+package com.nexttern.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nexttern.search.FuzzyTermIndex;
+
+/**
+ * Typo correction of one keyword term against the search vocabulary, as InternshipSearchService does with
+ * fuzzy=true: the closest term within FuzzyTermIndex.maxDistance(). Queries are vocabulary terms with one
+ * random edit ("typo") or two ("two-typos"); term weights stand in for document frequencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzyTermIndexBenchmark {
+
+    @Param({"5000", "50000"})
+    public int vocabulary;
+
+    @Param({"typo", "two-typos"})
+    public String query;
+
+    private FuzzyTermIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(13);
+        Map<String, Integer> terms = new HashMap<>();
+        while (terms.size() < vocabulary) {
+            terms.put(SyntheticData.word(random), 1 + random.nextInt(1000));
+        }
+        index = FuzzyTermIndex.build(terms);
+
+        List<String> known = new ArrayList<>(terms.keySet());
+        int edits = query.equals("typo") ? 1 : 2;
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String term = known.get(random.nextInt(known.size()));
+            for (int e = 0; e < edits; e++) {
+                term = edit(term, random);
+            }
+            queries[i] = term;
+        }
+    }
+
+    @Benchmark
+    public List<FuzzyTermIndex.Match> lookup() {
+        String term = queries[next++ & (queries.length - 1)];
+        return index.lookup(term, FuzzyTermIndex.maxDistance(term), 1);
+    }
+
+    // Substitution, insertion, deletion or transposition at a random position
+    private static String edit(String term, Random random) {
+        StringBuilder edited = new StringBuilder(term);
+        int at = random.nextInt(term.length());
+        char letter = (char) ('a' + random.nextInt(26));
+        switch (random.nextInt(4)) {
+            case 0 -> edited.setCharAt(at, letter);
+            case 1 -> edited.insert(at, letter);
+            case 2 -> edited.deleteCharAt(at);
+            default -> {
+                if (at + 1 < edited.length()) {
+                    edited.setCharAt(at, term.charAt(at + 1));
+                    edited.setCharAt(at + 1, term.charAt(at));
+                }
+            }
+        }
+        return edited.toString();
+    }
+}
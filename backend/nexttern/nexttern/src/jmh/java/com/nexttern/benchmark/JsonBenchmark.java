@@ -0,0 +1,111 @@
+package com.nexttern.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexttern.model.Internship;
+import com.nexttern.model.Subscription;
+import com.nexttern.service.UserService;
+
+/**
+ * Parsing Supabase subscription payloads (org.json as used by UserService vs Jackson)
+ * and serializing Internship responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"100", "5000"})
+    public int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String subscriptionsPayload;
+    private List<Internship> page;
+
+    @Setup
+    public void setup() {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < rows; i++) {
+            JSONObject row = new JSONObject();
+            row.put("id", "sub-" + i);
+            row.put("user_id", "user-" + (i % 250));
+            row.put("keyword", SyntheticData.WORDS[i % SyntheticData.WORDS.length]);
+            row.put("created_at", "2025-01-01T00:00:00.000000+00:00");
+            array.put(row);
+        }
+        subscriptionsPayload = array.toString();
+        page = SyntheticData.internships(50);
+    }
+
+    @Benchmark
+    public Map<String, List<Subscription>> parseSubscriptionsOrgJson() {
+        return UserService.parseSubscriptions(subscriptionsPayload);
+    }
+
+    @Benchmark
+    public Map<String, List<Subscription>> parseSubscriptionsJacksonTree() throws Exception {
+        Map<String, List<Subscription>> result = new HashMap<>();
+        for (JsonNode row : objectMapper.readTree(subscriptionsPayload)) {
+            Subscription subscription = new Subscription(
+                row.get("id").asText(), row.get("user_id").asText(),
+                row.get("keyword").asText(), row.get("created_at").asText());
+            result.computeIfAbsent(subscription.getUserId(), k -> new ArrayList<>()).add(subscription);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, List<Subscription>> parseSubscriptionsJacksonStreaming() throws Exception {
+        Map<String, List<Subscription>> result = new HashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(subscriptionsPayload)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Subscription subscription = new Subscription();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "id" -> subscription.setId(parser.getText());
+                        case "user_id" -> subscription.setUserId(parser.getText());
+                        case "keyword" -> subscription.setKeyword(parser.getText());
+                        case "created_at" -> subscription.setCreatedAt(parser.getText());
+                        default -> parser.skipChildren();
+                    }
+                }
+                result.computeIfAbsent(subscription.getUserId(), k -> new ArrayList<>()).add(subscription);
+            }
+        }
+        return result;
+    }
+
+    // A default /internships page (50 rows)
+    @Benchmark
+    public byte[] serializeInternshipPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
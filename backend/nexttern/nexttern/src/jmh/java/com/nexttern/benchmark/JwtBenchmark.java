@@ -0,0 +1,52 @@
+package com.nexttern.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.nexttern.util.JwtUtil;
+
+/**
+ * Per-request JWT verification. JwtUtil performs the same decode, verifier build and verify
+ * steps as JwtAuthenticationFilter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private String header;
+
+    @Setup
+    public void setup() {
+        String token = JWT.create()
+            .withIssuer("https://example.supabase.co/auth/v1")
+            .withSubject("7d7f2a5e-5b1c-4a2e-9c59-0f4a8d3e2b10")
+            .withClaim("role", "authenticated")
+            .withExpiresAt(new Date(System.currentTimeMillis() + 3_600_000L))
+            .sign(Algorithm.HMAC256(SECRET));
+        header = "Bearer " + token;
+    }
+
+    @Benchmark
+    public String verify() {
+        return JwtUtil.extractUserId(header, SECRET);
+    }
+}
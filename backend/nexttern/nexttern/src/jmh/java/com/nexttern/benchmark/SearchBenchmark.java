@@ -0,0 +1,71 @@
+package com.nexttern.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nexttern.model.Internship;
+import com.nexttern.search.Bm25Index;
+import com.nexttern.util.InternshipMatcher;
+
+/**
+ * The in-memory filtering done by /internships/search once the scan has returned,
+ * and the BM25 top-k used by sort=relevance over the same data
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Internship> internships;
+    private Bm25Index index;
+
+    @Setup
+    public void setup() {
+        internships = SyntheticData.internships(size);
+        index = Bm25Index.build(internships);
+    }
+
+    @Benchmark
+    public List<Internship> keywordOnly() {
+        return InternshipMatcher.filter(internships, "kubernetes", "", 100);
+    }
+
+    @Benchmark
+    public List<Internship> keywordAndLocation() {
+        return InternshipMatcher.filter(internships, "shopify", "halifax", 100);
+    }
+
+    // Rare keyword: every row is checked, including the long description
+    @Benchmark
+    public List<Internship> noMatch() {
+        return InternshipMatcher.filter(internships, "cobol", "", 100);
+    }
+
+    @Benchmark
+    public int[] rankedTop10() {
+        return index.search(List.of("backend", "kubernetes", "intern"), 10, null);
+    }
+
+    @Benchmark
+    public int[] rankedTop100() {
+        return index.search(List.of("backend", "kubernetes", "intern"), 100, null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.nexttern.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nexttern.model.Internship;
+import com.nexttern.model.Subscription;
+import com.nexttern.model.dto.InternshipMatchDTO;
+import com.nexttern.service.InternshipAlertService;
+
+/**
+ * Keyword subscription matching for an alert digest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionMatchBenchmark {
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"500", "5000"})
+    public int newInternships;
+
+    private Map<String, List<Subscription>> subscriptions;
+    private List<Internship> internships;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        String[] keywords = { "java", "react", "shopify", "data", "toronto", "machine learning", "devops", "co-op" };
+        subscriptions = new HashMap<>();
+        for (int u = 0; u < users; u++) {
+            String userId = "user-" + u;
+            List<Subscription> list = new ArrayList<>();
+            for (int k = 0; k < 3; k++) {
+                list.add(new Subscription("sub-" + u + "-" + k, userId, keywords[random.nextInt(keywords.length)], "2025-01-01T00:00:00Z"));
+            }
+            subscriptions.put(userId, list);
+        }
+        internships = SyntheticData.internships(newInternships);
+    }
+
+    @Benchmark
+    public List<InternshipMatchDTO> match() {
+        return InternshipAlertService.matchSubscriptions(subscriptions, internships);
+    }
+}
@@ -0,0 +1,74 @@
+package com.nexttern.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.nexttern.model.Internship;
+
+/**
+ * Deterministic synthetic internships shaped like the scraped listings
+ */
+public final class SyntheticData {
+
+    static final String[] COMPANIES = {
+        "Shopify", "RBC", "TD Bank", "Wealthsimple", "Amazon", "Google", "Microsoft", "OpenText",
+        "Telus", "Rogers", "Bell", "Scotiabank", "CIBC", "BMO", "Ubisoft", "EA", "Cohere", "Kinaxis"
+    };
+    static final String[] TITLES = {
+        "Software Engineer Intern", "Data Analyst Intern", "Backend Developer Co-op", "Frontend Developer Intern",
+        "Machine Learning Intern", "DevOps Co-op", "QA Automation Intern", "Product Manager Intern",
+        "Security Analyst Co-op", "Mobile Developer Intern"
+    };
+    static final String[] LOCATIONS = {
+        "Toronto, ON", "Vancouver, BC", "Montreal, QC", "Ottawa, ON", "Waterloo, ON", "Calgary, AB",
+        "Edmonton, AB", "Halifax, NS", "Remote", "Mississauga, ON"
+    };
+    static final String[] SOURCES = { "linkedin", "indeed", "github", "company-site" };
+    static final String[] WORDS = {
+        "java", "spring", "python", "react", "aws", "kubernetes", "sql", "team", "customers", "data",
+        "pipelines", "testing", "design", "cloud", "students", "mentorship", "agile", "apis", "scale", "impact"
+    };
+
+    private static final String[] SYLLABLES = {
+        "ka", "ro", "mi", "te", "sa", "lu", "ven", "dor", "qua", "bri", "net", "sol", "tra", "pex", "on", "ix",
+        "ma", "gel", "cor", "fi", "zu", "ant", "ly", "ber"
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * A pronounceable made-up word of two to four syllables, for vocabularies larger than the listings use
+     */
+    public static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int s = 2 + random.nextInt(3); s > 0; s--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    public static List<Internship> internships(int count) {
+        Random random = new Random(42);
+        List<Internship> internships = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder description = new StringBuilder();
+            int words = 80 + random.nextInt(160);
+            for (int w = 0; w < words; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            internships.add(new Internship(
+                "id-" + i,
+                TITLES[random.nextInt(TITLES.length)],
+                COMPANIES[random.nextInt(COMPANIES.length)],
+                LOCATIONS[random.nextInt(LOCATIONS.length)],
+                description.toString(),
+                "https://example.com/jobs/" + i,
+                "2025-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10),
+                SOURCES[random.nextInt(SOURCES.length)]
+            ));
+        }
+        return internships;
+    }
+}
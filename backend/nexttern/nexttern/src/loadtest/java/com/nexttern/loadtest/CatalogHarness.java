@@ -0,0 +1,279 @@
+package com.nexttern.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.nexttern.config.DynamoDBMetrics;
+import com.nexttern.model.Internship;
+import com.nexttern.model.InternshipView;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.repository.InternshipRepository;
+import com.nexttern.service.InternshipCatalogService;
+import com.nexttern.service.InternshipDeduplicationService;
+import com.nexttern.service.InternshipSearchService;
+import com.nexttern.service.InternshipSuggestService;
+import com.nexttern.service.NearDuplicateService;
+import com.nexttern.service.SimilarInternshipService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Times the catalog and its listeners in process, with generated internships in place of DynamoDB, so it needs
+ * neither DynamoDB Local nor the application. Run it twice, in separate JVMs:
+ *   mode=seed      builds the catalog and its listeners from a full "scan" and saves the snapshot file
+ *   mode=restore   restores from that file, as a restarted instance does, and reports how long the catalog and
+ *                  its listeners took to serve the first search
+ *   mode=latency   restores, then feeds inserts, edits and removals through InternshipCatalogService.apply(), as
+ *                  InternshipStreamConsumer does, with publishPending() scheduled every applyMs as in the application,
+ *                  and reports how long each took to show up in (or drop out of) search results
+ *
+ * Arguments are key=value pairs (defaults in brackets):
+ *   mode [restore], items [100000], snapshot [${java.io.tmpdir}/nexttern-harness/catalog.snap], offHeap [true],
+ *   changes [30], applyMs [1000]
+ */
+public class CatalogHarness {
+
+    private static final String[] COMPANIES = { "Shopify", "RBC", "Wealthsimple", "Amazon", "Google", "Telus", "Cohere", "Ubisoft",
+        "TD", "Scotiabank", "OpenText", "Ciena", "Kinaxis", "Lightspeed", "Clio", "Hootsuite" };
+    private static final String[] TITLES = { "Software Engineer Intern", "Data Analyst Intern", "Backend Developer Co-op", "DevOps Co-op",
+        "Machine Learning Intern", "Frontend Developer Intern", "QA Automation Co-op", "Product Analyst Intern" };
+    private static final String[] LOCATIONS = { "Toronto, ON", "Vancouver, BC", "Montreal, QC", "Ottawa, ON", "Remote", "Waterloo, ON",
+        "Calgary, AB", "Halifax, NS" };
+    private static final String[] WORDS = { "java", "spring", "python", "react", "aws", "cloud", "sql", "data", "team", "students",
+        "kubernetes", "docker", "typescript", "analytics", "pipeline", "testing", "design", "mentorship", "agile", "api" };
+
+    private final Path snapshot;
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final GeneratedRepository repository;
+    private final CatalogSnapshotStore store;
+    private final InternshipCatalogService catalog;
+    private final InternshipSearchService search;
+    private final SimilarInternshipService similar;
+
+    private CatalogHarness(Path snapshot, int items, boolean offHeap) {
+        this.snapshot = snapshot;
+        this.repository = new GeneratedRepository(registry, items);
+        this.store = new CatalogSnapshotStore(snapshot.toString());
+        this.catalog = new InternshipCatalogService(repository, store, registry, Long.MAX_VALUE, offHeap);
+        // Registered in the order Spring creates them: NearDuplicateService before the services using it
+        NearDuplicateService nearDuplicates = new NearDuplicateService(catalog, store, 0.8);
+        this.search = new InternshipSearchService(catalog, nearDuplicates, store);
+        new InternshipSuggestService(catalog, nearDuplicates, store);
+        new InternshipDeduplicationService(repository, catalog, store, registry, snapshot.resolveSibling("url-bloom.bin").toString(), 0.001);
+        this.similar = new SimilarInternshipService(catalog, nearDuplicates, store, 256);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        String mode = options.getOrDefault("mode", "restore");
+        int items = Integer.parseInt(options.getOrDefault("items", "100000"));
+        Path snapshot = Path.of(options.getOrDefault("snapshot",
+            Path.of(System.getProperty("java.io.tmpdir"), "nexttern-harness", "catalog.snap").toString()));
+        boolean offHeap = Boolean.parseBoolean(options.getOrDefault("offHeap", "true"));
+        Files.createDirectories(snapshot.toAbsolutePath().getParent());
+
+        CatalogHarness harness = new CatalogHarness(snapshot, items, offHeap);
+        try {
+            switch (mode) {
+                case "seed" -> harness.seed();
+                case "restore" -> harness.restore();
+                case "latency" -> harness.latency(items, Integer.parseInt(options.getOrDefault("changes", "30")),
+                    Long.parseLong(options.getOrDefault("applyMs", "1000")));
+                default -> throw new IllegalArgumentException("Unknown mode " + mode);
+            }
+        } finally {
+            harness.similar.shutdown();
+            harness.search.shutdown();
+        }
+    }
+
+    private void seed() throws Exception {
+        long started = System.nanoTime();
+        catalog.reload();
+        long loaded = System.nanoTime();
+        // The similar-internship graph is built in the background; save it with the rest
+        while (!catalog.current().version().equals(similar.indexedVersion())) {
+            Thread.sleep(100);
+        }
+        long indexed = System.nanoTime();
+        catalog.persistLatest();
+        System.out.printf("Seeded %d internships: catalog and listeners %d ms, similar graph %d ms more, snapshot saved in %d ms (%d bytes)%n",
+            catalog.current().internships().size(), (loaded - started) / 1_000_000, (indexed - loaded) / 1_000_000,
+            (System.nanoTime() - indexed) / 1_000_000, Files.size(snapshot));
+    }
+
+    private void restore() throws InterruptedException {
+        long started = System.nanoTime();
+        // Restores from the snapshot file and notifies every listener before returning
+        InternshipCatalogService.Snapshot restored = catalog.current();
+        int found = search.search("java", "", 10).size();
+        long served = System.nanoTime();
+        System.out.printf("Restored %d internships and served the first search (%d results) in %d ms%n",
+            restored.internships().size(), found, (served - started) / 1_000_000);
+        while (!restored.version().equals(similar.indexedVersion())) {
+            Thread.sleep(10);
+        }
+        System.out.printf("Similar-internship graph back %d ms after that%n", (System.nanoTime() - served) / 1_000_000);
+    }
+
+    private void latency(int items, int changes, long applyMs) throws InterruptedException {
+        InternshipCatalogService.Snapshot restored = catalog.current();
+        System.out.printf("Restored %d internships%n", restored.internships().size());
+        ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor();
+        List<Long> publishes = new ArrayList<>();
+        publisher.scheduleWithFixedDelay(() -> {
+            String before = catalog.current().version();
+            long started = System.nanoTime();
+            catalog.publishPending();
+            if (!catalog.current().version().equals(before)) {
+                synchronized (publishes) {
+                    publishes.add((System.nanoTime() - started) / 1_000_000);
+                }
+            }
+        }, applyMs, applyMs, TimeUnit.MILLISECONDS);
+        Random random = new Random(2);
+        String[] kinds = { "insert", "edit", "remove" };
+        long[][] latencies = new long[kinds.length][];
+        int[] counts = new int[kinds.length];
+        for (int k = 0; k < kinds.length; k++) {
+            latencies[k] = new long[changes];
+        }
+        String lastInserted = null;
+        String lastMarker = null;
+        try {
+            for (int change = 0; change < changes; change++) {
+                int kind = lastInserted == null ? 0 : change % kinds.length;
+                String marker = "streamed" + change + "marker";
+                String id = kind == 0 ? "streamed-" + change : "harness-" + random.nextInt(items);
+                long started = System.nanoTime();
+                if (kind == 2) {
+                    catalog.apply(List.of(), List.of(lastInserted));
+                    while (found(lastMarker, lastInserted)) {
+                        Thread.sleep(1);
+                    }
+                    lastInserted = null;
+                } else {
+                    Internship internship = internship(random, id);
+                    internship.setDescription(internship.getDescription() + " " + marker);
+                    internship.setUpdatedAt(System.currentTimeMillis());
+                    catalog.apply(List.of(internship), List.of());
+                    while (!found(marker, id)) {
+                        Thread.sleep(1);
+                    }
+                    if (kind == 0) {
+                        lastInserted = id;
+                        lastMarker = marker;
+                    }
+                }
+                latencies[kind][counts[kind]++] = (System.nanoTime() - started) / 1_000_000;
+                // Changes arrive at any point between two publishes
+                Thread.sleep(random.nextLong(applyMs));
+            }
+        } finally {
+            publisher.shutdownNow();
+        }
+        synchronized (publishes) {
+            long[] sorted = publishes.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%d publishes, catalog and listeners: median %d ms, max %d ms (first %d ms)%n", sorted.length,
+                sorted[sorted.length / 2], sorted[sorted.length - 1], publishes.get(0));
+        }
+        for (int k = 0; k < kinds.length; k++) {
+            long[] sorted = Arrays.copyOf(latencies[k], counts[k]);
+            Arrays.sort(sorted);
+            if (sorted.length > 0) {
+                System.out.printf("%-7s %2d changes: stream to searchable median %d ms, max %d ms (first %d ms)%n", kinds[k], sorted.length,
+                    sorted[sorted.length / 2], sorted[sorted.length - 1], latencies[k][0]);
+            }
+        }
+    }
+
+    private boolean found(String marker, String id) {
+        List<InternshipView> results = search.search(marker, "", 1);
+        return !results.isEmpty() && results.get(0).getId().equals(id);
+    }
+
+    /**
+     * The Internships table as a generated list, so the catalog's scan and delta reads need no DynamoDB
+     */
+    private static final class GeneratedRepository extends InternshipRepository {
+
+        private final int items;
+
+        GeneratedRepository(MeterRegistry registry, int items) {
+            super(new DynamoDBMapper(unreachable()), unreachable(), new DynamoDBMetrics(registry));
+            this.items = items;
+        }
+
+        @Override
+        public List<Internship> findAll() {
+            Random random = new Random(1);
+            List<Internship> internships = new ArrayList<>(items);
+            for (int i = 0; i < items; i++) {
+                internships.add(internship(random, "harness-" + i));
+            }
+            return internships;
+        }
+
+        // Nothing changes in the "table" behind the catalog's back
+        @Override
+        public List<String> findIdsUpdatedSince(long epochMillis) {
+            return List.of();
+        }
+
+        @Override
+        public List<Internship> findAllById(Collection<String> ids) {
+            return List.of();
+        }
+
+        @Override
+        public boolean insertIfAbsent(Internship internship) {
+            return true;
+        }
+
+        // Never called: every read the catalog makes is overridden above
+        private static AmazonDynamoDB unreachable() {
+            return AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration("http://localhost:1", "us-east-1"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("harness", "harness")))
+                .build();
+        }
+    }
+
+    static Internship internship(Random random, String id) {
+        StringBuilder description = new StringBuilder();
+        for (int w = 80 + random.nextInt(160); w > 0; w--) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        // A word of its own per posting, so the index vocabulary grows with the catalog as it does with real text
+        description.append(id.replace("-", ""));
+        Internship internship = new Internship(id, TITLES[random.nextInt(TITLES.length)],
+            COMPANIES[random.nextInt(COMPANIES.length)], LOCATIONS[random.nextInt(LOCATIONS.length)],
+            description.toString(), "https://example.com/jobs/" + id, "2025-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10),
+            "harness");
+        internship.setUpdatedAt(1_700_000_000_000L + random.nextInt(1_000_000));
+        return internship;
+    }
+}
@@ -0,0 +1,62 @@
+package com.nexttern.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records request latencies for one endpoint. Samples go into a growable array guarded by the recorder,
+ * which is cheap compared with the HTTP round trip being measured.
+ */
+public class LatencyRecorder {
+
+    private final String name;
+    private final AtomicLong errors = new AtomicLong();
+    private long[] samples = new long[1 << 16];
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public void error() {
+        errors.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized Summary summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(name, count, errors.get(), count / elapsedSeconds,
+            percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), percentileMillis(sorted, 0.999),
+            sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    public record Summary(String endpoint, long requests, long errors, double throughputPerSecond,
+                          double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        public String toJson() {
+            return String.format(java.util.Locale.ROOT,
+                "{\"endpoint\":\"%s\",\"requests\":%d,\"errors\":%d,\"throughputPerSecond\":%.1f,"
+                    + "\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                endpoint, requests, errors, throughputPerSecond, p50Ms, p99Ms, p999Ms, maxMs);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.nexttern.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+
+/**
+ * Closed-loop traffic generator. Each virtual user picks an endpoint by weight, waits for the response,
+ * and immediately issues the next request. Latencies recorded during warmup are discarded.
+ */
+public class LoadDriver {
+
+    private static final String[] KEYWORDS = { "software", "data", "java", "react", "shopify", "co-op", "intern", "cloud" };
+    private static final String[] LOCATIONS = { "", "", "toronto", "vancouver", "remote", "ottawa" };
+
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final List<String> tokens = new ArrayList<>();
+    private final Map<String, Integer> mix;
+    private final Map<String, Function<ThreadLocalRandom, HttpRequest>> requests = new LinkedHashMap<>();
+
+    public LoadDriver(String baseUrl, String jwtSecret, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
+        for (int i = 0; i < 500; i++) {
+            tokens.add(JWT.create()
+                .withIssuer("http://127.0.0.1/auth/v1")
+                .withSubject(UUID.randomUUID().toString())
+                .withExpiresAt(new Date(System.currentTimeMillis() + 86_400_000L))
+                .sign(algorithm));
+        }
+        requests.put("internships", random -> get("/internships?limit=50&offset=" + random.nextInt(0, 200)));
+        requests.put("search", random -> get("/internships/search?keyword=" + KEYWORDS[random.nextInt(KEYWORDS.length)]
+            + "&location=" + LOCATIONS[random.nextInt(LOCATIONS.length)]));
+        requests.put("profile", random -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/profile"))
+            .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+            .timeout(Duration.ofSeconds(30))
+            .GET().build());
+        requests.put("generate", random -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/projects/generate"))
+            .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(90))
+            .POST(HttpRequest.BodyPublishers.ofString("{\"jobDescription\":\"Backend intern working with Java, Spring Boot and AWS.\"}"))
+            .build());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    /**
+     * Run the traffic mix and return per-endpoint summaries
+     */
+    public List<LatencyRecorder.Summary> run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        List<String> weighted = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!requests.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + entry.getKey());
+            }
+            recorders.put(entry.getKey(), new LatencyRecorder(entry.getKey()));
+            for (int i = 0; i < entry.getValue(); i++) {
+                weighted.add(entry.getKey());
+            }
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < concurrency; u++) {
+                users.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        String endpoint = weighted.get(random.nextInt(weighted.size()));
+                        HttpRequest request = requests.get(endpoint).apply(random);
+                        long sent = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            ok = response.statusCode() < 400;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long received = System.nanoTime();
+                        if (sent >= measureFrom && received <= end) {
+                            LatencyRecorder recorder = recorders.get(endpoint);
+                            if (ok) {
+                                recorder.record(received - sent);
+                            } else {
+                                recorder.error();
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+        for (LatencyRecorder recorder : recorders.values()) {
+            summaries.add(recorder.summarize(seconds));
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,170 @@
+package com.nexttern.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import com.nexttern.NextternApplication;
+import com.nexttern.model.Internship;
+
+/**
+ * Offline load test: seeds DynamoDB Local, starts Supabase/Gemini stubs, boots the application against them
+ * and a local Postgres, drives a weighted traffic mix, and reports latency percentiles and throughput.
+ *
+ * Arguments are key=value pairs (defaults in brackets):
+ *   duration [60]s, warmup [15]s, concurrency [64], seed [5000] internships,
+ *   mix [internships=40,search=40,profile=15,generate=5],
+ *   supabaseLatencyMs [40], geminiLatencyMs [1500], jitterMs [20],
+ *   dynamoEndpoint [http://localhost:8000], postgresUrl [jdbc:postgresql://localhost:5432/nexttern],
+ *   postgresUser [nexttern], postgresPassword [nexttern], report [target/loadtest-report.json]
+ */
+public class LoadTestHarness {
+
+    private static final String JWT_SECRET = "loadtest-secret-loadtest-secret-loadtest-secret";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "5000"));
+        String dynamoEndpoint = options.getOrDefault("dynamoEndpoint", "http://localhost:8000");
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "internships=40,search=40,profile=15,generate=5"));
+
+        seedInternships(dynamoEndpoint, seed);
+
+        try (StubServers stubs = new StubServers(
+                Long.parseLong(options.getOrDefault("supabaseLatencyMs", "40")),
+                Long.parseLong(options.getOrDefault("geminiLatencyMs", "1500")),
+                Long.parseLong(options.getOrDefault("jitterMs", "20")),
+                2000)) {
+
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("server.port", "0");
+            properties.put("spring.threads.virtual.enabled", options.getOrDefault("virtualThreads", "true"));
+            properties.put("aws.region", "us-east-1");
+            properties.put("aws.dynamodb.endpoint", dynamoEndpoint);
+            properties.put("aws.dynamodb.accessKey", "local");
+            properties.put("aws.dynamodb.secretKey", "local");
+            properties.put("spring.datasource.url", options.getOrDefault("postgresUrl", "jdbc:postgresql://localhost:5432/nexttern"));
+            properties.put("spring.datasource.username", options.getOrDefault("postgresUser", "nexttern"));
+            properties.put("spring.datasource.password", options.getOrDefault("postgresPassword", "nexttern"));
+            properties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
+            properties.put("spring.jpa.hibernate.ddl-auto", "update");
+            properties.put("supabase.url", stubs.supabaseUrl());
+            properties.put("supabase.key", "loadtest");
+            properties.put("SUPABASE_JWT_SECRET", JWT_SECRET);
+            properties.put("CORS_ALLOWED_ORIGINS", "http://localhost:3000");
+            properties.put("ai.gemini.api-key", "loadtest");
+            properties.put("ai.gemini.base-url", stubs.geminiUrl());
+            properties.put("logging.level.root", "WARN");
+
+            SpringApplication app = new SpringApplication(NextternApplication.class);
+            app.setDefaultProperties(properties);
+            try (ConfigurableApplicationContext context = app.run()) {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                LoadDriver driver = new LoadDriver("http://127.0.0.1:" + port, JWT_SECRET, mix);
+                System.out.printf("Driving %d virtual users for %ds (+%ds warmup) against port %s%n", concurrency, duration, warmup, port);
+
+                List<LatencyRecorder.Summary> summaries = driver.run(concurrency, Duration.ofSeconds(warmup), Duration.ofSeconds(duration));
+                printReport(summaries);
+                writeReport(Path.of(options.getOrDefault("report", "target/loadtest-report.json")), options, summaries);
+            }
+        }
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            weights.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        return weights;
+    }
+
+    private static void seedInternships(String endpoint, int count) throws InterruptedException {
+        AmazonDynamoDB client = AmazonDynamoDBClientBuilder.standard()
+            .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, "us-east-1"))
+            .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("local", "local")))
+            .build();
+        TableUtils.createTableIfNotExists(client, new CreateTableRequest()
+            .withTableName("Internships")
+            .withKeySchema(new KeySchemaElement("id", KeyType.HASH))
+            .withAttributeDefinitions(new AttributeDefinition("id", ScalarAttributeType.S))
+            .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L)));
+        TableUtils.waitUntilActive(client, "Internships");
+
+        String[] companies = { "Shopify", "RBC", "Wealthsimple", "Amazon", "Google", "Telus", "Cohere", "Ubisoft" };
+        String[] titles = { "Software Engineer Intern", "Data Analyst Intern", "Backend Developer Co-op", "DevOps Co-op" };
+        String[] locations = { "Toronto, ON", "Vancouver, BC", "Montreal, QC", "Ottawa, ON", "Remote" };
+        String[] words = { "java", "spring", "python", "react", "aws", "cloud", "sql", "data", "team", "students" };
+        Random random = new Random(1);
+        List<Internship> internships = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 120; w++) {
+                description.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            internships.add(new Internship("loadtest-" + i, titles[random.nextInt(titles.length)],
+                companies[random.nextInt(companies.length)], locations[random.nextInt(locations.length)],
+                description.toString(), "https://example.com/jobs/" + i, "2025-06-01", "loadtest"));
+        }
+        new DynamoDBMapper(client).batchSave(internships);
+        client.shutdown();
+        System.out.printf("Seeded %d internships into %s%n", count, endpoint);
+    }
+
+    private static void printReport(List<LatencyRecorder.Summary> summaries) {
+        System.out.printf("%-12s %9s %7s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyRecorder.Summary s : summaries) {
+            System.out.printf("%-12s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                s.endpoint(), s.requests(), s.errors(), s.throughputPerSecond(), s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs());
+        }
+    }
+
+    private static void writeReport(Path path, Map<String, String> options, List<LatencyRecorder.Summary> summaries) throws Exception {
+        StringBuilder json = new StringBuilder("{\"options\":{");
+        int i = 0;
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            json.append(i++ > 0 ? "," : "").append('"').append(option.getKey()).append("\":\"").append(option.getValue()).append('"');
+        }
+        json.append("},\"endpoints\":[");
+        for (int s = 0; s < summaries.size(); s++) {
+            json.append(s > 0 ? "," : "").append(summaries.get(s).toJson());
+        }
+        json.append("]}\n");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, json);
+        System.out.println("Report written to " + path);
+    }
+}
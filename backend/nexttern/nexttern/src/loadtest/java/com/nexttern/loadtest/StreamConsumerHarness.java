@@ -0,0 +1,190 @@
+package com.nexttern.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreams;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreamsClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.DeleteTableRequest;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import com.nexttern.config.DynamoDBMetrics;
+import com.nexttern.config.DynamoDBSchemaInitializer;
+import com.nexttern.model.Internship;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.repository.InternshipRepository;
+import com.nexttern.service.InternshipCatalogService;
+import com.nexttern.service.InternshipStreamConsumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Integration check of InternshipStreamConsumer against DynamoDB Local (loadtest/docker-compose.yml), without
+ * booting the application. It recreates the Internships table, so never point it at a real one.
+ *
+ * Scenarios, each printed as PASS or FAIL (the exit status is 1 if any fails):
+ *   restart     a consumer restarted before it read anything resumes at the stream tip, not its trim horizon
+ *   insert      an item written to the table reaches the catalog through the stream
+ *   delete      deleting it removes it from the catalog
+ *
+ * Arguments are key=value pairs (defaults in brackets):
+ *   dynamoEndpoint [http://localhost:8000], history [50] items written before the first start, timeoutSeconds [30]
+ */
+public class StreamConsumerHarness {
+
+    private static final String TABLE_NAME = "Internships";
+    private static final long POLL_MS = 200;
+
+    private final AmazonDynamoDB dynamoDB;
+    private final AmazonDynamoDBStreams streams;
+    private final InternshipRepository repository;
+    private final InternshipCatalogService catalog;
+    private final Path checkpoint;
+    private final long timeoutMs;
+    private final List<String> failures = new ArrayList<>();
+
+    private StreamConsumerHarness(String endpoint, Path workDir, long timeoutMs) {
+        AwsClientBuilder.EndpointConfiguration local = new AwsClientBuilder.EndpointConfiguration(endpoint, "us-east-1");
+        AWSStaticCredentialsProvider credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials("local", "local"));
+        this.dynamoDB = AmazonDynamoDBClientBuilder.standard().withEndpointConfiguration(local).withCredentials(credentials).build();
+        this.streams = AmazonDynamoDBStreamsClientBuilder.standard().withEndpointConfiguration(local).withCredentials(credentials).build();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        this.repository = new InternshipRepository(new DynamoDBMapper(dynamoDB), dynamoDB, new DynamoDBMetrics(registry));
+        this.catalog = new InternshipCatalogService(repository,
+            new CatalogSnapshotStore(workDir.resolve("catalog.snap").toString()), registry, Long.MAX_VALUE, false);
+        this.checkpoint = workDir.resolve("stream.checkpoint");
+        this.timeoutMs = timeoutMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        String endpoint = options.getOrDefault("dynamoEndpoint", "http://localhost:8000");
+        int history = Integer.parseInt(options.getOrDefault("history", "50"));
+        long timeoutMs = Long.parseLong(options.getOrDefault("timeoutSeconds", "30")) * 1000;
+
+        StreamConsumerHarness harness = new StreamConsumerHarness(endpoint, Files.createTempDirectory("stream-harness"), timeoutMs);
+        harness.recreateTable();
+        List<Internship> written = new ArrayList<>();
+        for (int i = 0; i < history; i++) {
+            written.add(internship("history-" + i));
+        }
+        harness.repository.saveAll(written);
+        harness.catalog.current();
+
+        harness.restart();
+        harness.insertAndDelete();
+
+        if (harness.failures.isEmpty()) {
+            System.out.println("All stream scenarios passed");
+        } else {
+            System.out.println("Failed: " + String.join(", ", harness.failures));
+            System.exit(1);
+        }
+    }
+
+    private void restart() throws InterruptedException {
+        // The first start sees the history only as records before the tip, and saves its shards unread
+        Consumer first = new Consumer();
+        first.consumer.start();
+        boolean saved = waitFor(() -> Files.exists(checkpoint));
+        Thread.sleep(5 * POLL_MS);
+        first.consumer.stop();
+
+        Consumer restarted = new Consumer();
+        restarted.consumer.start();
+        Thread.sleep(10 * POLL_MS);
+        restarted.consumer.stop();
+        double replayed = restarted.records();
+        check("restart", saved && replayed == 0, "checkpoint saved " + saved + ", " + (long) replayed + " record(s) replayed");
+    }
+
+    private void insertAndDelete() throws InterruptedException {
+        Consumer consumer = new Consumer();
+        consumer.consumer.start();
+        // A record written before the consumer positions itself at the tip would be skipped
+        Thread.sleep(5 * POLL_MS);
+        try {
+            repository.save(internship("inserted"));
+            boolean inserted = waitFor(() -> inCatalog("inserted"));
+            check("insert", inserted, (long) consumer.records() + " record(s) read");
+
+            repository.deleteById("inserted");
+            boolean deleted = inserted && waitFor(() -> !inCatalog("inserted"));
+            check("delete", deleted, (long) consumer.records() + " record(s) read");
+        } finally {
+            consumer.consumer.stop();
+        }
+    }
+
+    private boolean inCatalog(String id) {
+        // No scheduler here: publish what the stream queued, as the catalog's timer would
+        catalog.publishPending();
+        return catalog.current().internships().indexOf(id) >= 0;
+    }
+
+    private void check(String scenario, boolean passed, String detail) {
+        System.out.printf("%-8s %s (%s)%n", scenario, passed ? "PASS" : "FAIL", detail);
+        if (!passed) {
+            failures.add(scenario);
+        }
+    }
+
+    private boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(POLL_MS);
+        }
+        return condition.getAsBoolean();
+    }
+
+    private void recreateTable() throws InterruptedException {
+        TableUtils.deleteTableIfExists(dynamoDB, new DeleteTableRequest(TABLE_NAME));
+        waitFor(() -> !dynamoDB.listTables().getTableNames().contains(TABLE_NAME));
+        DynamoDBSchemaInitializer initializer = new DynamoDBSchemaInitializer(dynamoDB);
+        initializer.start();
+        if (!waitFor(initializer::isReady)) {
+            throw new IllegalStateException("DynamoDB Local did not become ready; is loadtest/docker-compose.yml up?");
+        }
+    }
+
+    private static Internship internship(String id) {
+        Internship internship = new Internship(id, "Software Engineer Intern", "Shopify", "Toronto, ON",
+            "Build services in java and spring", "https://example.com/jobs/" + id, "2025-06-01", "harness");
+        internship.setExpiresAt(System.currentTimeMillis() / 1000 + 86_400);
+        return internship;
+    }
+
+    /**
+     * A consumer with its own meters, sharing the checkpoint file like a restarted process would
+     */
+    private final class Consumer {
+        private final MeterRegistry registry = new SimpleMeterRegistry();
+        private final InternshipStreamConsumer consumer = new InternshipStreamConsumer(dynamoDB, streams, repository,
+            catalog, registry, true, POLL_MS, checkpoint.toString());
+
+        private double records() {
+            return registry.find("internships.stream.records").counters().stream().mapToDouble(Counter::count).sum();
+        }
+    }
+}
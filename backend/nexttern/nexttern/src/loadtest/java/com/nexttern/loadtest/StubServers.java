@@ -0,0 +1,94 @@
+package com.nexttern.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stub HTTP servers emulating the Supabase REST/RPC/Auth admin API and Gemini generateContent.
+ * Each response is delayed by a base latency plus uniform jitter so downstream slowness can be dialled in.
+ */
+public class StubServers implements AutoCloseable {
+
+    private final HttpServer supabase;
+    private final HttpServer gemini;
+
+    public StubServers(long supabaseLatencyMs, long geminiLatencyMs, long jitterMs, int subscriptionRows) throws IOException {
+        String subscriptions = subscriptionsPayload(subscriptionRows);
+
+        supabase = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        supabase.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        supabase.createContext("/rest/v1/subscriptions", exchange ->
+            respond(exchange, supabaseLatencyMs, jitterMs, 200, subscriptions));
+        supabase.createContext("/rest/v1/rpc/get_users_by_ids", exchange ->
+            respond(exchange, supabaseLatencyMs, jitterMs, 200,
+                "[{\"id\":\"00000000-0000-0000-0000-000000000001\",\"email\":\"student@example.com\"}]"));
+        supabase.createContext("/auth/v1/admin/users", exchange ->
+            respond(exchange, supabaseLatencyMs, jitterMs, 200, "{}"));
+        supabase.start();
+
+        gemini = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        gemini.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        gemini.createContext("/", exchange -> respond(exchange, geminiLatencyMs, jitterMs, 200, """
+            {"candidates":[{"content":{"role":"model","parts":[{"text":"{\\"title\\":\\"Load test project\\",\\"difficulty\\":\\"Intermediate\\"}"}]},"finishReason":"STOP"}],
+             "usageMetadata":{"promptTokenCount":850,"candidatesTokenCount":420,"totalTokenCount":1270}}
+            """));
+        gemini.start();
+    }
+
+    public String supabaseUrl() {
+        return "http://127.0.0.1:" + supabase.getAddress().getPort();
+    }
+
+    public String geminiUrl() {
+        return "http://127.0.0.1:" + gemini.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, long latencyMs, long jitterMs, int status, String body) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        try {
+            long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String subscriptionsPayload(int rows) {
+        String[] keywords = { "java", "react", "data", "devops", "machine learning", "co-op" };
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"sub-").append(i)
+                .append("\",\"user_id\":\"user-").append(i % 200)
+                .append("\",\"keyword\":\"").append(keywords[i % keywords.length])
+                .append("\",\"created_at\":\"2025-01-01T00:00:00+00:00\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public void close() {
+        supabase.stop(0);
+        gemini.stop(0);
+    }
+}
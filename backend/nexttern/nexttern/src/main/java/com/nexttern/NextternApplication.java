@@ -1,5 +1,7 @@
 package com.nexttern;
 
+import java.util.Map;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -10,6 +12,21 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class NextternApplication {
     public static void main(String[] args) {
-        SpringApplication.run(NextternApplication.class, args);
+        SpringApplication app = new SpringApplication(NextternApplication.class);
+        app.setDefaultProperties(Map.of(
+            // Serve requests and run scheduled jobs on virtual threads; set SPRING_THREADS_VIRTUAL_ENABLED=false to opt out
+            "spring.threads.virtual.enabled", "true",
+            // /actuator/health/readiness stays down until the DynamoDB schema check has finished
+            "management.endpoint.health.probes.enabled", "true",
+            "management.endpoint.health.group.readiness.include", "readinessState,dynamoDbSchema",
+            // Prometheus scrape endpoint with latency histograms for inbound and outbound HTTP. It needs a bearer token
+            // unless management.server.port moves actuator to a private port (see SecurityConfig).
+            // Spans are only exported when management.otlp.tracing.endpoint names a collector; without it tracing
+            // just propagates trace context on outbound calls.
+            "management.endpoints.web.exposure.include", "health,prometheus",
+            "management.metrics.distribution.percentiles-histogram.http.server.requests", "true",
+            "management.metrics.distribution.percentiles-histogram.http.client.requests", "true"
+        ));
+        app.run(args);
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
@@ -14,12 +13,13 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import com.nexttern.model.AccountDeletionJob;
+import com.nexttern.service.AccountDeletionService;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api")
@@ -27,13 +27,7 @@ public class DeleteAccount {
     private static final Logger logger = LoggerFactory.getLogger(DeleteAccount.class);
 
     @Autowired
-    private com.nexttern.service.UserService userService; // Assuming there is a UserService to handle user operations
-
-    @Value("${supabase.key:}")
-    private String supabaseServiceRoleKey;
-
-    @Value("${supabase.url:}")
-    private String supabaseUrl;
+    private AccountDeletionService accountDeletionService;
 
     @Autowired
     private Environment env;
@@ -73,7 +67,8 @@ public class DeleteAccount {
         }
     }
 
-    // Secure endpoint to delete the authenticated user's account
+    // Secure endpoint to delete the authenticated user's account.
+    // The deletion runs as a background job; poll the returned job id for its status.
     @DeleteMapping("/delete-account")
     public ResponseEntity<?> deleteAccount(@RequestHeader("Authorization") String authorization) {
         String userId = extractUserIdFromToken(authorization);
@@ -81,30 +76,37 @@ public class DeleteAccount {
             return ResponseEntity.badRequest().body(Collections.singletonMap("error", "Invalid or missing user token"));
         }
         try {
-            // 1. Delete user and all related data (CASCADE in DB recommended)
-            userService.deleteUserAndData(userId);
-
-            // 2. Delete from Supabase Auth via Admin API (call from backend only)
-            if (supabaseServiceRoleKey == null || supabaseServiceRoleKey.isEmpty() || supabaseUrl == null || supabaseUrl.isEmpty()) {
-                return ResponseEntity.status(500).body(Collections.singletonMap("error", "Supabase service role key or URL not configured"));
-            }
-            try {
-                String deleteUrl = supabaseUrl + "/auth/v1/admin/users/" + userId;
-                RestTemplate restTemplate = new RestTemplate();
-                HttpHeaders headers = new HttpHeaders();
-                headers.set("apikey", supabaseServiceRoleKey);
-                headers.set("Authorization", "Bearer " + supabaseServiceRoleKey);
-                headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-                HttpEntity<String> entity = new HttpEntity<>(null, headers);
-                restTemplate.exchange(deleteUrl, HttpMethod.DELETE, entity, String.class);
-            } catch (Exception e) {
-                // Not fatal, but log
-                logger.warn("Failed to delete user from Supabase Auth: {}", e.getMessage());
-            }
-
-            return ResponseEntity.ok(Collections.singletonMap("success", true));
+            AccountDeletionJob job = accountDeletionService.enqueue(userId);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("success", true);
+            body.put("jobId", job.getId());
+            body.put("status", job.getStatus());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
         } catch (Exception e) {
+            logger.error("Failed to queue account deletion for user {}: {}", userId, e.getMessage());
             return ResponseEntity.status(500).body(Collections.singletonMap("error", e.getMessage()));
         }
     }
+
+    // Status of a deletion job owned by the authenticated user
+    @GetMapping("/delete-account/{jobId}")
+    public ResponseEntity<?> getDeletionStatus(
+            @RequestHeader("Authorization") String authorization,
+            @PathVariable UUID jobId) {
+        String userId = extractUserIdFromToken(authorization);
+        if (userId == null || userId.isBlank()) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", "Invalid or missing user token"));
+        }
+        return accountDeletionService.getJob(jobId, userId)
+                .<ResponseEntity<?>>map(job -> {
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("jobId", job.getId());
+                    body.put("status", job.getStatus());
+                    body.put("attempts", job.getAttempts());
+                    body.put("lastError", job.getLastError());
+                    body.put("updatedAt", job.getUpdatedAt());
+                    return ResponseEntity.ok(body);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "Deletion job not found")));
+    }
 }
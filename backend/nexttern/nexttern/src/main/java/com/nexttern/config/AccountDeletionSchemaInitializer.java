@@ -0,0 +1,47 @@
+package com.nexttern.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the account deletion outbox table (db/migration/account_deletion_jobs.sql) if it does not exist.
+ * The script is idempotent and runs once the context has started; disable it with
+ * account-deletion.schema.init=false where the application's database user may not run DDL and the script is
+ * applied by hand instead.
+ */
+@Component
+public class AccountDeletionSchemaInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(AccountDeletionSchemaInitializer.class);
+    private static final String SCRIPT = "db/migration/account_deletion_jobs.sql";
+
+    private final DataSource dataSource;
+
+    @Value("${account-deletion.schema.init:true}")
+    private boolean enabled;
+
+    public AccountDeletionSchemaInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)).execute(dataSource);
+            logger.info("Account deletion schema is up to date");
+        } catch (RuntimeException e) {
+            // Deletion requests fail until the table exists, but nothing else depends on it
+            logger.error("Failed to apply {}: {}", SCRIPT, e.getMessage());
+        }
+    }
+}
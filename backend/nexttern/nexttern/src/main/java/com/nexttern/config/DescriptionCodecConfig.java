@@ -0,0 +1,25 @@
+package com.nexttern.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import com.nexttern.util.DescriptionCodec;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Selects how internship descriptions are written to DynamoDB.
+ * Reads always accept both the plain and the compressed attribute, so the flag can be flipped either way
+ * before or after running the migration.
+ */
+@Configuration
+public class DescriptionCodecConfig {
+
+    @Value("${internships.description-codec.enabled:false}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        DescriptionCodec.setCompressOnWrite(enabled);
+    }
+}
@@ -1,9 +1,8 @@
 package com.nexttern.config;
 
-import java.util.Arrays;
+import java.net.URI;
+import java.time.Duration;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,24 +12,22 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreams;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreamsClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.document.DynamoDB;
-import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
-import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
-import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
-import com.amazonaws.services.dynamodbv2.model.KeyType;
-import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
-import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
-import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
-import com.amazonaws.services.dynamodbv2.util.TableUtils;
 
-import jakarta.annotation.PostConstruct;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 
 @Configuration
 public class DynamoDBConfig {
-    private static final Logger logger = LoggerFactory.getLogger(DynamoDBConfig.class);
-    private static final String TABLE_NAME = "Internships";
-    
+
     @Value("${aws.dynamodb.endpoint:}")
     private String dynamoDbEndpoint;
 
@@ -43,10 +40,14 @@ public class DynamoDBConfig {
     @Value("${aws.dynamodb.secretKey:}")
     private String secretKey;
 
+    @Value("${aws.dynamodb.async.max-concurrency:100}")
+    private int asyncMaxConcurrency;
+
 
     @Bean
-    public AmazonDynamoDB amazonDynamoDB() {
-        AmazonDynamoDBClientBuilder builder = AmazonDynamoDBClientBuilder.standard();
+    public AmazonDynamoDB amazonDynamoDB(DynamoDBMetrics dynamoDBMetrics) {
+        AmazonDynamoDBClientBuilder builder = AmazonDynamoDBClientBuilder.standard()
+            .withRequestHandlers(dynamoDBMetrics);
         boolean hasEndpoint = dynamoDbEndpoint != null && !dynamoDbEndpoint.isEmpty();
         boolean hasKeys = accessKey != null && !accessKey.isEmpty() && secretKey != null && !secretKey.isEmpty();
 
@@ -67,6 +68,24 @@ public class DynamoDBConfig {
         return builder.build();
     }
 
+    /**
+     * Reads the Internships table's change stream, see InternshipStreamConsumer.
+     * Uses the same endpoint, so it talks to DynamoDB Local's stream emulation when one is configured.
+     */
+    @Bean
+    public AmazonDynamoDBStreams amazonDynamoDBStreams() {
+        AmazonDynamoDBStreamsClientBuilder builder = AmazonDynamoDBStreamsClientBuilder.standard();
+        if (dynamoDbEndpoint != null && !dynamoDbEndpoint.isEmpty()) {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(dynamoDbEndpoint, awsRegion));
+        } else {
+            builder.withRegion(awsRegion);
+        }
+        if (accessKey != null && !accessKey.isEmpty() && secretKey != null && !secretKey.isEmpty()) {
+            builder.withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)));
+        }
+        return builder.build();
+    }
+
     @Bean
     public DynamoDBMapper dynamoDBMapper(AmazonDynamoDB amazonDynamoDB) {
         return new DynamoDBMapper(amazonDynamoDB);
@@ -76,66 +95,32 @@ public class DynamoDBConfig {
     public DynamoDB dynamoDB(AmazonDynamoDB amazonDynamoDB) {
         return new DynamoDB(amazonDynamoDB);
     }
-    
-    @PostConstruct
-    public void init() {
-        // Create the client directly using the bean method
-        AmazonDynamoDB amazonDynamoDBClient = amazonDynamoDB();
-        
-        try {
-            // Check if table already exists
-            try {
-                var tableDesc = amazonDynamoDBClient.describeTable(TABLE_NAME).getTable();
-                logger.info("Table '{}' already exists", TABLE_NAME);
-                if (tableDesc.getProvisionedThroughput() != null) {
-                    logger.info("Current RCU: {} | WCU: {}", 
-                        tableDesc.getProvisionedThroughput().getReadCapacityUnits(),
-                        tableDesc.getProvisionedThroughput().getWriteCapacityUnits()
-                    );
-                }
-                return;
-            } catch (ResourceNotFoundException e) {
-                // Table doesn't exist, create it
-                logger.info("Creating '{}' table...", TABLE_NAME);
-            }
-
-            CreateTableRequest request = new CreateTableRequest()
-                .withTableName(TABLE_NAME)
-                .withKeySchema(Arrays.asList(
-                    new KeySchemaElement("id", KeyType.HASH)
-                ))
-                .withAttributeDefinitions(Arrays.asList(
-                    new AttributeDefinition("id", ScalarAttributeType.S)
-                ))
-                .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L));
-
-            amazonDynamoDBClient.createTable(request);
-
-            // Wait for table to be created
-            logger.info("Waiting for table to be created...");
-            try {
-                TableUtils.waitUntilActive(amazonDynamoDBClient, TABLE_NAME);
-                logger.info("Table '{}' created successfully", TABLE_NAME);
-                // Log RCU/WCU after creation
-                var tableDesc = amazonDynamoDBClient.describeTable(TABLE_NAME).getTable();
-                if (tableDesc.getProvisionedThroughput() != null) {
-                    logger.info("Current RCU: {} | WCU: {}", 
-                        tableDesc.getProvisionedThroughput().getReadCapacityUnits(),
-                        tableDesc.getProvisionedThroughput().getWriteCapacityUnits()
-                    );
-                }
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                logger.error("Table creation was interrupted: {}", ie.getMessage());
-            }
-        } catch (ResourceNotFoundException rnfe) {
-            logger.error("Resource not found during DynamoDB setup: {}", rnfe.getMessage());
-        } catch (com.amazonaws.AmazonServiceException ase) {
-            logger.error("AmazonServiceException during setup: {}", ase.getMessage());
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            logger.error("Failed to setup DynamoDB: {}", e.getMessage());
-            // Don't throw exception as it might prevent application startup
-            // Just log the error and continue
+
+    /**
+     * Non-blocking v2 client on a pooled Netty event loop, used by the reactive repository
+     */
+    @Bean(destroyMethod = "close")
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder()
+            .region(Region.of(awsRegion))
+            .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(asyncMaxConcurrency)
+                .connectionAcquisitionTimeout(Duration.ofSeconds(10))
+                .connectionMaxIdleTime(Duration.ofSeconds(60)));
+
+        if (dynamoDbEndpoint != null && !dynamoDbEndpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(dynamoDbEndpoint));
+        }
+        if (accessKey != null && !accessKey.isEmpty() && secretKey != null && !secretKey.isEmpty()) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
         }
+        return builder.build();
+    }
+
+    @Bean
+    public DynamoDbEnhancedAsyncClient dynamoDbEnhancedAsyncClient(DynamoDbAsyncClient dynamoDbAsyncClient) {
+        return DynamoDbEnhancedAsyncClient.builder()
+            .dynamoDbClient(dynamoDbAsyncClient)
+            .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.nexttern.config;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * DynamoDB instrumentation for the v1 client.
+ * As a request handler it asks DynamoDB to return consumed capacity and records it, together with call latency,
+ * per operation. Repository methods wrap their work in record(), which times the whole method and tags
+ * every DynamoDB call it makes with the method name.
+ */
+@Component
+public class DynamoDBMetrics extends RequestHandler2 {
+
+    private static final HandlerContextKey<Long> START_NANOS = new HandlerContextKey<>("NextternStartNanos");
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public DynamoDBMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Time a repository method and attribute its DynamoDB calls to it
+     * @param method Repository method name, used as the "method" tag
+     */
+    public <T> T record(String method, Supplier<T> call) {
+        String previous = CALLER.get();
+        CALLER.set(method);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("dynamodb.repository")
+                .description("InternshipRepository method latency, including all pages")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+            if (previous == null) {
+                CALLER.remove();
+            } else {
+                CALLER.set(previous);
+            }
+        }
+    }
+
+    public void record(String method, Runnable call) {
+        record(method, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        if (request instanceof ScanRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof QueryRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof GetItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof PutItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof UpdateItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof DeleteItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchGetItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchWriteItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        request.addHandlerContext(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        String operation = operation(request);
+        recordLatency(request, operation, "success");
+
+        Object result = response == null ? null : response.getAwsResponse();
+        if (result instanceof ScanResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof QueryResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof GetItemResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof PutItemResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof UpdateItemResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof DeleteItemResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof BatchGetItemResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        } else if (result instanceof BatchWriteItemResult r) {
+            recordCapacity(operation, r.getConsumedCapacity());
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        recordLatency(request, operation(request), "error");
+    }
+
+    private void recordLatency(Request<?> request, String operation, String outcome) {
+        Long start = request.getHandlerContext(START_NANOS);
+        if (start == null) {
+            return;
+        }
+        Timer.builder("dynamodb.requests")
+            .description("Latency of individual DynamoDB API calls")
+            .tag("operation", operation)
+            .tag("method", caller())
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordCapacity(String operation, ConsumedCapacity capacity) {
+        if (capacity == null || capacity.getCapacityUnits() == null) {
+            return;
+        }
+        DistributionSummary.builder("dynamodb.consumed.capacity")
+            .description("Capacity units consumed per DynamoDB call")
+            .baseUnit("capacity_units")
+            .tag("operation", operation)
+            .tag("method", caller())
+            .tag("table", capacity.getTableName() == null ? "unknown" : capacity.getTableName())
+            .register(meterRegistry)
+            .record(capacity.getCapacityUnits());
+    }
+
+    private void recordCapacity(String operation, List<ConsumedCapacity> capacities) {
+        if (capacities != null) {
+            for (ConsumedCapacity capacity : capacities) {
+                recordCapacity(operation, capacity);
+            }
+        }
+    }
+
+    private static String operation(Request<?> request) {
+        String name = request.getOriginalRequest().getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    private static String caller() {
+        String caller = CALLER.get();
+        return caller == null ? "none" : caller;
+    }
+}
@@ -0,0 +1,254 @@
+package com.nexttern.config;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.BillingMode;
+import com.amazonaws.services.dynamodbv2.model.CreateGlobalSecondaryIndexAction;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTimeToLiveRequest;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.StreamSpecification;
+import com.amazonaws.services.dynamodbv2.model.StreamViewType;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.TimeToLiveDescription;
+import com.amazonaws.services.dynamodbv2.model.TimeToLiveSpecification;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateTimeToLiveRequest;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import com.nexttern.model.Internship;
+
+/**
+ * Ensures the Internships table exists without holding up context refresh.
+ * The check runs on a background thread once the context has started; until it succeeds this indicator
+ * reports OUT_OF_SERVICE, which keeps the readiness probe (and so the load balancer) away from the instance.
+ */
+@Component("dynamoDbSchemaHealthIndicator")
+public class DynamoDBSchemaInitializer implements HealthIndicator {
+    private static final Logger logger = LoggerFactory.getLogger(DynamoDBSchemaInitializer.class);
+    private static final String TABLE_NAME = "Internships";
+    private static final String TTL_ATTRIBUTE = "expiresAt";
+
+    private final AmazonDynamoDB amazonDynamoDB;
+
+    @Value("${aws.dynamodb.schema.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    private volatile boolean ready = false;
+    private volatile String lastError;
+
+    public DynamoDBSchemaInitializer(AmazonDynamoDB amazonDynamoDB) {
+        this.amazonDynamoDB = amazonDynamoDB;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("dynamodb-schema-init").start(this::initWithRetry);
+    }
+
+    @Override
+    public Health health() {
+        if (ready) {
+            return Health.up().withDetail("table", TABLE_NAME).build();
+        }
+        Health.Builder builder = Health.outOfService().withDetail("table", TABLE_NAME);
+        if (lastError != null) {
+            builder.withDetail("error", lastError);
+        }
+        return builder.build();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void initWithRetry() {
+        while (!ready && !Thread.currentThread().isInterrupted()) {
+            try {
+                ensureTable();
+                ensureTimeToLive();
+                ensureUpdatedAtIndex();
+                ensureStream();
+                ready = true;
+                lastError = null;
+            } catch (com.amazonaws.AmazonClientException | IllegalArgumentException | IllegalStateException e) {
+                lastError = e.getMessage();
+                logger.error("Failed to setup DynamoDB, retrying in {} ms: {}", retryDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                logger.error("Table creation was interrupted: {}", ie.getMessage());
+            }
+        }
+    }
+
+    private void ensureTable() throws InterruptedException {
+        // Check if table already exists
+        try {
+            var tableDesc = amazonDynamoDB.describeTable(TABLE_NAME).getTable();
+            logger.info("Table '{}' already exists", TABLE_NAME);
+            logThroughput(tableDesc);
+            return;
+        } catch (ResourceNotFoundException e) {
+            // Table doesn't exist, create it
+            logger.info("Creating '{}' table...", TABLE_NAME);
+        }
+
+        CreateTableRequest request = new CreateTableRequest()
+            .withTableName(TABLE_NAME)
+            .withKeySchema(Arrays.asList(
+                new KeySchemaElement("id", KeyType.HASH)
+            ))
+            .withAttributeDefinitions(Arrays.asList(
+                new AttributeDefinition("id", ScalarAttributeType.S),
+                new AttributeDefinition("changeFeed", ScalarAttributeType.S),
+                new AttributeDefinition("updatedAt", ScalarAttributeType.N)
+            ))
+            .withGlobalSecondaryIndexes(updatedAtIndex(new ProvisionedThroughput(5L, 5L)))
+            .withStreamSpecification(streamSpecification())
+            .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L));
+
+        // Another instance may have created it between describe and create
+        TableUtils.createTableIfNotExists(amazonDynamoDB, request);
+
+        // Wait for table to be created
+        logger.info("Waiting for table to be created...");
+        TableUtils.waitUntilActive(amazonDynamoDB, TABLE_NAME);
+        logger.info("Table '{}' created successfully", TABLE_NAME);
+        logThroughput(amazonDynamoDB.describeTable(TABLE_NAME).getTable());
+    }
+
+    /**
+     * Turn on DynamoDB TTL for expiresAt. Failure is logged but does not hold readiness,
+     * since the app still hides expired items itself.
+     */
+    private void ensureTimeToLive() {
+        try {
+            TimeToLiveDescription ttl = amazonDynamoDB.describeTimeToLive(new DescribeTimeToLiveRequest().withTableName(TABLE_NAME))
+                .getTimeToLiveDescription();
+            String status = ttl == null ? null : ttl.getTimeToLiveStatus();
+            if ("ENABLED".equals(status) || "ENABLING".equals(status)) {
+                return;
+            }
+            amazonDynamoDB.updateTimeToLive(new UpdateTimeToLiveRequest()
+                .withTableName(TABLE_NAME)
+                .withTimeToLiveSpecification(new TimeToLiveSpecification().withAttributeName(TTL_ATTRIBUTE).withEnabled(true)));
+            logger.info("Enabled TTL on '{}' using '{}'", TABLE_NAME, TTL_ATTRIBUTE);
+        } catch (com.amazonaws.AmazonClientException e) {
+            logger.warn("Could not enable TTL on '{}': {}", TABLE_NAME, e.getMessage());
+        }
+    }
+
+    /**
+     * Add the keys-only updatedAt index used for delta catalog refreshes to a table created without it.
+     * Every item write is also an index write, so the index gets the table's write capacity (none on an
+     * on-demand table). DynamoDB backfills it in the background; until it is ACTIVE the catalog falls back to
+     * full scans, so failure is logged but does not hold readiness.
+     */
+    private void ensureUpdatedAtIndex() {
+        try {
+            TableDescription table = amazonDynamoDB.describeTable(TABLE_NAME).getTable();
+            var indexes = table.getGlobalSecondaryIndexes();
+            if (indexes != null) {
+                for (GlobalSecondaryIndexDescription index : indexes) {
+                    if (Internship.UPDATED_AT_INDEX.equals(index.getIndexName())) {
+                        return;
+                    }
+                }
+            }
+            boolean onDemand = table.getBillingModeSummary() != null
+                && BillingMode.PAY_PER_REQUEST.toString().equals(table.getBillingModeSummary().getBillingMode());
+            ProvisionedThroughputDescription capacity = table.getProvisionedThroughput();
+            GlobalSecondaryIndex index = updatedAtIndex(onDemand || capacity == null ? null
+                : new ProvisionedThroughput(capacity.getReadCapacityUnits(), capacity.getWriteCapacityUnits()));
+            amazonDynamoDB.updateTable(new UpdateTableRequest()
+                .withTableName(TABLE_NAME)
+                .withAttributeDefinitions(
+                    new AttributeDefinition("changeFeed", ScalarAttributeType.S),
+                    new AttributeDefinition("updatedAt", ScalarAttributeType.N))
+                .withGlobalSecondaryIndexUpdates(new GlobalSecondaryIndexUpdate().withCreate(new CreateGlobalSecondaryIndexAction()
+                    .withIndexName(index.getIndexName())
+                    .withKeySchema(index.getKeySchema())
+                    .withProjection(index.getProjection())
+                    .withProvisionedThroughput(index.getProvisionedThroughput()))));
+            logger.info("Creating index '{}' on '{}'", Internship.UPDATED_AT_INDEX, TABLE_NAME);
+        } catch (com.amazonaws.AmazonClientException e) {
+            logger.warn("Could not create index '{}' on '{}': {}", Internship.UPDATED_AT_INDEX, TABLE_NAME, e.getMessage());
+        }
+    }
+
+    /**
+     * Turn on the change stream InternshipStreamConsumer tails. Failure is logged but does not hold readiness:
+     * the catalog still catches up through delta refreshes. A table being updated (a new index backfilling)
+     * rejects the change, so it is retried on the next start.
+     */
+    private void ensureStream() {
+        try {
+            StreamSpecification current = amazonDynamoDB.describeTable(TABLE_NAME).getTable().getStreamSpecification();
+            if (current != null && Boolean.TRUE.equals(current.getStreamEnabled())) {
+                if (!StreamViewType.NEW_IMAGE.toString().equals(current.getStreamViewType())
+                        && !StreamViewType.NEW_AND_OLD_IMAGES.toString().equals(current.getStreamViewType())) {
+                    logger.info("Stream on '{}' has no new images ({}); changed items will be read from the table",
+                        TABLE_NAME, current.getStreamViewType());
+                }
+                return;
+            }
+            amazonDynamoDB.updateTable(new UpdateTableRequest()
+                .withTableName(TABLE_NAME)
+                .withStreamSpecification(streamSpecification()));
+            logger.info("Enabled stream on '{}'", TABLE_NAME);
+        } catch (com.amazonaws.AmazonClientException e) {
+            logger.warn("Could not enable stream on '{}': {}", TABLE_NAME, e.getMessage());
+        }
+    }
+
+    // New images only: consumers replace the whole item and never need the previous version
+    private static StreamSpecification streamSpecification() {
+        return new StreamSpecification().withStreamEnabled(true).withStreamViewType(StreamViewType.NEW_IMAGE);
+    }
+
+    // Keys only: a delta refresh reads ids here and loads just those items from the table.
+    // Throughput is null for an on-demand table.
+    private static GlobalSecondaryIndex updatedAtIndex(ProvisionedThroughput throughput) {
+        return new GlobalSecondaryIndex()
+            .withIndexName(Internship.UPDATED_AT_INDEX)
+            .withKeySchema(
+                new KeySchemaElement("changeFeed", KeyType.HASH),
+                new KeySchemaElement("updatedAt", KeyType.RANGE))
+            .withProjection(new Projection().withProjectionType(ProjectionType.KEYS_ONLY))
+            .withProvisionedThroughput(throughput);
+    }
+
+    private void logThroughput(TableDescription tableDesc) {
+        if (tableDesc.getProvisionedThroughput() != null) {
+            logger.info("Current RCU: {} | WCU: {}",
+                tableDesc.getProvisionedThroughput().getReadCapacityUnits(),
+                tableDesc.getProvisionedThroughput().getWriteCapacityUnits()
+            );
+        }
+    }
+}
@@ -5,7 +5,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nexttern.model.InternshipView;
+import com.nexttern.util.InternshipFields;
 
 /**
  * Configuration class for Jackson JSON serialization
@@ -19,6 +23,10 @@ public class JacksonConfig {
         ObjectMapper objectMapper = builder.build();
         // Register the JavaTimeModule to handle LocalDateTime and other Java 8 date/time types
         objectMapper.registerModule(new JavaTimeModule());
+        // Internships support per-request field selection; without a request-specific filter every field is written.
+        // Registered on the view type, so it covers both Internship and catalog rows.
+        objectMapper.addMixIn(InternshipView.class, InternshipFields.FilterMixin.class);
+        objectMapper.setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
         return objectMapper;
     }
 }
@@ -0,0 +1,31 @@
+package com.nexttern.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.nexttern.model.InternshipView;
+import com.nexttern.service.AlertStreamService;
+
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertStreamController {
+
+    @Autowired
+    private AlertStreamService alertStreamService;
+
+    /**
+     * Server-Sent Events stream of new internships matching the current user's keyword subscriptions.
+     * Authenticated by JwtAuthenticationFilter; the user id is the token subject.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<InternshipView>> stream(Authentication authentication) {
+        return alertStreamService.connect(authentication.getName());
+    }
+}
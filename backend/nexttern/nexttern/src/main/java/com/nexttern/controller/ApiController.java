@@ -1,17 +1,33 @@
 package com.nexttern.controller;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.nexttern.model.Internship;
-import com.nexttern.repository.InternshipRepository;
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.dto.SearchResults;
+import com.nexttern.model.dto.Suggestion;
+import com.nexttern.service.InternshipCatalogService;
+import com.nexttern.service.InternshipSearchService;
+import com.nexttern.service.InternshipSuggestService;
+import com.nexttern.service.NearDuplicateService;
+import com.nexttern.service.SimilarInternshipService;
+import com.nexttern.util.InternshipFields;
+import com.nexttern.util.InternshipMatcher;
 
 
 @RestController
@@ -20,9 +36,19 @@ public class ApiController {
     private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
     
     @Autowired
-    private InternshipRepository internshipRepository;
-    
-    private int internshipsCallCount = 0;
+    private InternshipCatalogService internshipCatalogService;
+
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+
+    @Autowired
+    private InternshipSearchService internshipSearchService;
+
+    @Autowired
+    private InternshipSuggestService internshipSuggestService;
+
+    @Autowired
+    private SimilarInternshipService similarInternshipService;
 
 
 
@@ -34,58 +60,154 @@ public class ApiController {
     /**
      * Get all internships with optional pagination (limit, offset)
      * Defaults: limit=50, offset=0
+     * fields=title,company,... or view=summary restricts the properties returned for each internship
+     * Conditional requests against the current dataset version get a 304 with no body
      */
     @GetMapping("/internships")
-    public List<Internship> getAllInternships(
+    public ResponseEntity<MappingJacksonValue> getAllInternships(
             @RequestParam(defaultValue = "50") int limit,
-            @RequestParam(defaultValue = "0") int offset) {
-        internshipsCallCount++;
-        logger.info("/internships endpoint called {} times since server start", internshipsCallCount);
-        
-        List<Internship> all = internshipRepository.findAll();
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        InternshipCatalogService.Snapshot snapshot = internshipCatalogService.current();
+        if (isNotModified(snapshot, request)) {
+            return null;
+        }
+        Set<String> selected = InternshipFields.parse(fields, view);
+        List<InternshipView> all = snapshot.internships();
         
         if (offset < 0) offset = 0;
         if (limit < 1 || limit > 100) limit = 50;
         
         int toIndex = Math.min(offset + limit, all.size());
-        if (offset > all.size()) return List.of();
+        if (offset > all.size()) return revalidate(List.of(), selected);
         
-        return all.subList(offset, toIndex);
+        return revalidate(all.subList(offset, toIndex), selected);
     }
     
     /**
      * Search internships by keyword and/or location, with input validation and case-insensitive search
-     * Returns up to 100 results for efficiency
+     * Returns up to 100 results for efficiency, showing each job once even if several sources list it
+     * Accepts the same fields/view parameters as /internships
+     * sort=relevance returns the best BM25 matches for the keyword instead of the first matches in catalog order
+     * company=... and source=... keep only internships with that exact value (case-insensitive)
+     * facets=true wraps the results as {items, total, facets} with match counts per location, company and source
+     * location is resolved to a canonical Canadian place ("Toronto, Ontario" and "GTA" both mean Toronto) and
+     * matched exactly; locations the gazetteer does not know fall back to substring matching
+     * near=Waterloo&radiusKm=50 keeps internships within radiusKm (default 50, at most 1000) of a place,
+     * province=ON (or Ontario) keeps internships in a province or territory
+     * fuzzy=true corrects misspelled keyword terms ("sofware", "shopfy") to the closest terms in the catalog first
      */
     @GetMapping("/internships/search")
-    public List<Internship> searchInternships(
+    public ResponseEntity<MappingJacksonValue> searchInternships(
             @RequestParam(required = false, defaultValue = "") String keyword,
-            @RequestParam(required = false, defaultValue = "") String location) {
+            @RequestParam(required = false, defaultValue = "") String location,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false, defaultValue = "") String sort,
+            @RequestParam(required = false) String company,
+            @RequestParam(required = false) String source,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(required = false) String near,
+            @RequestParam(defaultValue = "50") double radiusKm,
+            @RequestParam(required = false) String province,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            WebRequest request) {
+        InternshipCatalogService.Snapshot snapshot = internshipCatalogService.current();
+        if (isNotModified(snapshot, request)) {
+            return null;
+        }
         
         String kw = keyword == null ? "" : keyword.trim().toLowerCase();
         String loc = location == null ? "" : location.trim().toLowerCase();
+        Set<String> selected = InternshipFields.parse(fields, view);
+        if (fuzzy && !kw.isEmpty()) {
+            kw = internshipSearchService.correct(kw);
+        }
+        
+        boolean ranked = "relevance".equalsIgnoreCase(sort) && !kw.isEmpty();
+        Map<String, String> filters = new LinkedHashMap<>();
+        if (company != null && !company.isBlank()) filters.put("company", company.trim());
+        if (source != null && !source.isBlank()) filters.put("source", source.trim());
+        
+        boolean geo = !loc.isEmpty() || (near != null && !near.isBlank()) || (province != null && !province.isBlank());
+        if (radiusKm <= 0 || radiusKm > 1000) radiusKm = 50;
+        
+        if (ranked || facets || geo || !filters.isEmpty()) {
+            int limit = kw.isEmpty() && !geo && filters.isEmpty() ? Integer.MAX_VALUE : 100;
+            SearchResults results = internshipSearchService.search(
+                new InternshipSearchService.Query(kw, loc, filters, near, radiusKm, province, ranked, facets, limit));
+            return revalidate(facets ? results : results.getItems(), selected);
+        }
         
-        List<Internship> allInternships = internshipRepository.findAll();
+        List<InternshipView> allInternships = nearDuplicateService.distinct(snapshot);
         
-        // If both keyword and location are empty, return all internships
-        if (kw.isEmpty() && loc.isEmpty()) {
-            return allInternships;
+        // If the keyword is empty too, return all internships
+        if (kw.isEmpty()) {
+            return revalidate(allInternships, selected);
         }
         
-        return allInternships.stream()
-                .filter(internship -> {
-                    boolean matchesKeyword = kw.isEmpty() || 
-                        (internship.getTitle() != null && internship.getTitle().toLowerCase().contains(kw)) ||
-                        (internship.getCompany() != null && internship.getCompany().toLowerCase().contains(kw)) ||
-                        (internship.getDescription() != null && internship.getDescription().toLowerCase().contains(kw));
-                    
-                    boolean matchesLocation = loc.isEmpty() ||
-                        (internship.getLocation() != null && internship.getLocation().toLowerCase().contains(loc));
-                    
-                    return matchesKeyword && matchesLocation;
-                })
-                .limit(100) // Limit results for efficiency
-                .collect(Collectors.toList());
+        return revalidate(InternshipMatcher.filter(allInternships, kw, "", 100), selected); // Limit results for efficiency
+    }
+
+    /**
+     * Up to 10 internships most similar to the given one by title, company and description
+     * Accepts the same fields/view parameters as /internships; 404 if the internship does not exist.
+     * The similarity graph catches up with a catalog snapshot in the background, so until it has, the answer
+     * may still change under the same catalog version and is sent uncacheable, without validators
+     */
+    @GetMapping("/internships/{id}/similar")
+    public ResponseEntity<MappingJacksonValue> similarInternships(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        InternshipCatalogService.Snapshot snapshot = internshipCatalogService.current();
+        boolean indexed = snapshot.version().equals(similarInternshipService.indexedVersion());
+        if (indexed && isNotModified(snapshot, request)) {
+            return null;
+        }
+        List<InternshipView> similar = similarInternshipService.similar(id, 10);
+        if (similar == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!indexed) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(InternshipFields.project(similar, InternshipFields.parse(fields, view)));
+        }
+        return revalidate(similar, InternshipFields.parse(fields, view));
+    }
+
+    /**
+     * Typeahead completions for the search box: companies, titles and locations matching q at a word start,
+     * most common first. Default limit=8, at most 10.
+     * Answered from a prebuilt trie, so it is cheap enough to call on every keystroke
+     */
+    @GetMapping("/internships/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1 || limit > InternshipSuggestService.MAX_SUGGESTIONS) limit = 8;
+        // Short max-age: the browser can reuse completions while the user edits the query
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+            .body(internshipSuggestService.suggest(q, limit));
+    }
+
+    /**
+     * Evaluate If-None-Match / If-Modified-Since against the snapshot.
+     * Either way the ETag and Last-Modified headers are set on the response; when this returns true
+     * the status is already 304 and the handler must not write a body.
+     * The result depends only on the dataset version and the URL, so the version alone is a valid strong ETag.
+     */
+    private static boolean isNotModified(InternshipCatalogService.Snapshot snapshot, WebRequest request) {
+        return request.checkNotModified(snapshot.etag(), snapshot.lastModified().toEpochMilli());
+    }
+
+    // no-cache lets clients store the list but makes them revalidate each poll
+    private static ResponseEntity<MappingJacksonValue> revalidate(Object body, Set<String> selected) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(InternshipFields.project(body, selected));
     }
     
 }
\ No newline at end of file
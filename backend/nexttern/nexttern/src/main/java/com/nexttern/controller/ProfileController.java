@@ -1,6 +1,7 @@
 package com.nexttern.controller;
 
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.nexttern.model.Profile;
+import com.nexttern.service.ProfileOverviewService;
 import com.nexttern.service.ProfileService;
 
 @RestController
@@ -33,6 +35,9 @@ public class ProfileController {
     @Autowired
     private ProfileService profileService;
 
+    @Autowired
+    private ProfileOverviewService profileOverviewService;
+
     // Removed invalid @Value annotations for supabaseServiceRoleKey and supabaseUrl
     // private String supabaseServiceRoleKey;
     // private String supabaseUrl;
@@ -73,6 +78,28 @@ public class ProfileController {
         }
     }
     
+    /**
+     * Get the current user's profile, subscriptions and the internships those subscriptions match
+     * @param authorization JWT token from Supabase Auth
+     * @return The overview; 504 if the lookups did not finish in time
+     */
+    @GetMapping("/profile/overview")
+    public ResponseEntity<?> getOverview(@RequestHeader("Authorization") String authorization) {
+        String jwtSecret = env.getProperty("SUPABASE_JWT_SECRET");
+        String userId = extractUserIdFromToken(authorization, jwtSecret);
+        if (userId == null) {
+            return new ResponseEntity<>("Invalid or expired token", HttpStatus.UNAUTHORIZED);
+        }
+        try {
+            return new ResponseEntity<>(profileOverviewService.overview(userId), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            logger.error("Error retrieving profile overview for userId {}: {}", userId, e.getMessage());
+            HttpStatus status = e.getCause() instanceof TimeoutException
+                ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.INTERNAL_SERVER_ERROR;
+            return new ResponseEntity<>("Error retrieving profile overview: " + e.getMessage(), status);
+        }
+    }
+
     /**
      * Update the current user's profile
      * @param authorization JWT token from Supabase Auth
@@ -0,0 +1,65 @@
+package com.nexttern.controller;
+
+import java.util.Set;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.nexttern.model.Internship;
+import com.nexttern.repository.ReactiveInternshipRepository;
+import com.nexttern.util.InternshipFields;
+import com.nexttern.util.InternshipMatcher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variants of the /internships endpoints.
+ * Handlers return Mono/Flux backed by the async DynamoDB client, so no request thread waits on DynamoDB.
+ */
+@RestController
+@RequestMapping("/internships/reactive")
+public class ReactiveApiController {
+
+    private final ReactiveInternshipRepository reactiveInternshipRepository;
+
+    public ReactiveApiController(ReactiveInternshipRepository reactiveInternshipRepository) {
+        this.reactiveInternshipRepository = reactiveInternshipRepository;
+    }
+
+    /**
+     * Cursor-paged listing. Pass the returned nextCursor to fetch the following page.
+     * Defaults: limit=50
+     * fields=... or view=summary is pushed down to DynamoDB, so unrequested attributes are never read
+     */
+    @GetMapping
+    public Mono<MappingJacksonValue> getInternships(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        if (limit < 1 || limit > 100) limit = 50;
+        Set<String> selected = InternshipFields.parse(fields, view);
+        return reactiveInternshipRepository.findPage(limit, cursor, selected)
+                .map(page -> InternshipFields.project(page, selected));
+    }
+
+    /**
+     * Same matching rules as /internships/search. The scan stops as soon as 100 matches are found.
+     */
+    @GetMapping("/search")
+    public Flux<Internship> searchInternships(
+            @RequestParam(required = false, defaultValue = "") String keyword,
+            @RequestParam(required = false, defaultValue = "") String location) {
+        String kw = keyword == null ? "" : keyword.trim().toLowerCase();
+        String loc = location == null ? "" : location.trim().toLowerCase();
+
+        return reactiveInternshipRepository.findAll()
+                .filter(internship -> InternshipMatcher.matchesKeyword(internship, kw)
+                        && InternshipMatcher.matchesLocation(internship, loc))
+                .take(100);
+    }
+}
@@ -0,0 +1,123 @@
+package com.nexttern.ingestion;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP GET with conditional revalidation.
+ * The ETag and Last-Modified of a successful response are remembered per URL once the caller commits them, and
+ * sent back as If-None-Match / If-Modified-Since on the next crawl, so unchanged pages come back as an empty 304.
+ * Callers commit only after whatever they took from the page is safely stored: a page whose postings were
+ * never written must be fetched in full again, not answered with a 304.
+ */
+class ConditionalFetcher {
+
+    /**
+     * Body of a changed page, or empty when the server answered 304
+     * @param uri Final URI after redirects
+     * @param requested URI the validators are kept under
+     * @param validators Validators of this response, saved by commit(); null if it had none
+     */
+    record Fetched(URI uri, URI requested, Optional<String> body, Validators validators) {
+        boolean notModified() {
+            return body.isEmpty();
+        }
+    }
+
+    record Validators(String etag, String lastModified) {
+    }
+
+    private final HttpClient httpClient;
+    private final HostThrottle throttle;
+    private final Duration timeout;
+    private final String userAgent;
+    private final Map<URI, Validators> validators = new ConcurrentHashMap<>();
+
+    ConditionalFetcher(HostThrottle throttle, Duration timeout, String userAgent) {
+        this.httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(timeout)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.throttle = throttle;
+        this.timeout = timeout;
+        this.userAgent = userAgent;
+    }
+
+    Fetched fetch(URI uri) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("User-Agent", userAgent)
+            .header("Accept", "text/html,application/xhtml+xml")
+            .GET();
+        Validators known = validators.get(uri);
+        if (known != null) {
+            if (known.etag() != null) {
+                request.header("If-None-Match", known.etag());
+            }
+            if (known.lastModified() != null) {
+                request.header("If-Modified-Since", known.lastModified());
+            }
+        }
+
+        HttpResponse<String> response = throttle.call(uri, () -> httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString()));
+        int status = response.statusCode();
+        if (status == 304) {
+            return new Fetched(uri, uri, Optional.empty(), known);
+        }
+        if (status == 429 || status == 503) {
+            throttle.backOff(uri, retryAfter(response));
+            throw new IOException("HTTP " + status + " from " + uri.getHost());
+        }
+        if (status < 200 || status >= 300) {
+            throw new IOException("HTTP " + status + " for " + uri);
+        }
+
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        Validators fresh = etag != null || lastModified != null ? new Validators(etag, lastModified) : null;
+        return new Fetched(response.uri(), uri, Optional.of(response.body()), fresh);
+    }
+
+    /**
+     * Revalidate the page with this response's validators from now on
+     */
+    void commit(Fetched fetched) {
+        if (fetched.notModified()) {
+            return;
+        }
+        if (fetched.validators() != null) {
+            validators.put(fetched.requested(), fetched.validators());
+        } else {
+            validators.remove(fetched.requested());
+        }
+    }
+
+    /**
+     * Fetch the page in full next time
+     */
+    void forget(URI uri) {
+        validators.remove(uri);
+    }
+
+    private static Duration retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+            .flatMap(value -> {
+                try {
+                    return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim())));
+                } catch (NumberFormatException e) {
+                    // HTTP-date form; fall back to the default below
+                    return Optional.empty();
+                }
+            })
+            .orElse(Duration.ofSeconds(30));
+    }
+}
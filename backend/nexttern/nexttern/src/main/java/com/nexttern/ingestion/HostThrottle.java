@@ -0,0 +1,83 @@
+package com.nexttern.ingestion;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-host politeness: caps concurrent requests to each host and spaces out their start times.
+ * Different hosts never wait on each other, so crawl throughput grows with the number of sources.
+ * Uses locks rather than synchronized so waiting virtual threads do not pin their carriers.
+ */
+class HostThrottle {
+
+    private final int maxConcurrent;
+    private final long minGapNanos;
+    private final ConcurrentHashMap<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    HostThrottle(int maxConcurrent, Duration minGap) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.minGapNanos = minGap.toNanos();
+    }
+
+    <T> T call(URI uri, Callable<T> request) throws Exception {
+        HostState host = hosts.computeIfAbsent(uri.getHost() == null ? "" : uri.getHost().toLowerCase(), h -> new HostState(maxConcurrent));
+        host.permits.acquire();
+        try {
+            long waitNanos = host.reserveSlot(minGapNanos);
+            if (waitNanos > 0) {
+                Thread.sleep(Duration.ofNanos(waitNanos));
+            }
+            return request.call();
+        } finally {
+            host.permits.release();
+        }
+    }
+
+    /**
+     * Hold off the host, e.g. after a 429 or 503 with Retry-After
+     */
+    void backOff(URI uri, Duration delay) {
+        HostState host = hosts.get(uri.getHost() == null ? "" : uri.getHost().toLowerCase());
+        if (host != null) {
+            host.delayUntil(System.nanoTime() + delay.toNanos());
+        }
+    }
+
+    private static final class HostState {
+        final Semaphore permits;
+        final ReentrantLock lock = new ReentrantLock();
+        long nextStartNanos = System.nanoTime();
+
+        HostState(int permits) {
+            this.permits = new Semaphore(permits, true);
+        }
+
+        // Claim the next start time for this host and return how long to wait for it
+        long reserveSlot(long gapNanos) {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                long start = Math.max(now, nextStartNanos);
+                nextStartNanos = start + gapNanos;
+                return start - now;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void delayUntil(long nanos) {
+            lock.lock();
+            try {
+                if (nanos - nextStartNanos > 0) {
+                    nextStartNanos = nanos;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
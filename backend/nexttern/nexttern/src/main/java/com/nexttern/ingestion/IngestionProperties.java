@@ -0,0 +1,182 @@
+package com.nexttern.ingestion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Crawl settings and source definitions, bound from ingestion.* properties, e.g.
+ * <pre>
+ * ingestion.sources[0].name=example-board
+ * ingestion.sources[0].urls=https://jobs.example.com/interns?page=1,https://jobs.example.com/interns?page=2
+ * ingestion.sources[0].item-selector=li.job
+ * ingestion.sources[0].title-selector=h3
+ * ingestion.sources[0].link-selector=a.apply
+ * ingestion.sources[0].detail-description-selector=div.job-description
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionProperties {
+
+    /** Requests allowed in flight to one host at a time */
+    private int perHostConcurrency = 1;
+
+    /** Minimum gap between request starts to the same host */
+    private long perHostDelayMs = 1000;
+
+    private long requestTimeoutMs = 15000;
+
+    private String userAgent = "NextternBot/1.0 (+https://github.com/yuvraajbains/Nexttern)";
+
+    private List<Source> sources = new ArrayList<>();
+
+    public int getPerHostConcurrency() {
+        return perHostConcurrency;
+    }
+
+    public void setPerHostConcurrency(int perHostConcurrency) {
+        this.perHostConcurrency = perHostConcurrency;
+    }
+
+    public long getPerHostDelayMs() {
+        return perHostDelayMs;
+    }
+
+    public void setPerHostDelayMs(long perHostDelayMs) {
+        this.perHostDelayMs = perHostDelayMs;
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    public void setRequestTimeoutMs(long requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    public List<Source> getSources() {
+        return sources;
+    }
+
+    public void setSources(List<Source> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * One listing site. Selectors are jsoup CSS queries evaluated inside each item element.
+     */
+    public static class Source {
+        private String name;
+        private List<String> urls = new ArrayList<>();
+        private String itemSelector;
+        private String titleSelector;
+        private String companySelector;
+        /** Used when the listing does not name the company, e.g. a company's own careers page */
+        private String company;
+        private String locationSelector;
+        private String linkSelector = "a[href]";
+        private String descriptionSelector;
+        private String postedDateSelector;
+        /** When set, each posting's link is fetched and the description is read from this element */
+        private String detailDescriptionSelector;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getItemSelector() {
+            return itemSelector;
+        }
+
+        public void setItemSelector(String itemSelector) {
+            this.itemSelector = itemSelector;
+        }
+
+        public String getTitleSelector() {
+            return titleSelector;
+        }
+
+        public void setTitleSelector(String titleSelector) {
+            this.titleSelector = titleSelector;
+        }
+
+        public String getCompanySelector() {
+            return companySelector;
+        }
+
+        public void setCompanySelector(String companySelector) {
+            this.companySelector = companySelector;
+        }
+
+        public String getCompany() {
+            return company;
+        }
+
+        public void setCompany(String company) {
+            this.company = company;
+        }
+
+        public String getLocationSelector() {
+            return locationSelector;
+        }
+
+        public void setLocationSelector(String locationSelector) {
+            this.locationSelector = locationSelector;
+        }
+
+        public String getLinkSelector() {
+            return linkSelector;
+        }
+
+        public void setLinkSelector(String linkSelector) {
+            this.linkSelector = linkSelector;
+        }
+
+        public String getDescriptionSelector() {
+            return descriptionSelector;
+        }
+
+        public void setDescriptionSelector(String descriptionSelector) {
+            this.descriptionSelector = descriptionSelector;
+        }
+
+        public String getPostedDateSelector() {
+            return postedDateSelector;
+        }
+
+        public void setPostedDateSelector(String postedDateSelector) {
+            this.postedDateSelector = postedDateSelector;
+        }
+
+        public String getDetailDescriptionSelector() {
+            return detailDescriptionSelector;
+        }
+
+        public void setDetailDescriptionSelector(String detailDescriptionSelector) {
+            this.detailDescriptionSelector = detailDescriptionSelector;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.nexttern.ingestion;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.Internship;
+import com.nexttern.model.InternshipView;
+import com.nexttern.repository.InternshipRepository;
+import com.nexttern.search.LocationNormalizer;
+import com.nexttern.service.InternshipCatalogService;
+import com.nexttern.service.InternshipDeduplicationService;
+import com.nexttern.service.InternshipExpiryService;
+import com.nexttern.service.NearDuplicateService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Crawls the configured listing sources and writes new or changed internships.
+ * Every page fetch runs on its own virtual thread; HostThrottle keeps each host to its politeness limits
+ * while different hosts are crawled in parallel. Unchanged pages are revalidated with a conditional GET, and a 304
+ * replays the postings (or description) last parsed from the page, so they go through the same checks as fresh
+ * ones and an undated posting on a static page keeps having its expiry pushed out. A page's validators, and what
+ * was parsed from it, are kept only once its postings are written, and never for a listing whose detail pages
+ * did not all fetch, so a failed write or crawl is retried in full rather than answered with a 304. Postings
+ * whose URL is already stored are compared with the stored copy and only rewritten (with BatchWriteItem)
+ * when they changed; new URLs are created with conditional puts. A new URL for a job already stored under
+ * another URL is kept as an alternate of that posting, hidden by NearDuplicateService and shown in its place
+ * should the original expire or disappear. Postings already past their expiry are skipped. A posting without a usable date is
+ * dated the day it was first seen and expires the retention window after it was last seen, so it is
+ * neither re-created nor expired while its source keeps listing it.
+ */
+@Service
+public class IngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionService.class);
+
+    // An undated posting's expiry is pushed out only once it falls this far behind, not on every crawl
+    private static final long EXPIRY_EXTENSION_SLACK_SECONDS = 7 * 86_400L;
+
+    /**
+     * Outcome of one crawl
+     * @param pagesFetched Pages that returned content
+     * @param pagesNotModified Pages the server answered with 304
+     * @param pagesFailed Listing and detail pages that could not be fetched or parsed
+     * @param parsed Postings found, including those replayed from unchanged pages
+     * @param unchanged Postings identical to what is already stored
+     * @param updated Stored postings rewritten because their content changed
+     * @param inserted New postings created
+     * @param nearDuplicates New URLs stored as alternates of a near-duplicate posting already stored
+     * @param expired Postings skipped because they are already past their expiry
+     */
+    public record IngestionReport(int pagesFetched, int pagesNotModified, int pagesFailed, int parsed, int unchanged, int updated, int inserted, int nearDuplicates, int expired, Duration duration) {
+    }
+
+    /**
+     * @param onWritten Commits the page's validators and remembers its postings, once the run has written them
+     */
+    private record PageResult(List<Internship> internships, boolean fetched, boolean notModified, int failedPages,
+                              List<Runnable> onWritten) {
+    }
+
+    private record Detail(Internship internship, Runnable onWritten) {
+    }
+
+    private final IngestionProperties properties;
+    private final InternshipRepository internshipRepository;
+    private final InternshipCatalogService internshipCatalogService;
+    private final InternshipDeduplicationService deduplicationService;
+    private final NearDuplicateService nearDuplicateService;
+    private final InternshipExpiryService expiryService;
+    private final MeterRegistry meterRegistry;
+    private final ConditionalFetcher fetcher;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // What a 304 replays: the postings last parsed from each listing page and the description from each detail page
+    private final Map<URI, List<Internship>> listings = new ConcurrentHashMap<>();
+    private final Map<URI, String> descriptions = new ConcurrentHashMap<>();
+
+    public IngestionService(IngestionProperties properties, InternshipRepository internshipRepository,
+                            InternshipCatalogService internshipCatalogService, InternshipDeduplicationService deduplicationService,
+                            NearDuplicateService nearDuplicateService, InternshipExpiryService expiryService,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.internshipRepository = internshipRepository;
+        this.internshipCatalogService = internshipCatalogService;
+        this.deduplicationService = deduplicationService;
+        this.nearDuplicateService = nearDuplicateService;
+        this.expiryService = expiryService;
+        this.meterRegistry = meterRegistry;
+        HostThrottle throttle = new HostThrottle(properties.getPerHostConcurrency(), Duration.ofMillis(properties.getPerHostDelayMs()));
+        this.fetcher = new ConditionalFetcher(throttle, Duration.ofMillis(properties.getRequestTimeoutMs()), properties.getUserAgent());
+    }
+
+    /**
+     * Periodic crawl. Disabled unless ingestion.cron is set.
+     */
+    @Scheduled(cron = "${ingestion.cron:-}")
+    public void scheduledRun() {
+        IngestionReport report = run();
+        if (report != null) {
+            logger.info("Ingestion finished in {} ms: {}", report.duration().toMillis(), report);
+        }
+    }
+
+    /**
+     * Crawl every source once
+     * @return The report, or null if a crawl was already in progress
+     */
+    public IngestionReport run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Ingestion already running, skipping");
+            return null;
+        }
+        long started = System.nanoTime();
+        try {
+            String today = LocalDate.now(ZoneOffset.UTC).toString();
+            int fetched = 0, notModified = 0, failed = 0;
+            // Keyed by normalized-URL id, so a posting listed on two pages is written once
+            Map<String, Internship> found = new LinkedHashMap<>();
+            List<Runnable> onWritten = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<PageResult>> pages = new ArrayList<>();
+                for (IngestionProperties.Source source : properties.getSources()) {
+                    for (String url : source.getUrls()) {
+                        pages.add(executor.submit(() -> crawlPage(executor, source, URI.create(url))));
+                    }
+                }
+                // Collect before the executor closes: page tasks still submit their detail fetches to it
+                for (Future<PageResult> page : pages) {
+                    PageResult result = resultOf(page);
+                    failed += result.failedPages();
+                    if (result.notModified()) {
+                        notModified++;
+                    } else if (result.fetched()) {
+                        fetched++;
+                    }
+                    for (Internship internship : result.internships()) {
+                        found.put(internship.getId(), internship);
+                    }
+                    onWritten.addAll(result.onWritten());
+                }
+            }
+
+            List<Internship> changed = new ArrayList<>();
+            int unchanged = 0, inserted = 0, nearDuplicates = 0, expired = 0;
+            long now = System.currentTimeMillis() / 1000;
+            for (Internship internship : found.values()) {
+                String listedDate = internship.getPostedDate();
+                InternshipView stored = deduplicationService.findExisting(internship.getUrl());
+                setExpiry(internship, stored, today);
+                if (internship.getExpiresAt() <= now) {
+                    // Inserting it would only rewrite a row the catalog hides, on every crawl
+                    expired++;
+                    continue;
+                }
+                LocationNormalizer.Place place = LocationNormalizer.canada().resolve(internship.getLocation());
+                internship.setPlaceId(place == null ? null : place.id());
+                if (stored == null) {
+                    InternshipView canonical = nearDuplicateService.findNearDuplicate(internship);
+                    if (deduplicationService.insertIfAbsent(internship)) {
+                        if (canonical == null) {
+                            nearDuplicateService.register(internship);
+                            inserted++;
+                        } else {
+                            nearDuplicateService.registerDuplicate(internship, canonical);
+                            nearDuplicates++;
+                        }
+                    } else {
+                        // Created by another replica since our last catalog refresh: compare with what it wrote
+                        Internship current = internshipRepository.findById(internship.getId()).orElse(null);
+                        internship.setPostedDate(listedDate);
+                        setExpiry(internship, current, today);
+                        if (current == null || sameContent(internship, current)) {
+                            unchanged++;
+                        } else {
+                            changed.add(internship);
+                        }
+                    }
+                } else if (sameContent(internship, stored)) {
+                    unchanged++;
+                } else {
+                    // Keep the stored id, which predates URL-derived ids for older items
+                    internship.setId(stored.getId());
+                    changed.add(internship);
+                }
+            }
+
+            int updated = changed.isEmpty() ? 0 : internshipRepository.saveAll(changed);
+            // Every write above succeeded (a failure throws), so these pages need not be fetched in full again
+            onWritten.forEach(Runnable::run);
+            meterRegistry.counter("ingestion.items", "outcome", "inserted").increment(inserted);
+            meterRegistry.counter("ingestion.items", "outcome", "updated").increment(updated);
+            meterRegistry.counter("ingestion.items", "outcome", "unchanged").increment(unchanged);
+            meterRegistry.counter("ingestion.items", "outcome", "near_duplicate").increment(nearDuplicates);
+            meterRegistry.counter("ingestion.items", "outcome", "expired").increment(expired);
+            if (updated + inserted + nearDuplicates > 0) {
+                internshipCatalogService.refresh();
+            }
+            return new IngestionReport(fetched, notModified, failed, found.size(), unchanged, updated, inserted, nearDuplicates,
+                expired, Duration.ofNanos(System.nanoTime() - started));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Set the posting's expiry. A dated posting expires the retention window after its posted date. An undated
+     * one keeps the posted date it was first stored with (today if it is new) and expires the retention window
+     * after today, keeping the stored expiry while that is less than a week short of it.
+     */
+    private void setExpiry(Internship internship, InternshipView stored, String today) {
+        if (expiryService.isDated(internship.getPostedDate())) {
+            internship.setExpiresAt(expiryService.expiresAt(internship.getPostedDate()));
+            return;
+        }
+        if (internship.getPostedDate() == null) {
+            internship.setPostedDate(stored != null && stored.getPostedDate() != null ? stored.getPostedDate() : today);
+        }
+        long lastSeen = expiryService.expiresAt(today);
+        boolean current = stored != null && stored.getExpiresAt() != null
+            && stored.getExpiresAt() >= lastSeen - EXPIRY_EXTENSION_SLACK_SECONDS;
+        internship.setExpiresAt(current ? stored.getExpiresAt() : lastSeen);
+    }
+
+    private PageResult crawlPage(ExecutorService executor, IngestionProperties.Source source, URI uri) {
+        ConditionalFetcher.Fetched page;
+        try {
+            page = fetcher.fetch(uri);
+        } catch (Exception e) {
+            logger.warn("Ingestion: failed to fetch {} ({}): {}", uri, source.getName(), e.getMessage());
+            countPage(source, "error");
+            return new PageResult(List.of(), false, false, 1, List.of());
+        }
+        List<Internship> internships;
+        Runnable listingWritten = null;
+        if (page.notModified()) {
+            countPage(source, "not_modified");
+            List<Internship> last = listings.get(uri);
+            if (last == null) {
+                // Nothing to replay: fetch the page in full next time
+                fetcher.forget(uri);
+                return new PageResult(List.of(), false, true, 1, List.of());
+            }
+            internships = copies(last);
+        } else {
+            countPage(source, "fetched");
+            Document document = Jsoup.parse(page.body().get(), page.uri().toString());
+            internships = ListingParser.parse(document, source);
+            // Copied before ingestion fills in ids, dates and expiries
+            List<Internship> parsed = copies(internships);
+            listingWritten = () -> {
+                listings.put(uri, parsed);
+                fetcher.commit(page);
+            };
+        }
+        boolean fetched = !page.notModified();
+        if (source.getDetailDescriptionSelector() == null) {
+            return new PageResult(internships, fetched, !fetched, 0, listingWritten == null ? List.of() : List.of(listingWritten));
+        }
+
+        List<Future<Detail>> details = new ArrayList<>(internships.size());
+        for (Internship internship : internships) {
+            details.add(executor.submit(() -> withDetail(source, internship)));
+        }
+        List<Internship> complete = new ArrayList<>(internships.size());
+        List<Runnable> onWritten = new ArrayList<>(internships.size() + 1);
+        int failed = 0;
+        for (Future<Detail> future : details) {
+            try {
+                Detail detail = future.get();
+                complete.add(detail.internship());
+                if (detail.onWritten() != null) {
+                    onWritten.add(detail.onWritten());
+                }
+            } catch (ExecutionException e) {
+                failed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed++;
+                break;
+            }
+        }
+        // A 304 for the listing next time would replay it without the postings whose detail page failed
+        if (failed == 0 && listingWritten != null) {
+            onWritten.add(listingWritten);
+        }
+        return new PageResult(complete, fetched, !fetched, failed, onWritten);
+    }
+
+    /**
+     * Fill in the description from the posting's own page, or from its last fetch if the page is unchanged.
+     * A put replaces the whole item, so writing it without the description would erase the stored one.
+     * @return The completed posting, and what to remember about the page once it is written
+     */
+    private Detail withDetail(IngestionProperties.Source source, Internship internship) throws Exception {
+        URI uri = URI.create(internship.getUrl());
+        ConditionalFetcher.Fetched page;
+        try {
+            page = fetcher.fetch(uri);
+        } catch (Exception e) {
+            logger.debug("Ingestion: failed to fetch detail page {}: {}", internship.getUrl(), e.getMessage());
+            countPage(source, "error");
+            throw e;
+        }
+        if (page.notModified()) {
+            countPage(source, "not_modified");
+            String description = descriptions.get(uri);
+            if (description == null) {
+                fetcher.forget(uri);
+                throw new IOException("No description kept for unchanged detail page " + uri);
+            }
+            internship.setDescription(description);
+            return new Detail(internship, null);
+        }
+        countPage(source, "fetched");
+        Document document = Jsoup.parse(page.body().get(), page.uri().toString());
+        String description = ListingParser.description(document, source.getDetailDescriptionSelector());
+        internship.setDescription(description);
+        return new Detail(internship, () -> {
+            if (description != null) {
+                descriptions.put(uri, description);
+            } else {
+                descriptions.remove(uri);
+            }
+            fetcher.commit(page);
+        });
+    }
+
+    private static List<Internship> copies(List<Internship> internships) {
+        List<Internship> copies = new ArrayList<>(internships.size());
+        for (Internship internship : internships) {
+            copies.add(new Internship(internship.getId(), internship.getTitle(), internship.getCompany(), internship.getLocation(),
+                internship.getDescription(), internship.getUrl(), internship.getPostedDate(), internship.getSource()));
+        }
+        return copies;
+    }
+
+    private void countPage(IngestionProperties.Source source, String outcome) {
+        meterRegistry.counter("ingestion.pages", "source", source.getName() == null ? "unknown" : source.getName(), "outcome", outcome).increment();
+    }
+
+    private static PageResult resultOf(Future<PageResult> page) {
+        try {
+            return page.get();
+        } catch (ExecutionException e) {
+            logger.warn("Ingestion: page task failed: {}", e.getCause().getMessage());
+            return new PageResult(List.of(), false, false, 1, List.of());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new PageResult(List.of(), false, false, 1, List.of());
+        }
+    }
+
+    // postedDate and expiresAt are stable for undated postings (see setExpiry), so a change in either is real:
+    // a repost, or an undated posting whose expiry is due to be pushed out.
+    // placeId is compared so items stored before it existed, or resolved with an older gazetteer, are rewritten.
+    private static boolean sameContent(InternshipView a, InternshipView b) {
+        return b != null
+            && Objects.equals(a.getPostedDate(), b.getPostedDate())
+            && Objects.equals(a.getExpiresAt(), b.getExpiresAt())
+            && Objects.equals(a.getTitle(), b.getTitle())
+            && Objects.equals(a.getCompany(), b.getCompany())
+            && Objects.equals(a.getLocation(), b.getLocation())
+            && Objects.equals(a.getPlaceId(), b.getPlaceId())
+            && Objects.equals(a.getDescription(), b.getDescription())
+            && Objects.equals(a.getUrl(), b.getUrl())
+            && Objects.equals(a.getSource(), b.getSource());
+    }
+}
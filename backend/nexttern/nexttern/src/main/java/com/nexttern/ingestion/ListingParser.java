@@ -0,0 +1,69 @@
+package com.nexttern.ingestion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.nexttern.model.Internship;
+import com.nexttern.util.InternshipIds;
+
+/**
+ * Turns a listing page into Internship items using a source's selectors
+ */
+final class ListingParser {
+
+    private ListingParser() {
+    }
+
+    /**
+     * @param document Listing page, parsed with its final URL as base URI so relative links resolve
+     * @return Items that have at least a title and a link; description is left null if the source reads it from
+     *         detail pages, and postedDate if the listing shows none
+     */
+    static List<Internship> parse(Document document, IngestionProperties.Source source) {
+        List<Internship> internships = new ArrayList<>();
+        for (Element item : document.select(source.getItemSelector())) {
+            String title = text(item, source.getTitleSelector());
+            Element link = source.getLinkSelector() == null ? null : item.selectFirst(source.getLinkSelector());
+            String url = link == null ? "" : link.absUrl("href");
+            if (title.isEmpty() || url.isEmpty()) {
+                continue;
+            }
+            String company = text(item, source.getCompanySelector());
+            if (company.isEmpty() && source.getCompany() != null) {
+                company = source.getCompany();
+            }
+            String postedDate = text(item, source.getPostedDateSelector());
+
+            internships.add(new Internship(
+                InternshipIds.forUrl(url),
+                title,
+                company,
+                text(item, source.getLocationSelector()),
+                source.getDescriptionSelector() == null ? null : text(item, source.getDescriptionSelector()),
+                url,
+                postedDate.isEmpty() ? null : postedDate,
+                source.getName()
+            ));
+        }
+        return internships;
+    }
+
+    /**
+     * Description text from a posting's detail page
+     */
+    static String description(Document document, String selector) {
+        Element element = document.selectFirst(selector);
+        return element == null ? null : element.wholeText().strip();
+    }
+
+    private static String text(Element item, String selector) {
+        if (selector == null || selector.isEmpty()) {
+            return "";
+        }
+        Element element = item.selectFirst(selector);
+        return element == null ? "" : element.text().strip();
+    }
+}
@@ -2,19 +2,40 @@ package com.nexttern.model;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIgnore;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexRangeKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nexttern.util.DescriptionCodec;
 
 @DynamoDBTable(tableName = "Internships")
-public class Internship {
+public class Internship implements InternshipView {
+
+    /** Global secondary index over (changeFeed, updatedAt) used to fetch items written since a point in time */
+    public static final String UPDATED_AT_INDEX = "updatedAt-index";
+    /** Prefix of the changeFeed partitions; items written before the feed was sharded carry it alone */
+    public static final String CHANGE_FEED = "internships";
+    /** Number of changeFeed partitions written items are spread over, so index writes do not share one key */
+    public static final int CHANGE_FEED_SHARDS = 8;
     
     private String id;
     private String title;
     private String company;
     private String location;
+    // Canonical place the location resolved to, see LocationNormalizer
+    private String placeId;
     private String description;
+    // Description as stored in descriptionZ; description holds it decompressed from the moment it is read
+    private byte[] descriptionCompressed;
     private String url;
     private String postedDate;
     private String source;
+    // Epoch seconds after which DynamoDB TTL may delete the item
+    private Long expiresAt;
+    // Epoch millis of the last write, and the changeFeed partition that puts the item in UPDATED_AT_INDEX
+    private Long updatedAt;
+    private String changeFeed;
     
     // Default constructor
     public Internship() {
@@ -69,14 +90,71 @@ public class Internship {
     public void setLocation(String location) {
         this.location = location;
     }
+
+    /**
+     * Gazetteer id of the canonical place, e.g. "toronto-on" or "ON"; null for remote or unknown locations
+     */
+    @DynamoDBAttribute(attributeName = "placeId")
+    public String getPlaceId() {
+        return placeId;
+    }
+
+    public void setPlaceId(String placeId) {
+        this.placeId = placeId;
+    }
     
-    @DynamoDBAttribute(attributeName = "description")
+    @DynamoDBIgnore
     public String getDescription() {
         return description;
     }
     
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionCompressed = null;
+    }
+
+    /**
+     * Plain "description" attribute. Empty when the codec writes compressed descriptions;
+     * saving then removes the plain attribute from the item.
+     */
+    @DynamoDBAttribute(attributeName = "description")
+    @JsonIgnore
+    public String getStoredDescription() {
+        return DescriptionCodec.isCompressOnWrite() ? null : getDescription();
+    }
+
+    public void setStoredDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Compressed "descriptionZ" attribute, see DescriptionCodec
+     */
+    @DynamoDBAttribute(attributeName = "descriptionZ")
+    @JsonIgnore
+    public byte[] getStoredDescriptionZ() {
+        if (!DescriptionCodec.isCompressOnWrite()) {
+            return null;
+        }
+        if (descriptionCompressed != null) {
+            return descriptionCompressed;
+        }
+        return description == null ? null : DescriptionCodec.compress(description);
+    }
+
+    // Decompressed here rather than on first read, so getters never write and items can be shared across threads
+    public void setStoredDescriptionZ(byte[] descriptionCompressed) {
+        this.descriptionCompressed = descriptionCompressed;
+        this.description = descriptionCompressed == null ? null : DescriptionCodec.decompress(descriptionCompressed);
+    }
+
+    /**
+     * Whether the item was read with a compressed description, used by the codec migration
+     */
+    @DynamoDBIgnore
+    @JsonIgnore
+    public boolean isDescriptionCompressed() {
+        return descriptionCompressed != null;
     }
     
     @DynamoDBAttribute(attributeName = "url")
@@ -105,4 +183,54 @@ public class Internship {
     public void setSource(String source) {
         this.source = source;
     }
+
+    @DynamoDBAttribute(attributeName = "expiresAt")
+    @JsonIgnore
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = UPDATED_AT_INDEX, attributeName = "updatedAt")
+    @JsonIgnore
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = UPDATED_AT_INDEX, attributeName = "changeFeed")
+    @JsonIgnore
+    public String getChangeFeed() {
+        return changeFeed;
+    }
+
+    public void setChangeFeed(String changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Stamp the item as written now, which puts it in UPDATED_AT_INDEX
+     */
+    public void markUpdated(long epochMillis) {
+        this.updatedAt = epochMillis;
+        this.changeFeed = changeFeed(id);
+    }
+
+    /**
+     * changeFeed partition of an item: one of CHANGE_FEED_SHARDS, by id
+     */
+    public static String changeFeed(String id) {
+        return CHANGE_FEED + "-" + Math.floorMod(id == null ? 0 : id.hashCode(), CHANGE_FEED_SHARDS);
+    }
+
+    // Compressed description as read from the table, or null; lets the catalog keep it without compressing again
+    byte[] compressedDescription() {
+        return descriptionCompressed;
+    }
 }
@@ -0,0 +1,69 @@
+package com.nexttern.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Read-only view of an internship: what the serving path (search, matching, responses) reads.
+ * Internship implements it, and so do the rows of CompactInternships, which have no setters at all; code that
+ * writes to the table takes an Internship, so a catalog row can never reach it.
+ */
+// Same order for both, which is the order of Internship's fields
+@JsonPropertyOrder({"id", "title", "company", "location", "placeId", "description", "url", "postedDate", "source"})
+public interface InternshipView {
+
+    String getId();
+
+    String getTitle();
+
+    String getCompany();
+
+    String getLocation();
+
+    /**
+     * Gazetteer id of the canonical place, e.g. "toronto-on" or "ON"; null for remote or unknown locations
+     */
+    String getPlaceId();
+
+    String getDescription();
+
+    String getUrl();
+
+    String getPostedDate();
+
+    String getSource();
+
+    /** Epoch seconds after which DynamoDB TTL may delete the item */
+    @JsonIgnore
+    Long getExpiresAt();
+
+    /** Epoch millis of the last write */
+    @JsonIgnore
+    Long getUpdatedAt();
+
+    @JsonIgnore
+    String getChangeFeed();
+
+    /**
+     * Whether the item is past its TTL. DynamoDB deletes expired items lazily, so reads can still return them.
+     */
+    default boolean isExpired(long nowEpochSeconds) {
+        Long expiresAt = getExpiresAt();
+        return expiresAt != null && expiresAt <= nowEpochSeconds;
+    }
+
+    /**
+     * Case-insensitive keyword match against title, company and description
+     * @param keyword The keyword, already trimmed and lower-cased
+     */
+    default boolean mentions(String keyword) {
+        return keyword.isEmpty()
+            || contains(getTitle(), keyword)
+            || contains(getCompany(), keyword)
+            || contains(getDescription(), keyword);
+    }
+
+    private static boolean contains(String field, String keyword) {
+        return field != null && field.toLowerCase().contains(keyword);
+    }
+}
@@ -0,0 +1,31 @@
+package com.nexttern.model.dto;
+
+/**
+ * Number of matching internships with one facet value
+ */
+public class FacetCount {
+
+    private String value;
+    private int count;
+
+    public FacetCount(String value, int count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
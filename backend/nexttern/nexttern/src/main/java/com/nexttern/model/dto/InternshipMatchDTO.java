@@ -3,7 +3,7 @@ package com.nexttern.model.dto;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.nexttern.model.Internship;
+import com.nexttern.model.InternshipView;
 import com.nexttern.model.Subscription;
 import com.nexttern.model.User;
 
@@ -14,10 +14,10 @@ public class InternshipMatchDTO {
     
     private User user;
     private List<String> matchedKeywords;
-    private List<Internship> matchedInternships;
+    private List<InternshipView> matchedInternships;
     private List<Subscription> matchedSubscriptions;
     
-    public InternshipMatchDTO(User user, List<String> matchedKeywords, List<Internship> matchedInternships) {
+    public InternshipMatchDTO(User user, List<String> matchedKeywords, List<InternshipView> matchedInternships) {
         this.user = user;
         this.matchedKeywords = matchedKeywords;
         this.matchedInternships = matchedInternships;
@@ -40,11 +40,11 @@ public class InternshipMatchDTO {
         this.matchedKeywords = matchedKeywords;
     }
     
-    public List<Internship> getMatchedInternships() {
+    public List<InternshipView> getMatchedInternships() {
         return matchedInternships;
     }
     
-    public void setMatchedInternships(List<Internship> matchedInternships) {
+    public void setMatchedInternships(List<InternshipView> matchedInternships) {
         this.matchedInternships = matchedInternships;
     }
     
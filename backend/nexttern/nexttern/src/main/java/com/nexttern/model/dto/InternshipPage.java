@@ -0,0 +1,38 @@
+package com.nexttern.model.dto;
+
+import java.util.List;
+
+import com.nexttern.model.Internship;
+
+/**
+ * One page of internships from a cursor-based scan
+ */
+public class InternshipPage {
+
+    private List<Internship> items;
+    private String nextCursor;
+
+    public InternshipPage(List<Internship> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Internship> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Internship> items) {
+        this.items = items;
+    }
+
+    /**
+     * Cursor for the following page, or null when the scan is complete
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
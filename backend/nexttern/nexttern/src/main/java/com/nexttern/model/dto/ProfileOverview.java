@@ -0,0 +1,53 @@
+package com.nexttern.model.dto;
+
+import java.util.List;
+
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.Profile;
+import com.nexttern.model.Subscription;
+
+/**
+ * Everything the dashboard shows for the signed-in user, in one response
+ */
+public class ProfileOverview {
+
+    private Profile profile;
+    private List<Subscription> subscriptions;
+    private List<InternshipView> matchingInternships;
+
+    public ProfileOverview(Profile profile, List<Subscription> subscriptions, List<InternshipView> matchingInternships) {
+        this.profile = profile;
+        this.subscriptions = subscriptions;
+        this.matchingInternships = matchingInternships;
+    }
+
+    /**
+     * The stored profile, or null if the user has not saved one yet
+     */
+    public Profile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    public void setSubscriptions(List<Subscription> subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    /**
+     * Distinct catalog internships matching any of the subscription keywords, in catalog order
+     */
+    public List<InternshipView> getMatchingInternships() {
+        return matchingInternships;
+    }
+
+    public void setMatchingInternships(List<InternshipView> matchingInternships) {
+        this.matchingInternships = matchingInternships;
+    }
+}
@@ -0,0 +1,52 @@
+package com.nexttern.model.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.nexttern.model.InternshipView;
+
+/**
+ * Search results together with facet counts over every match, not just the returned items
+ */
+public class SearchResults {
+
+    private List<InternshipView> items;
+    private int total;
+    private Map<String, List<FacetCount>> facets;
+
+    public SearchResults(List<InternshipView> items, int total, Map<String, List<FacetCount>> facets) {
+        this.items = items;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public List<InternshipView> getItems() {
+        return items;
+    }
+
+    public void setItems(List<InternshipView> items) {
+        this.items = items;
+    }
+
+    /**
+     * Number of matching internships, which may exceed the number returned
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Most common values per facet (location, company, source) among the matches
+     */
+    public Map<String, List<FacetCount>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetCount>> facets) {
+        this.facets = facets;
+    }
+}
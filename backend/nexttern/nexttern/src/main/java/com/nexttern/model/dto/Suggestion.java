@@ -0,0 +1,47 @@
+package com.nexttern.model.dto;
+
+/**
+ * One typeahead completion
+ */
+public class Suggestion {
+
+    private String text;
+    private String type;
+    private int count;
+
+    public Suggestion(String text, String type, int count) {
+        this.text = text;
+        this.type = type;
+        this.count = count;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * company, title or location
+     */
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Number of current internships with this value
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
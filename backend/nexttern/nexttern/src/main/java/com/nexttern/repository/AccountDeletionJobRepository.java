@@ -0,0 +1,25 @@
+package com.nexttern.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.nexttern.model.AccountDeletionJob;
+
+/**
+ * Repository for the account deletion outbox
+ */
+@Repository
+public interface AccountDeletionJobRepository extends JpaRepository<AccountDeletionJob, UUID> {
+
+    // Jobs whose retry time (or RUNNING lease) has passed, oldest first
+    List<AccountDeletionJob> findTop20ByStatusInAndNextAttemptAtBeforeOrderByNextAttemptAtAsc(
+            Collection<AccountDeletionJob.Status> statuses, LocalDateTime now);
+
+    Optional<AccountDeletionJob> findFirstByUserIdAndStatusIn(String userId, Collection<AccountDeletionJob.Status> statuses);
+}
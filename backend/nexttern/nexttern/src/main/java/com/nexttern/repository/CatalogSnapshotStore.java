@@ -0,0 +1,309 @@
+package com.nexttern.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.nexttern.model.CompactInternships;
+
+/**
+ * Local-disk copy of the internship catalog, so a restarted instance can serve before DynamoDB is read.
+ * The file holds the internships plus named sections other components add (precomputed search structures),
+ * each with its own CRC32C; a footer records the catalog version, the delta watermark and where each section
+ * starts. It is written to a temporary file and moved into place, and read back through a memory mapping, so
+ * loading costs one pass over the mapped pages instead of stream reads. Internships are saved as the catalog
+ * holds them (see CompactInternships.writeTo()), column by column with descriptions compressed and content
+ * hashes included: loading bulk-copies the columns and leaves the text in the mapping, so neither saving nor
+ * loading inflates, hashes or copies a description. A file that is missing, from another format or whose
+ * internships fail their checksum is ignored; any other section is checked when a component first reads it, and
+ * ignored alone if it fails.
+ */
+@Repository
+public class CatalogSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    private static final int MAGIC = 0x4E43_4154; // "NCAT"
+    private static final int FORMAT_VERSION = 4;
+    private static final String INTERNSHIPS = "internships";
+    // Footer length, footer CRC and trailing magic
+    private static final int TRAILER_BYTES = 12;
+
+    /**
+     * Catalog read back from disk
+     * @param internships Internships in the order they were saved
+     * @param version Catalog version they were saved under
+     * @param watermark Epoch millis; items written after it may be missing
+     * @param scannedAt Epoch millis of the last full table scan the data goes back to
+     */
+    public record Stored(CompactInternships internships, String version, Instant lastModified, long watermark, long scannedAt) {
+    }
+
+    /**
+     * Writes one section for the catalog version being saved; writing nothing leaves the section out
+     */
+    @FunctionalInterface
+    public interface SectionWriter {
+        void write(String version, DataOutputStream out) throws IOException;
+    }
+
+    private record Section(String name, long offset, long length, int crc) {
+    }
+
+    /**
+     * A section of the loaded file, checked against its CRC when first asked for, so a section read late, or
+     * on another thread, does not hold up loading the internships
+     */
+    private static final class LoadedSection {
+        private final String name;
+        private final ByteBuffer data;
+        private final int crc;
+        private volatile Boolean intact;
+
+        LoadedSection(String name, ByteBuffer data, int crc) {
+            this.name = name;
+            this.data = data;
+            this.crc = crc;
+        }
+
+        ByteBuffer data() {
+            Boolean checked = intact;
+            if (checked == null) {
+                checked = crc(data) == crc;
+                intact = checked;
+                if (!checked) {
+                    logger.warn("Ignoring catalog snapshot section {}: checksum mismatch", name);
+                }
+            }
+            return checked ? data.duplicate() : null;
+        }
+    }
+
+    private final Path path;
+    private final Map<String, SectionWriter> writers = new LinkedHashMap<>();
+    // Sections of the last loaded file, dropped on the next save
+    private volatile Map<String, LoadedSection> loadedSections = Map.of();
+
+    public CatalogSnapshotStore(@Value("${internships.catalog.snapshot-path:${java.io.tmpdir}/nexttern-catalog.snap}") String path) {
+        this.path = Path.of(path);
+    }
+
+    /**
+     * Include a section in every saved file. Writers run on the saving thread after the catalog listeners.
+     */
+    public synchronized void addSection(String name, SectionWriter writer) {
+        writers.put(name, writer);
+    }
+
+    /**
+     * A section of the last loaded file
+     * @return A read-only buffer positioned at the start of the section, or null if the file did not have it
+     */
+    public ByteBuffer section(String name) {
+        LoadedSection section = loadedSections.get(name);
+        return section == null ? null : section.data();
+    }
+
+    /**
+     * Map the file and read the internships, whose text stays in the mapping; other sections stay mapped for
+     * section()
+     * @return The stored catalog, or null if there is no usable file
+     */
+    public Stored load() {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected size " + size);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (file.getInt(0) != MAGIC || file.getInt(4) != FORMAT_VERSION || file.getInt((int) size - 4) != MAGIC) {
+                throw new IOException("Not a catalog snapshot in format " + FORMAT_VERSION);
+            }
+            int footerLength = file.getInt((int) size - TRAILER_BYTES);
+            int footerStart = (int) size - TRAILER_BYTES - footerLength;
+            if (footerLength < 0 || footerStart < 8) {
+                throw new IOException("Corrupt footer");
+            }
+            ByteBuffer footer = file.slice(footerStart, footerLength);
+            if (crc(footer) != file.getInt((int) size - 8)) {
+                throw new IOException("Footer checksum mismatch");
+            }
+            String version = readString(footer);
+            Instant lastModified = Instant.ofEpochSecond(footer.getLong());
+            long watermark = footer.getLong();
+            long scannedAt = footer.getLong();
+            Map<String, LoadedSection> sections = new HashMap<>();
+            for (int i = footer.getInt(); i > 0; i--) {
+                Section section = new Section(readString(footer), footer.getLong(), footer.getLong(), footer.getInt());
+                if (section.offset() < 8 || section.offset() + section.length() > footerStart) {
+                    throw new IOException("Section " + section.name() + " out of bounds");
+                }
+                ByteBuffer data = file.slice((int) section.offset(), (int) section.length()).asReadOnlyBuffer();
+                sections.put(section.name(), new LoadedSection(section.name(), data, section.crc()));
+            }
+            LoadedSection internshipsSection = sections.remove(INTERNSHIPS);
+            if (internshipsSection == null) {
+                throw new IOException("No internships section");
+            }
+            ByteBuffer internships = internshipsSection.data();
+            if (internships == null) {
+                throw new IOException("Checksum mismatch in " + INTERNSHIPS);
+            }
+            Stored stored = new Stored(CompactInternships.readFrom(internships), version, lastModified, watermark, scannedAt);
+            loadedSections = sections;
+            logger.info("Loaded catalog snapshot {} from {}: {} internships, {} bytes in {} ms",
+                version, path, stored.internships().size(), size, (System.nanoTime() - started) / 1_000_000);
+            return stored;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable catalog snapshot at {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replace the file with this catalog and the registered sections. Failures are logged; the previous file stays.
+     */
+    public synchronized void save(String version, Instant lastModified, long watermark, long scannedAt, CompactInternships internships) {
+        long started = System.nanoTime();
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            long size;
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer head = ByteBuffer.allocate(8).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+                channel.write(head);
+                List<Section> sections = new ArrayList<>();
+                sections.add(writeSection(channel, INTERNSHIPS, internships::writeTo));
+                for (Map.Entry<String, SectionWriter> writer : writers.entrySet()) {
+                    try {
+                        Section section = writeSection(channel, writer.getKey(), out -> writer.getValue().write(version, out));
+                        if (section.length() > 0) {
+                            sections.add(section);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Bytes already written are left unreferenced
+                        logger.warn("Leaving section {} out of the catalog snapshot: {}", writer.getKey(), e.getMessage());
+                    }
+                }
+                writeFooter(channel, version, lastModified, watermark, scannedAt, sections);
+                channel.force(true);
+                size = channel.size();
+            }
+            // Readers never see a half-written file
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved catalog snapshot {} to {}: {} bytes in {} ms", version, path, size, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to save catalog snapshot to {}: {}", path, e.getMessage());
+        } finally {
+            // Only now: a writer may carry over what it has not read back from the loaded file yet
+            loadedSections = Map.of();
+        }
+    }
+
+    private static Section writeSection(FileChannel channel, String name, IoConsumer<DataOutputStream> body) throws IOException {
+        long offset = channel.position();
+        CRC32C crc = new CRC32C();
+        // Not closed: that would close the channel
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+        body.accept(out);
+        out.flush();
+        return new Section(name, offset, channel.position() - offset, (int) crc.getValue());
+    }
+
+    private static void writeFooter(FileChannel channel, String version, Instant lastModified, long watermark, long scannedAt,
+                                    List<Section> sections) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(bytes);
+        writeString(footer, version);
+        footer.writeLong(lastModified.getEpochSecond());
+        footer.writeLong(watermark);
+        footer.writeLong(scannedAt);
+        footer.writeInt(sections.size());
+        for (Section section : sections) {
+            writeString(footer, section.name());
+            footer.writeLong(section.offset());
+            footer.writeLong(section.length());
+            footer.writeInt(section.crc());
+        }
+        footer.flush();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        ByteBuffer tail = ByteBuffer.allocate(bytes.size() + TRAILER_BYTES)
+            .put(bytes.toByteArray())
+            .putInt(bytes.size())
+            .putInt((int) crc.getValue())
+            .putInt(MAGIC)
+            .flip();
+        while (tail.hasRemaining()) {
+            channel.write(tail);
+        }
+    }
+
+    /**
+     * Length-prefixed UTF-8, -1 for null; for section writers
+     */
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written by writeString()
+     */
+    public static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate());
+        return (int) crc.getValue();
+    }
+
+    @FunctionalInterface
+    private interface IoConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+}
@@ -1,70 +1,269 @@
 package com.nexttern.repository;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
-import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ConditionalOperator;
+import com.amazonaws.services.dynamodbv2.model.DeleteRequest;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.nexttern.config.DynamoDBMetrics;
 import com.nexttern.model.Internship;
 
 @Repository
 public class InternshipRepository {
+    // Load every scan or query page inside the call so metrics cover all of it, not just the first page
+    private static final DynamoDBMapperConfig EAGER_LOADING = DynamoDBMapperConfig.builder()
+            .withPaginationLoadingStrategy(DynamoDBMapperConfig.PaginationLoadingStrategy.EAGER_LOADING)
+            .build();
+    private static final String TABLE_NAME = "Internships";
+    // BatchWriteItem accepts at most 25 requests per call
+    private static final int MAX_BATCH_SIZE = 25;
+
     private final DynamoDBMapper dynamoDBMapper;
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final DynamoDBMetrics metrics;
+    private final DynamoDBMapperTableModel<Internship> tableModel;
+
+    @Value("${aws.dynamodb.batch.max-retries:8}")
+    private int batchMaxRetries;
+
+    @Value("${aws.dynamodb.batch.initial-backoff-ms:50}")
+    private long batchInitialBackoffMs;
 
-    public InternshipRepository(DynamoDBMapper dynamoDBMapper) {
+    public InternshipRepository(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB amazonDynamoDB, DynamoDBMetrics metrics) {
         this.dynamoDBMapper = dynamoDBMapper;
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.metrics = metrics;
+        this.tableModel = dynamoDBMapper.getTableModel(Internship.class);
     }
 
     public Internship save(Internship internship) {
-        dynamoDBMapper.save(internship);
+        internship.markUpdated(System.currentTimeMillis());
+        metrics.record("save", () -> dynamoDBMapper.save(internship));
         return internship;
     }
 
+    /**
+     * Conditional put that only succeeds if no live item with this id exists yet.
+     * An item past its TTL counts as absent, since DynamoDB may not have deleted it yet.
+     * @return true if the item was created, false if the id was already taken
+     */
+    public boolean insertIfAbsent(Internship internship) {
+        internship.markUpdated(System.currentTimeMillis());
+        Map<String, ExpectedAttributeValue> expected = new HashMap<>();
+        expected.put("id", new ExpectedAttributeValue(false));
+        expected.put("expiresAt", new ExpectedAttributeValue()
+            .withComparisonOperator(ComparisonOperator.LE)
+            .withAttributeValueList(new AttributeValue().withN(Long.toString(System.currentTimeMillis() / 1000))));
+        DynamoDBSaveExpression notExists = new DynamoDBSaveExpression()
+            .withExpected(expected)
+            .withConditionalOperator(ConditionalOperator.OR);
+        return metrics.record("insertIfAbsent", () -> {
+            try {
+                dynamoDBMapper.save(internship, notExists);
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Write internships with BatchWriteItem, 25 puts per call.
+     * Items DynamoDB returns as unprocessed (throttling, partition limits) are resubmitted with
+     * exponential backoff and jitter; anything still unprocessed after the last retry fails the call.
+     * Each put replaces the whole item.
+     * @return Number of items written
+     */
+    public int saveAll(List<Internship> internships) {
+        return metrics.record("saveAll", () -> {
+            List<WriteRequest> requests = new ArrayList<>(internships.size());
+            long now = System.currentTimeMillis();
+            for (Internship internship : internships) {
+                internship.markUpdated(now);
+                requests.add(new WriteRequest().withPutRequest(new PutRequest().withItem(tableModel.convert(internship))));
+            }
+            return writeInBatches(requests);
+        });
+    }
+
+    /**
+     * Delete internships by key with BatchWriteItem, 25 deletes per call, retrying unprocessed items like saveAll.
+     * A delete leaves nothing in UPDATED_AT_INDEX, so only use this for items already past their expiry, which
+     * the catalog drops by itself; remove live items with expireAllById().
+     * @return Number of delete requests completed (missing keys count as deleted)
+     */
+    public int deleteAllById(Collection<String> ids) {
+        return metrics.record("deleteAllById", () -> {
+            List<WriteRequest> requests = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                requests.add(new WriteRequest().withDeleteRequest(new DeleteRequest().withKey(Map.of("id", new AttributeValue().withS(id)))));
+            }
+            return writeInBatches(requests);
+        });
+    }
+
+    private int writeInBatches(List<WriteRequest> requests) {
+        int written = 0;
+        for (int from = 0; from < requests.size(); from += MAX_BATCH_SIZE) {
+            written += writeBatch(requests.subList(from, Math.min(from + MAX_BATCH_SIZE, requests.size())));
+        }
+        return written;
+    }
+
+    private int writeBatch(List<WriteRequest> batch) {
+        Map<String, List<WriteRequest>> pending = Map.of(TABLE_NAME, batch);
+        for (int attempt = 0; ; attempt++) {
+            BatchWriteItemResult result = amazonDynamoDB.batchWriteItem(new BatchWriteItemRequest().withRequestItems(pending));
+            Map<String, List<WriteRequest>> unprocessed = result.getUnprocessedItems();
+            if (unprocessed == null || unprocessed.isEmpty()) {
+                return batch.size();
+            }
+            if (attempt >= batchMaxRetries) {
+                throw new IllegalStateException(unprocessed.getOrDefault(TABLE_NAME, List.of()).size()
+                    + " item(s) still unprocessed after " + batchMaxRetries + " BatchWriteItem retries");
+            }
+            pending = unprocessed;
+            backoff(attempt);
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = batchInitialBackoffMs << Math.min(attempt, 10);
+        try {
+            // Full jitter keeps concurrent writers from retrying in lockstep
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying BatchWriteItem", e);
+        }
+    }
+
+    /**
+     * Remove internships by writing a tombstone: expiresAt is set to now and the item is stamped as updated, so
+     * delta refreshes and the stream see the change and drop it, and DynamoDB TTL deletes it later.
+     * Missing keys are skipped rather than created.
+     * @return Number of items expired
+     */
+    public int expireAllById(Collection<String> ids) {
+        return metrics.record("expireAllById", () -> {
+            int expired = 0;
+            for (String id : ids) {
+                long now = System.currentTimeMillis();
+                try {
+                    amazonDynamoDB.updateItem(new UpdateItemRequest()
+                        .withTableName(TABLE_NAME)
+                        .withKey(Map.of("id", new AttributeValue().withS(id)))
+                        .withUpdateExpression("SET expiresAt = :expires, updatedAt = :updated, changeFeed = :feed")
+                        .withConditionExpression("attribute_exists(id)")
+                        .withExpressionAttributeValues(Map.of(
+                            ":expires", new AttributeValue().withN(Long.toString(now / 1000)),
+                            ":updated", new AttributeValue().withN(Long.toString(now)),
+                            ":feed", new AttributeValue().withS(Internship.changeFeed(id)))));
+                    expired++;
+                } catch (ConditionalCheckFailedException e) {
+                    // Already gone
+                }
+            }
+            return expired;
+        });
+    }
+
     public Optional<Internship> findById(String id) {
-        return Optional.ofNullable(dynamoDBMapper.load(Internship.class, id));
+        return metrics.record("findById", () -> Optional.ofNullable(dynamoDBMapper.load(Internship.class, id)));
     }
 
     public List<Internship> findAll() {
-        return dynamoDBMapper.scan(Internship.class, new DynamoDBScanExpression());
+        return metrics.record("findAll", () -> dynamoDBMapper.scan(Internship.class, new DynamoDBScanExpression(), EAGER_LOADING));
     }
-    
+
     /**
-     * Find internships created after a specific date
-     * @param createdAfter The date to filter by
-     * @return List of internships created after the specified date
+     * Ids of items written after the given time, from the keys-only updatedAt index: one query per changeFeed
+     * partition, plus the unsharded one items written before sharding may still be in.
+     * The index is eventually consistent and items written before it existed are not in it, so callers
+     * should overlap their window and fall back to findAll() for a complete view.
      */
-    public List<Internship> findInternshipsCreatedAfter(Date createdAfter) {
-        Map<String, Condition> filterExpressions = new HashMap<>();
-        
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        String formattedDate = dateFormat.format(createdAfter);
-        
-        // Create a condition to filter by createdAt
-        Condition createdAtCondition = new Condition()
-                .withComparisonOperator(ComparisonOperator.GT)
-                .withAttributeValueList(new AttributeValue().withS(formattedDate));
-        
-        filterExpressions.put("createdAt", createdAtCondition);
-        
-        DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
-                .withScanFilter(filterExpressions);
-        
-        return dynamoDBMapper.scan(Internship.class, scanExpression);
+    public List<String> findIdsUpdatedSince(long epochMillis) {
+        List<String> feeds = new ArrayList<>(Internship.CHANGE_FEED_SHARDS + 1);
+        feeds.add(Internship.CHANGE_FEED);
+        for (int shard = 0; shard < Internship.CHANGE_FEED_SHARDS; shard++) {
+            feeds.add(Internship.CHANGE_FEED + "-" + shard);
+        }
+        return metrics.record("findIdsUpdatedSince", () -> {
+            List<String> ids = new ArrayList<>();
+            for (String feed : feeds) {
+                DynamoDBQueryExpression<Internship> query = new DynamoDBQueryExpression<Internship>()
+                    .withIndexName(Internship.UPDATED_AT_INDEX)
+                    .withConsistentRead(false)
+                    .withKeyConditionExpression("changeFeed = :feed AND updatedAt > :since")
+                    .withExpressionAttributeValues(Map.of(
+                        ":feed", new AttributeValue().withS(feed),
+                        ":since", new AttributeValue().withN(Long.toString(epochMillis))));
+                for (Internship key : dynamoDBMapper.query(Internship.class, query, EAGER_LOADING)) {
+                    ids.add(key.getId());
+                }
+            }
+            return ids;
+        });
     }
 
-    public void deleteById(String id) {
-        Internship internship = dynamoDBMapper.load(Internship.class, id);
-        if (internship != null) {
-            dynamoDBMapper.delete(internship);
+    /**
+     * Load items by key with BatchGetItem; the mapper retries unprocessed keys
+     * @return The items that exist, in no particular order
+     */
+    public List<Internship> findAllById(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Object> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Internship key = new Internship();
+            key.setId(id);
+            keys.add(key);
         }
+        return metrics.record("findAllById", () -> {
+            List<Internship> found = new ArrayList<>(keys.size());
+            for (Object item : dynamoDBMapper.batchLoad(keys).getOrDefault(TABLE_NAME, List.of())) {
+                found.add((Internship) item);
+            }
+            return found;
+        });
+    }
+    
+    /**
+     * Convert a raw item, such as the new image in a stream record, the way the mapper reads the table
+     */
+    public Internship fromItem(Map<String, AttributeValue> item) {
+        return tableModel.unconvert(item);
+    }
+    
+    /**
+     * Remove an internship with a tombstone, see expireAllById()
+     */
+    public void deleteById(String id) {
+        expireAllById(List.of(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.nexttern.repository;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+
+import com.nexttern.model.Internship;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+/**
+ * Explicit v2 table schema for the Internships table.
+ * Built from getter/setter references instead of bean introspection, so mapping costs no reflection.
+ */
+public final class InternshipTableSchema {
+
+    public static final String TABLE_NAME = "Internships";
+
+    public static final TableSchema<Internship> SCHEMA = StaticTableSchema.builder(Internship.class)
+        .newItemSupplier(Internship::new)
+        .addAttribute(String.class, a -> a.name("id")
+            .getter(Internship::getId)
+            .setter(Internship::setId)
+            .tags(primaryPartitionKey()))
+        .addAttribute(String.class, a -> a.name("title")
+            .getter(Internship::getTitle)
+            .setter(Internship::setTitle))
+        .addAttribute(String.class, a -> a.name("company")
+            .getter(Internship::getCompany)
+            .setter(Internship::setCompany))
+        .addAttribute(String.class, a -> a.name("location")
+            .getter(Internship::getLocation)
+            .setter(Internship::setLocation))
+        .addAttribute(String.class, a -> a.name("placeId")
+            .getter(Internship::getPlaceId)
+            .setter(Internship::setPlaceId))
+        .addAttribute(String.class, a -> a.name("description")
+            .getter(Internship::getStoredDescription)
+            .setter(Internship::setStoredDescription))
+        .addAttribute(SdkBytes.class, a -> a.name("descriptionZ")
+            .getter(i -> {
+                byte[] stored = i.getStoredDescriptionZ();
+                return stored == null ? null : SdkBytes.fromByteArrayUnsafe(stored);
+            })
+            .setter((i, bytes) -> i.setStoredDescriptionZ(bytes == null ? null : bytes.asByteArrayUnsafe())))
+        .addAttribute(String.class, a -> a.name("url")
+            .getter(Internship::getUrl)
+            .setter(Internship::setUrl))
+        .addAttribute(String.class, a -> a.name("postedDate")
+            .getter(Internship::getPostedDate)
+            .setter(Internship::setPostedDate))
+        .addAttribute(String.class, a -> a.name("source")
+            .getter(Internship::getSource)
+            .setter(Internship::setSource))
+        .addAttribute(Long.class, a -> a.name("expiresAt")
+            .getter(Internship::getExpiresAt)
+            .setter(Internship::setExpiresAt))
+        .addAttribute(Long.class, a -> a.name("updatedAt")
+            .getter(Internship::getUpdatedAt)
+            .setter(Internship::setUpdatedAt))
+        .addAttribute(String.class, a -> a.name("changeFeed")
+            .getter(Internship::getChangeFeed)
+            .setter(Internship::setChangeFeed))
+        .build();
+
+    private InternshipTableSchema() {
+    }
+}
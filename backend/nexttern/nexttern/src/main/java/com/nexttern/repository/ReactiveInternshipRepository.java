@@ -0,0 +1,102 @@
+package com.nexttern.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Repository;
+
+import com.nexttern.model.Internship;
+import com.nexttern.model.dto.InternshipPage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Non-blocking access to the Internships table through the v2 enhanced async client.
+ * Scans are exposed as Flux so callers pull pages on demand and cancelling stops the scan.
+ */
+@Repository
+public class ReactiveInternshipRepository {
+    private final DynamoDbAsyncTable<Internship> table;
+
+    public ReactiveInternshipRepository(DynamoDbEnhancedAsyncClient enhancedClient) {
+        this.table = enhancedClient.table(InternshipTableSchema.TABLE_NAME, InternshipTableSchema.SCHEMA);
+    }
+
+    public Mono<Internship> findById(String id) {
+        return Mono.fromFuture(() -> table.getItem(Key.builder().partitionValue(id).build()));
+    }
+
+    /**
+     * Stream every internship; items are fetched page by page as the subscriber requests them
+     */
+    public Flux<Internship> findAll() {
+        return Flux.from(table.scan().items());
+    }
+
+    /**
+     * Stream raw scan pages, starting after the given cursor
+     * @param pageSize Maximum items per page
+     * @param cursor Id of the last item already seen, or null to start from the beginning
+     */
+    public Flux<Page<Internship>> scanPages(int pageSize, String cursor) {
+        return scanPages(pageSize, cursor, null);
+    }
+
+    /**
+     * Stream raw scan pages holding only the given attributes
+     * @param attributes Attributes to read (sent as the ProjectionExpression), or null for whole items
+     */
+    public Flux<Page<Internship>> scanPages(int pageSize, String cursor, Collection<String> attributes) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder().limit(pageSize);
+        if (cursor != null && !cursor.isEmpty()) {
+            request.exclusiveStartKey(Map.of("id", AttributeValue.builder().s(cursor).build()));
+        }
+        if (attributes != null) {
+            List<String> projected = new ArrayList<>(attributes);
+            if (attributes.contains("description")) {
+                // Compressed descriptions live in their own attribute
+                projected.add("descriptionZ");
+            }
+            request.attributesToProject(projected);
+        }
+        return Flux.from(table.scan(request.build()));
+    }
+
+    /**
+     * Fetch a single page of internships
+     * @param pageSize Maximum items to return
+     * @param cursor Cursor from the previous page, or null for the first page
+     */
+    public Mono<InternshipPage> findPage(int pageSize, String cursor) {
+        return findPage(pageSize, cursor, null);
+    }
+
+    /**
+     * Fetch a single page, reading only the given attributes. Unread attributes are null on the returned items.
+     * @param attributes Attributes to read, or null for whole items
+     */
+    public Mono<InternshipPage> findPage(int pageSize, String cursor, Collection<String> attributes) {
+        return scanPages(pageSize, cursor, attributes)
+            .next()
+            .map(page -> {
+                Map<String, AttributeValue> lastKey = page.lastEvaluatedKey();
+                String nextCursor = lastKey == null || lastKey.isEmpty() ? null : lastKey.get("id").s();
+                return new InternshipPage(page.items(), nextCursor);
+            })
+            .defaultIfEmpty(new InternshipPage(List.of(), null));
+    }
+
+    public Mono<Internship> save(Internship internship) {
+        internship.markUpdated(System.currentTimeMillis());
+        return Mono.fromFuture(() -> table.putItem(internship)).thenReturn(internship);
+    }
+}
@@ -0,0 +1,407 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import com.nexttern.model.InternshipView;
+
+/**
+ * Immutable BM25F index over title, company, location and description.
+ * Field term frequencies are length-normalized, weighted by field boost and summed before BM25 saturation,
+ * so a term in the title counts more than the same term in the description. Because the collection is fixed
+ * once built, each posting stores its final score contribution (impact), and each term its maximum impact,
+ * which is what MaxScore needs to skip documents that cannot reach the current top k.
+ * An index read back with readFrom() keeps only its sorted term directory on the heap and decodes a term's
+ * postings from the saved buffer the first time a query uses it. Internships added later can be indexed as a
+ * small segment on top of an index, scored with its statistics, and searched together with it.
+ */
+public final class Bm25Index {
+
+    public static final float K1 = 1.2f;
+    public static final float B = 0.75f;
+
+    /** Field boosts, in the order title, company, location, description */
+    public static final float[] FIELD_BOOSTS = {3.0f, 2.0f, 1.5f, 1.0f};
+
+    private static final int FIELDS = FIELD_BOOSTS.length;
+
+    private record Postings(int[] docs, float[] impacts, float maxImpact) {
+    }
+
+    private final int docCount;
+    // Per field, the average length the impacts were normalized with
+    private final float[] avgLength;
+    // Every term when built; when read back, the terms decoded so far
+    private final Map<String, Postings> postings;
+    // Read back only: terms in sorted order, their document frequencies and where their postings start in saved
+    private final String[] terms;
+    private final int[] frequencies;
+    private final int[] offsets;
+    private final ByteBuffer saved;
+
+    private Bm25Index(int docCount, float[] avgLength, Map<String, Postings> postings) {
+        this(docCount, avgLength, postings, null, null, null, null);
+    }
+
+    private Bm25Index(int docCount, float[] avgLength, Map<String, Postings> postings, String[] terms, int[] frequencies, int[] offsets,
+                      ByteBuffer saved) {
+        this.docCount = docCount;
+        this.avgLength = avgLength;
+        this.postings = postings;
+        this.terms = terms;
+        this.frequencies = frequencies;
+        this.offsets = offsets;
+        this.saved = saved;
+    }
+
+    /**
+     * Index the internships; a document's ordinal is its position in the list
+     */
+    public static Bm25Index build(List<? extends InternshipView> internships) {
+        return build(internships, 0, null);
+    }
+
+    /**
+     * Index internships as a segment on top of a collection, to be searched with search(List, ...): ordinals
+     * continue from firstOrdinal, and IDF and average field lengths are the collection's with these internships
+     * counted in, so scores compare with the collection's own
+     * @param collection The index the segment is searched with, or null for a standalone index
+     */
+    public static Bm25Index build(List<? extends InternshipView> internships, int firstOrdinal, Bm25Index collection) {
+        int n = internships.size();
+        List<List<List<String>>> fieldTokens = new ArrayList<>(n);
+        double[] totalLength = new double[FIELDS];
+        for (int doc = 0; doc < n; doc++) {
+            InternshipView internship = internships.get(doc);
+            List<List<String>> fields = List.of(
+                TextAnalyzer.tokens(internship.getTitle()),
+                TextAnalyzer.tokens(internship.getCompany()),
+                TextAnalyzer.tokens(internship.getLocation()),
+                TextAnalyzer.tokens(internship.getDescription()));
+            fieldTokens.add(fields);
+            for (int f = 0; f < FIELDS; f++) {
+                totalLength[f] += fields.get(f).size();
+            }
+        }
+        float[] avgLength = new float[FIELDS];
+        for (int f = 0; f < FIELDS; f++) {
+            avgLength[f] = collection != null ? collection.avgLength[f] : n == 0 ? 1 : (float) Math.max(1.0, totalLength[f] / n);
+        }
+
+        // Pass 1: weighted, length-normalized term frequency per (term, doc); docs arrive in ordinal order
+        Map<String, GrowablePostings> building = new HashMap<>();
+        Map<String, Float> docTerms = new HashMap<>();
+        for (int doc = 0; doc < n; doc++) {
+            docTerms.clear();
+            for (int f = 0; f < FIELDS; f++) {
+                List<String> tokens = fieldTokens.get(doc).get(f);
+                float norm = FIELD_BOOSTS[f] / (1 - B + B * tokens.size() / avgLength[f]);
+                for (String token : tokens) {
+                    docTerms.merge(token, norm, Float::sum);
+                }
+            }
+            for (Map.Entry<String, Float> entry : docTerms.entrySet()) {
+                building.computeIfAbsent(entry.getKey(), t -> new GrowablePostings()).add(firstOrdinal + doc, entry.getValue());
+            }
+            fieldTokens.set(doc, null);
+        }
+
+        // Pass 2: turn weighted tf into the final impact now that document frequencies are known
+        Map<String, Postings> postings = new HashMap<>(building.size() * 2);
+        int collectionSize = n + (collection == null ? 0 : collection.docCount);
+        for (Map.Entry<String, GrowablePostings> entry : building.entrySet()) {
+            GrowablePostings p = entry.getValue();
+            int df = p.size + (collection == null ? 0 : collection.documentFrequency(entry.getKey()));
+            float idf = (float) Math.log(1 + (collectionSize - df + 0.5) / (df + 0.5));
+            float[] impacts = new float[p.size];
+            float max = 0;
+            for (int i = 0; i < p.size; i++) {
+                float tf = p.values[i];
+                impacts[i] = idf * tf * (K1 + 1) / (tf + K1);
+                max = Math.max(max, impacts[i]);
+            }
+            postings.put(entry.getKey(), new Postings(Arrays.copyOf(p.docs, p.size), impacts, max));
+        }
+        return new Bm25Index(n, avgLength, postings);
+    }
+
+    /**
+     * Write the postings in the layout readFrom() expects: a directory of the terms in sorted order with their
+     * document frequencies, then each term's postings
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        String[] sorted = terms();
+        out.writeInt(docCount);
+        for (float length : avgLength) {
+            out.writeFloat(length);
+        }
+        out.writeInt(sorted.length);
+        int offset = 0;
+        for (String term : sorted) {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            int frequency = postings(term).docs().length;
+            out.writeInt(frequency);
+            out.writeInt(offset);
+            offset += frequency * (Integer.BYTES + Float.BYTES) + Float.BYTES;
+        }
+        out.writeInt(offset);
+        for (String term : sorted) {
+            Postings p = postings(term);
+            for (int doc : p.docs()) {
+                out.writeInt(doc);
+            }
+            for (float impact : p.impacts()) {
+                out.writeFloat(impact);
+            }
+            out.writeFloat(p.maxImpact());
+        }
+    }
+
+    /**
+     * Read an index written by writeTo(), e.g. from a memory-mapped file, without re-analyzing any text. Only
+     * the term directory is read now; the postings stay in the buffer, which must not change, until used.
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     */
+    public static Bm25Index readFrom(ByteBuffer in) {
+        int docCount = in.getInt();
+        float[] avgLength = new float[FIELDS];
+        for (int f = 0; f < FIELDS; f++) {
+            avgLength[f] = in.getFloat();
+        }
+        int count = in.getInt();
+        String[] terms = new String[count];
+        int[] frequencies = new int[count];
+        int[] offsets = new int[count];
+        for (int t = 0; t < count; t++) {
+            byte[] term = new byte[in.getInt()];
+            in.get(term);
+            terms[t] = new String(term, StandardCharsets.UTF_8);
+            frequencies[t] = in.getInt();
+            offsets[t] = in.getInt();
+        }
+        int length = in.getInt();
+        ByteBuffer saved = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        return new Bm25Index(docCount, avgLength, new ConcurrentHashMap<>(), terms, frequencies, offsets, saved);
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    public boolean containsTerm(String term) {
+        return saved == null ? postings.containsKey(term) : Arrays.binarySearch(terms, term) >= 0;
+    }
+
+    private int documentFrequency(String term) {
+        if (saved == null) {
+            Postings p = postings.get(term);
+            return p == null ? 0 : p.docs().length;
+        }
+        int t = Arrays.binarySearch(terms, term);
+        return t < 0 ? 0 : frequencies[t];
+    }
+
+    /**
+     * Every indexed term with the number of documents containing it
+     */
+    public Map<String, Integer> documentFrequencies() {
+        if (saved != null) {
+            Map<String, Integer> documentFrequencies = new HashMap<>(terms.length * 2);
+            for (int t = 0; t < terms.length; t++) {
+                documentFrequencies.put(terms[t], frequencies[t]);
+            }
+            return documentFrequencies;
+        }
+        Map<String, Integer> documentFrequencies = new HashMap<>(postings.size() * 2);
+        postings.forEach((term, p) -> documentFrequencies.put(term, p.docs().length));
+        return documentFrequencies;
+    }
+
+    /**
+     * Top k documents for the query using MaxScore dynamic pruning
+     * @param terms Query terms, already analyzed; duplicates are ignored
+     * @param filter Documents to consider, or null for all
+     * @return Ordinals, best first
+     */
+    public int[] search(List<String> terms, int k, IntPredicate filter) {
+        return search(List.of(this), terms, k, filter);
+    }
+
+    /**
+     * Top k documents over an index and the segments built on top of it, which have disjoint ordinals.
+     * The segments share one top k, so each starts with the threshold the previous ones reached.
+     * @return Ordinals, best first
+     */
+    public static int[] search(List<Bm25Index> segments, List<String> terms, int k, IntPredicate filter) {
+        TopK top = new TopK(k);
+        for (Bm25Index segment : segments) {
+            segment.collect(terms, filter, top);
+        }
+        return top.sorted(null);
+    }
+
+    private void collect(List<String> terms, IntPredicate filter, TopK top) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            Postings p = postings(term);
+            if (p != null) {
+                lists.add(p);
+            }
+        }
+        if (lists.isEmpty()) {
+            return;
+        }
+        // Ascending max impact: the cheapest terms become non-essential first
+        lists.sort((a, b) -> Float.compare(a.maxImpact(), b.maxImpact()));
+        int m = lists.size();
+        int[] cursor = new int[m];
+        float[] upperBound = new float[m];
+        float running = 0;
+        for (int i = 0; i < m; i++) {
+            running += lists.get(i).maxImpact();
+            upperBound[i] = running;
+        }
+
+        int firstEssential = 0;
+        while (firstEssential < m && upperBound[firstEssential] <= top.threshold()) {
+            firstEssential++;
+        }
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < m; i++) {
+                int[] docs = lists.get(i).docs();
+                if (cursor[i] < docs.length && docs[cursor[i]] < doc) {
+                    doc = docs[cursor[i]];
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            float score = 0;
+            for (int i = firstEssential; i < m; i++) {
+                Postings p = lists.get(i);
+                if (cursor[i] < p.docs().length && p.docs()[cursor[i]] == doc) {
+                    score += p.impacts()[cursor[i]];
+                    cursor[i]++;
+                }
+            }
+            if (filter != null && !filter.test(doc)) {
+                continue;
+            }
+
+            float threshold = top.threshold();
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (score + upperBound[i] <= threshold) {
+                    break;
+                }
+                Postings p = lists.get(i);
+                cursor[i] = advance(p.docs(), cursor[i], doc);
+                if (cursor[i] < p.docs().length && p.docs()[cursor[i]] == doc) {
+                    score += p.impacts()[cursor[i]];
+                }
+            }
+
+            if (score > threshold) {
+                top.offer(doc, score);
+                float raised = top.threshold();
+                while (firstEssential < m && upperBound[firstEssential] <= raised) {
+                    firstEssential++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit every document containing at least one of the terms; a document may be visited once per term
+     */
+    public void forEachMatch(List<String> terms, IntConsumer action) {
+        for (String term : new LinkedHashSet<>(terms)) {
+            Postings p = postings(term);
+            if (p != null) {
+                for (int doc : p.docs()) {
+                    action.accept(doc);
+                }
+            }
+        }
+    }
+
+    // A read-back index decodes each term once; racing decodes of the same term produce equal postings
+    private Postings postings(String term) {
+        Postings p = postings.get(term);
+        if (p != null || saved == null) {
+            return p;
+        }
+        int t = Arrays.binarySearch(terms, term);
+        if (t < 0) {
+            return null;
+        }
+        int n = frequencies[t];
+        ByteBuffer at = saved.slice(offsets[t], n * (Integer.BYTES + Float.BYTES) + Float.BYTES);
+        int[] docs = new int[n];
+        float[] impacts = new float[n];
+        at.asIntBuffer().get(docs);
+        at.position(n * Integer.BYTES);
+        at.asFloatBuffer().get(impacts);
+        p = new Postings(docs, impacts, at.getFloat(n * (Integer.BYTES + Float.BYTES)));
+        postings.put(term, p);
+        return p;
+    }
+
+    private String[] terms() {
+        if (saved != null) {
+            return terms;
+        }
+        String[] sorted = postings.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Galloping search for the first position at or after from whose doc is >= target
+    private static int advance(int[] docs, int from, int target) {
+        if (from >= docs.length || docs[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < docs.length && docs[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, docs.length);
+        int found = Arrays.binarySearch(docs, low, high, target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    private static final class GrowablePostings {
+        int[] docs = new int[4];
+        float[] values = new float[4];
+        int size;
+
+        void add(int doc, float value) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            docs[size] = doc;
+            values[size] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.nexttern.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable compressed (radix) trie mapping key prefixes to their most popular completions.
+ * Every node stores its precomputed top completions by weight, so a lookup is a walk down the prefix
+ * with no subtree traversal or sorting at query time. Several keys may point to the same completion
+ * (e.g. every word-start suffix of a title); a node lists each completion once.
+ */
+public final class CompletionTrie {
+
+    private static final int[] NONE = new int[0];
+
+    private static final class Node {
+        final String label;
+        final char[] childChars;
+        final Node[] children;
+        final int[] top;
+
+        Node(String label, char[] childChars, Node[] children, int[] top) {
+            this.label = label;
+            this.childChars = childChars;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    private final Node root;
+    private final int nodeCount;
+
+    private CompletionTrie(Node root, int nodeCount) {
+        this.root = root;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @param keys Normalized keys; keys[i] completes to values[i]
+     * @param values Completion ordinals
+     * @param weights Popularity per completion ordinal, higher first
+     * @param maxCompletions Completions kept per node
+     */
+    public static CompletionTrie build(String[] keys, int[] values, int[] weights, int maxCompletions) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        String[] sortedKeys = new String[keys.length];
+        int[] sortedValues = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        Builder builder = new Builder(sortedKeys, sortedValues, weights, maxCompletions);
+        Node root = keys.length == 0 ? new Node("", new char[0], new Node[0], NONE) : builder.node(0, keys.length, 0);
+        return new CompletionTrie(root, builder.nodes);
+    }
+
+    /**
+     * Completion ordinals for the prefix, most popular first
+     * @param prefix Normalized the same way as the keys
+     */
+    public int[] complete(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (true) {
+            String label = node.label;
+            for (int j = 0; j < label.length(); j++, i++) {
+                if (i == prefix.length()) {
+                    return head(node.top, limit);
+                }
+                if (prefix.charAt(i) != label.charAt(j)) {
+                    return NONE;
+                }
+            }
+            if (i == prefix.length()) {
+                return head(node.top, limit);
+            }
+            int child = Arrays.binarySearch(node.childChars, prefix.charAt(i));
+            if (child < 0) {
+                return NONE;
+            }
+            node = node.children[child];
+            i++;
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    private static int[] head(int[] top, int limit) {
+        return top.length <= limit ? top : Arrays.copyOf(top, limit);
+    }
+
+    private static final class Builder {
+        final String[] keys;
+        final int[] values;
+        final int[] weights;
+        final int maxCompletions;
+        int nodes;
+
+        Builder(String[] keys, int[] values, int[] weights, int maxCompletions) {
+            this.keys = keys;
+            this.values = values;
+            this.weights = weights;
+            this.maxCompletions = maxCompletions;
+        }
+
+        // Node for the sorted keys [from, to), which share their first depth characters
+        Node node(int from, int to, int depth) {
+            nodes++;
+            // The range is sorted, so the first and last keys' common prefix is the whole range's
+            String first = keys[from];
+            String last = keys[to - 1];
+            int end = depth;
+            while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+                end++;
+            }
+            Set<Integer> candidates = new LinkedHashSet<>();
+            int i = from;
+            // Keys ending here sort first
+            while (i < to && keys[i].length() == end) {
+                candidates.add(values[i++]);
+            }
+            List<Character> chars = new ArrayList<>();
+            List<Node> children = new ArrayList<>();
+            while (i < to) {
+                char c = keys[i].charAt(end);
+                int j = i;
+                while (j < to && keys[j].charAt(end) == c) {
+                    j++;
+                }
+                Node child = node(i, j, end + 1);
+                chars.add(c);
+                children.add(child);
+                for (int value : child.top) {
+                    candidates.add(value);
+                }
+                i = j;
+            }
+            char[] childChars = new char[chars.size()];
+            for (int c = 0; c < childChars.length; c++) {
+                childChars[c] = chars.get(c);
+            }
+            // A child's label starts after the branching character, which is held by the parent
+            return new Node(first.substring(depth, end), childChars, children.toArray(new Node[0]), top(candidates));
+        }
+
+        int[] top(Set<Integer> candidates) {
+            return candidates.stream()
+                .sorted((a, b) -> weights[a] != weights[b] ? Integer.compare(weights[b], weights[a]) : Integer.compare(a, b))
+                .limit(maxCompletions)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Roaring-style compressed bitmap of non-negative ints.
+ * Values are split into 65536-wide chunks by their high 16 bits. A sparse chunk is a sorted char array;
+ * once it holds more than 4096 values it becomes a fixed 8 KB bitset, which is smaller at that density, and
+ * turns back into an array if removals bring it down to 4096.
+ * Intersection counts pick the cheapest strategy per pair of chunks (merge, probe or word-wise AND).
+ */
+public final class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];
+    private int size;
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            i = -i - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(containers, i, containers, i + 1, size - i);
+            keys[i] = key;
+            containers[i] = new ArrayChunk();
+            size++;
+        }
+        Object container = containers[i];
+        if (container instanceof ArrayChunk array) {
+            if (array.add(low) && array.size > ARRAY_MAX) {
+                containers[i] = array.toBitset();
+            }
+        } else {
+            ((BitsetChunk) container).add(low);
+        }
+    }
+
+    public void remove(int value) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Object container = containers[i];
+        if (container instanceof ArrayChunk array) {
+            if (array.remove((char) value) && array.size == 0) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+                containers[--size] = null;
+            }
+        } else if (((BitsetChunk) container).remove((char) value) && ((BitsetChunk) container).cardinality <= ARRAY_MAX) {
+            containers[i] = ((BitsetChunk) container).toArray();
+        }
+    }
+
+    /**
+     * An independent copy, to change while readers still use this one
+     */
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, keys.length);
+        copy.containers = new Object[containers.length];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i] instanceof ArrayChunk array ? array.copy() : ((BitsetChunk) containers[i]).copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    public boolean contains(int value) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        Object container = containers[i];
+        return container instanceof ArrayChunk array ? array.contains((char) value) : ((BitsetChunk) container).contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i] instanceof ArrayChunk array ? array.size : ((BitsetChunk) containers[i]).cardinality;
+        }
+        return total;
+    }
+
+    /**
+     * Visit the values in increasing order
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof ArrayChunk array) {
+                for (int j = 0; j < array.size; j++) {
+                    action.accept(high | array.values[j]);
+                }
+            } else {
+                long[] words = ((BitsetChunk) containers[i]).words;
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The values in increasing order
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] next = {0};
+        forEach(value -> values[next[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Size of the intersection, without materializing it
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int total = 0;
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += andCardinality(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Write the chunks as they are held: per chunk its key and value count, then the sorted values of a sparse
+     * chunk or the 1024 words of a bitset
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeChar(keys[i]);
+            if (containers[i] instanceof ArrayChunk array) {
+                out.writeInt(array.size);
+                for (int j = 0; j < array.size; j++) {
+                    out.writeChar(array.values[j]);
+                }
+            } else {
+                BitsetChunk bitset = (BitsetChunk) containers[i];
+                out.writeInt(bitset.cardinality);
+                for (long word : bitset.words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a bitmap written by writeTo(), copying the chunks without adding values one at a time
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     */
+    public static CompressedBitmap readFrom(ByteBuffer in) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int chunks = in.getInt();
+        bitmap.keys = new char[Math.max(4, chunks)];
+        bitmap.containers = new Object[bitmap.keys.length];
+        for (int i = 0; i < chunks; i++) {
+            bitmap.keys[i] = in.getChar();
+            int count = in.getInt();
+            if (count > ARRAY_MAX) {
+                BitsetChunk bitset = new BitsetChunk();
+                in.asLongBuffer().get(bitset.words);
+                in.position(in.position() + bitset.words.length * Long.BYTES);
+                bitset.cardinality = count;
+                bitmap.containers[i] = bitset;
+            } else {
+                ArrayChunk array = new ArrayChunk();
+                array.values = new char[Math.max(4, count)];
+                in.asCharBuffer().get(array.values, 0, count);
+                in.position(in.position() + count * Character.BYTES);
+                array.size = count;
+                bitmap.containers[i] = array;
+            }
+        }
+        bitmap.size = chunks;
+        return bitmap;
+    }
+
+    /**
+     * Approximate heap footprint of the chunks
+     */
+    public long sizeInBytes() {
+        long bytes = keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i] instanceof ArrayChunk array ? array.values.length * 2L : 1024 * 8L;
+        }
+        return bytes;
+    }
+
+    private static int andCardinality(Object a, Object b) {
+        if (a instanceof BitsetChunk x && b instanceof BitsetChunk y) {
+            int count = 0;
+            for (int w = 0; w < x.words.length; w++) {
+                count += Long.bitCount(x.words[w] & y.words[w]);
+            }
+            return count;
+        }
+        if (a instanceof ArrayChunk x && b instanceof ArrayChunk y) {
+            int count = 0;
+            int i = 0, j = 0;
+            while (i < x.size && j < y.size) {
+                if (x.values[i] < y.values[j]) {
+                    i++;
+                } else if (x.values[i] > y.values[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+        ArrayChunk array = a instanceof ArrayChunk x ? x : (ArrayChunk) b;
+        BitsetChunk bitset = a instanceof BitsetChunk x ? x : (BitsetChunk) b;
+        int count = 0;
+        for (int i = 0; i < array.size; i++) {
+            if (bitset.contains(array.values[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class ArrayChunk {
+        char[] values = new char[4];
+        int size;
+
+        boolean add(char value) {
+            // Ordinals are usually added in increasing order, so check the end first
+            int i = size > 0 && values[size - 1] < value ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return false;
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX + 1));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+            return true;
+        }
+
+        boolean remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        ArrayChunk copy() {
+            ArrayChunk copy = new ArrayChunk();
+            copy.values = Arrays.copyOf(values, Math.max(4, size));
+            copy.size = size;
+            return copy;
+        }
+
+        BitsetChunk toBitset() {
+            BitsetChunk bitset = new BitsetChunk();
+            for (int i = 0; i < size; i++) {
+                bitset.add(values[i]);
+            }
+            return bitset;
+        }
+    }
+
+    private static final class BitsetChunk {
+        final long[] words = new long[1024];
+        int cardinality;
+
+        void add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+        }
+
+        boolean remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (before == after) {
+                return false;
+            }
+            words[value >>> 6] = after;
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        BitsetChunk copy() {
+            BitsetChunk copy = new BitsetChunk();
+            System.arraycopy(words, 0, copy.words, 0, words.length);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        // Back to a sorted array once sparse enough
+        ArrayChunk toArray() {
+            ArrayChunk array = new ArrayChunk();
+            array.values = new char[Math.max(4, cardinality)];
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array.values[array.size++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.dto.FacetCount;
+
+/**
+ * Per facet value, a compressed bitmap of the ordinals of the internships that have it.
+ * Counting a facet for a result set is one bitmap intersection count per value, independent of how the
+ * result set was found. Values are matched case- and accent-insensitively; the first spelling seen is shown.
+ */
+public final class FacetIndex {
+
+    /** Facet name to the Internship attribute it groups by */
+    public static final Map<String, Function<InternshipView, String>> FACETS = facets();
+
+    private record Value(String display, CompressedBitmap ordinals) {
+    }
+
+    private final int docCount;
+    // Facet name -> folded value -> bitmap, values in descending overall count
+    private final Map<String, Map<String, Value>> values;
+
+    private FacetIndex(int docCount, Map<String, Map<String, Value>> values) {
+        this.docCount = docCount;
+        this.values = values;
+    }
+
+    /**
+     * Index the internships; a document's ordinal is its position in the list
+     */
+    public static FacetIndex build(List<? extends InternshipView> internships) {
+        Map<String, Map<String, Value>> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<InternshipView, String>> facet : FACETS.entrySet()) {
+            Map<String, Value> byValue = new HashMap<>();
+            // Few distinct spellings repeat across many internships: fold each once
+            Map<String, Value> bySpelling = new HashMap<>();
+            for (int doc = 0; doc < internships.size(); doc++) {
+                String value = facet.getValue().apply(internships.get(doc));
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                Value indexed = bySpelling.get(value);
+                if (indexed == null) {
+                    indexed = byValue.computeIfAbsent(key(value), k -> new Value(value.trim(), new CompressedBitmap()));
+                    bySpelling.put(value, indexed);
+                }
+                indexed.ordinals().add(doc);
+            }
+            values.put(facet.getKey(), byCount(byValue));
+        }
+        return new FacetIndex(internships.size(), values);
+    }
+
+    /**
+     * A copy with some documents taken out and others added, for an index that grows by segments. Bitmaps of
+     * values the change does not touch are shared with this index, which stays as it was.
+     * @param removed Ordinals to take out
+     * @param removedInternships The internship each removed ordinal was indexed with
+     * @param firstAdded Ordinal of the first added internship; the others follow it
+     */
+    public FacetIndex withChanges(int[] removed, List<? extends InternshipView> removedInternships, int firstAdded,
+                                  List<? extends InternshipView> added) {
+        Map<String, Map<String, Value>> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<InternshipView, String>> facet : FACETS.entrySet()) {
+            Map<String, Value> byValue = new HashMap<>(values.getOrDefault(facet.getKey(), Map.of()));
+            // Values whose bitmap was already copied for this change
+            Map<String, Value> copied = new HashMap<>();
+            for (int i = 0; i < removed.length; i++) {
+                String value = facet.getValue().apply(removedInternships.get(i));
+                if (value != null && !value.isBlank()) {
+                    copy(byValue, copied, key(value), value).ordinals().remove(removed[i]);
+                }
+            }
+            for (int i = 0; i < added.size(); i++) {
+                String value = facet.getValue().apply(added.get(i));
+                if (value != null && !value.isBlank()) {
+                    copy(byValue, copied, key(value), value).ordinals().add(firstAdded + i);
+                }
+            }
+            byValue.values().removeIf(value -> value.ordinals().cardinality() == 0);
+            changed.put(facet.getKey(), byCount(byValue));
+        }
+        return new FacetIndex(firstAdded + added.size(), changed);
+    }
+
+    // Descending overall count, ties by key, so a changed index orders its values as a rebuilt one would
+    private static Map<String, Value> byCount(Map<String, Value> byValue) {
+        List<Map.Entry<String, Value>> ordered = new ArrayList<>(byValue.entrySet());
+        ordered.sort(Comparator.comparing((Map.Entry<String, Value> entry) -> entry.getValue().ordinals().cardinality()).reversed()
+            .thenComparing(Map.Entry::getKey));
+        Map<String, Value> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Value> entry : ordered) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    // The value's entry with a bitmap of its own, created with this spelling if the value is new
+    private static Value copy(Map<String, Value> byValue, Map<String, Value> copied, String key, String spelling) {
+        Value value = copied.get(key);
+        if (value == null) {
+            Value shared = byValue.get(key);
+            value = shared == null ? new Value(spelling.trim(), new CompressedBitmap()) : new Value(shared.display(), shared.ordinals().copy());
+            byValue.put(key, value);
+            copied.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Write the values of each facet, in their order, with their display spelling and bitmap
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(docCount);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Map<String, Value>> facet : values.entrySet()) {
+            FuzzyTermIndex.writeString(out, facet.getKey());
+            out.writeInt(facet.getValue().size());
+            for (Map.Entry<String, Value> value : facet.getValue().entrySet()) {
+                FuzzyTermIndex.writeString(out, value.getKey());
+                FuzzyTermIndex.writeString(out, value.getValue().display());
+                value.getValue().ordinals().writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Read an index written by writeTo() without folding any value again
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     */
+    public static FacetIndex readFrom(ByteBuffer in) {
+        int docCount = in.getInt();
+        int facets = in.getInt();
+        Map<String, Map<String, Value>> values = new LinkedHashMap<>();
+        for (int f = 0; f < facets; f++) {
+            String facet = FuzzyTermIndex.readString(in);
+            int count = in.getInt();
+            Map<String, Value> byValue = new LinkedHashMap<>(count * 2);
+            for (int v = 0; v < count; v++) {
+                String key = FuzzyTermIndex.readString(in);
+                byValue.put(key, new Value(FuzzyTermIndex.readString(in), CompressedBitmap.readFrom(in)));
+            }
+            values.put(facet, byValue);
+        }
+        return new FacetIndex(docCount, values);
+    }
+
+    /**
+     * Ordinals of the internships with this value
+     * @return The bitmap, or null if no internship has the value
+     */
+    public CompressedBitmap ordinals(String facet, String value) {
+        Map<String, Value> byValue = values.get(facet);
+        Value found = byValue == null || value == null ? null : byValue.get(key(value));
+        return found == null ? null : found.ordinals();
+    }
+
+    /**
+     * Most common values of the facet among the matches
+     * @param matches Matching ordinals, or null when every internship matches
+     */
+    public List<FacetCount> counts(String facet, CompressedBitmap matches, int limit) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (Value value : values.getOrDefault(facet, Map.of()).values()) {
+            int count = matches == null ? value.ordinals().cardinality() : value.ordinals().andCardinality(matches);
+            if (matches == null && counts.size() == limit) {
+                // Already in descending order of overall count
+                break;
+            }
+            if (count > 0) {
+                counts.add(new FacetCount(value.display(), count));
+            }
+        }
+        if (matches != null) {
+            counts.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+            if (counts.size() > limit) {
+                counts = new ArrayList<>(counts.subList(0, limit));
+            }
+        }
+        return counts;
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    private static String key(String value) {
+        return TextAnalyzer.fold(value.trim());
+    }
+
+    private static Map<String, Function<InternshipView, String>> facets() {
+        Map<String, Function<InternshipView, String>> facets = new LinkedHashMap<>();
+        facets.put("location", InternshipView::getLocation);
+        facets.put("company", InternshipView::getCompany);
+        facets.put("source", InternshipView::getSource);
+        return Collections.unmodifiableMap(facets);
+    }
+}
@@ -0,0 +1,220 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Character-trigram index over a term vocabulary for typo-tolerant lookups.
+ * Terms are padded ("$$term$$") so prefixes and suffixes count as trigrams too. One edit changes at most
+ * three trigrams, four for a transposition, so a term within edit distance k of the query shares at least
+ * (trigrams - 4k) of them; only terms passing that count and the length filter are verified with a bounded
+ * edit distance.
+ */
+public final class FuzzyTermIndex {
+
+    /**
+     * A vocabulary term close to a query term
+     * @param weight Tie-breaker between equally close terms, e.g. document frequency
+     */
+    public record Match(String term, int distance, int weight) {
+    }
+
+    private final String[] terms;
+    private final int[] weights;
+    private final byte[] lengths;
+    private final Map<String, int[]> postings;
+
+    private FuzzyTermIndex(String[] terms, int[] weights, Map<String, int[]> postings) {
+        this.terms = terms;
+        this.weights = weights;
+        this.postings = postings;
+        this.lengths = new byte[terms.length];
+        for (int id = 0; id < terms.length; id++) {
+            lengths[id] = (byte) Math.min(terms[id].length(), Byte.MAX_VALUE);
+        }
+    }
+
+    /**
+     * @param vocabulary Term to weight; higher weights win ties between equally close terms
+     */
+    public static FuzzyTermIndex build(Map<String, Integer> vocabulary) {
+        String[] terms = vocabulary.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[] weights = new int[terms.length];
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int id = 0; id < terms.length; id++) {
+            weights[id] = vocabulary.get(terms[id]);
+            for (String trigram : trigrams(terms[id])) {
+                List<Integer> ids = building.computeIfAbsent(trigram, t -> new ArrayList<>());
+                // A term repeating a trigram is listed once
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                    ids.add(id);
+                }
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((trigram, ids) -> postings.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new FuzzyTermIndex(terms, weights, postings);
+    }
+
+    /**
+     * Write the vocabulary and trigram postings in the layout readFrom() expects
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(terms.length);
+        for (int id = 0; id < terms.length; id++) {
+            writeString(out, terms[id]);
+            out.writeInt(weights[id]);
+        }
+        out.writeInt(postings.size());
+        for (Map.Entry<String, int[]> trigram : postings.entrySet()) {
+            writeString(out, trigram.getKey());
+            out.writeInt(trigram.getValue().length);
+            for (int id : trigram.getValue()) {
+                out.writeInt(id);
+            }
+        }
+    }
+
+    /**
+     * Read an index written by writeTo() without splitting any term into trigrams again
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     */
+    public static FuzzyTermIndex readFrom(ByteBuffer in) {
+        String[] terms = new String[in.getInt()];
+        int[] weights = new int[terms.length];
+        for (int id = 0; id < terms.length; id++) {
+            terms[id] = readString(in);
+            weights[id] = in.getInt();
+        }
+        int trigrams = in.getInt();
+        Map<String, int[]> postings = new HashMap<>(trigrams * 2);
+        for (int t = 0; t < trigrams; t++) {
+            String trigram = readString(in);
+            int[] ids = new int[in.getInt()];
+            in.asIntBuffer().get(ids);
+            in.position(in.position() + ids.length * Integer.BYTES);
+            postings.put(trigram, ids);
+        }
+        return new FuzzyTermIndex(terms, weights, postings);
+    }
+
+    public boolean contains(String term) {
+        return Arrays.binarySearch(terms, term) >= 0;
+    }
+
+    /**
+     * Vocabulary terms within the edit distance of the query term, closest first, then by weight
+     */
+    public List<Match> lookup(String query, int maxDistance, int limit) {
+        List<Match> matches = new ArrayList<>();
+        if (query.isEmpty()) {
+            return matches;
+        }
+        Collection<String> queryTrigrams = trigrams(query);
+        int required = queryTrigrams.size() - 4 * maxDistance;
+        int minLength = query.length() - maxDistance, maxLength = query.length() + maxDistance;
+        int[] shared = new int[terms.length];
+        List<Integer> candidates = new ArrayList<>();
+        for (String trigram : queryTrigrams) {
+            int[] ids = postings.get(trigram);
+            if (ids == null) {
+                continue;
+            }
+            for (int id : ids) {
+                if (++shared[id] == Math.max(required, 1) && lengths[id] >= minLength && lengths[id] <= maxLength) {
+                    candidates.add(id);
+                }
+            }
+        }
+        for (int id : candidates) {
+            String term = terms[id];
+            int distance = distance(query, term, maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match(term, distance, weights[id]));
+            }
+        }
+        matches.sort((a, b) -> a.distance() != b.distance()
+            ? Integer.compare(a.distance(), b.distance())
+            : Integer.compare(b.weight(), a.weight()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Edit distance allowed for a query term: none for very short terms, where a single edit
+     * usually gives a different word, then one, then two from eight characters
+     */
+    public static int maxDistance(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance counting an adjacent transposition ("pyhton") as one edit
+     * (optimal string alignment), giving up once it must exceed max
+     * @return The distance, or max + 1 if it is larger than max
+     */
+    static int distance(String a, String b, int max) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    d = Math.min(d, beforePrevious[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Shared with the other indexes saved in the catalog snapshot
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$$" + term + "$$";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
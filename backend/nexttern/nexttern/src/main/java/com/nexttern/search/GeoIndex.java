@@ -0,0 +1,235 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.nexttern.model.InternshipView;
+
+/**
+ * Internship ordinals by canonical place, by province and by geohash cell.
+ * Places are bucketed by their precision-5 geohash (about 5 km); a radius query covers the circle with
+ * cells at a precision suited to the radius, takes the places under those cell prefixes and keeps the ones
+ * whose exact distance is within the radius.
+ */
+public final class GeoIndex {
+
+    static final int INDEX_PRECISION = 5;
+
+    private final Map<String, CompressedBitmap> byPlace = new HashMap<>();
+    private final Map<String, CompressedBitmap> byProvince = new HashMap<>();
+    private final TreeMap<String, List<LocationNormalizer.Place>> placesByCell = new TreeMap<>();
+
+    private GeoIndex() {
+    }
+
+    /**
+     * Index the internships; a document's ordinal is its position in the list
+     * @param places Canonical place per internship, null where the location did not resolve
+     */
+    public static GeoIndex build(List<LocationNormalizer.Place> places) {
+        GeoIndex index = new GeoIndex();
+        for (int doc = 0; doc < places.size(); doc++) {
+            LocationNormalizer.Place place = places.get(doc);
+            if (place == null) {
+                continue;
+            }
+            index.byProvince.computeIfAbsent(place.province(), p -> new CompressedBitmap()).add(doc);
+            if (!place.isProvince()) {
+                CompressedBitmap ordinals = index.byPlace.get(place.id());
+                if (ordinals == null) {
+                    ordinals = new CompressedBitmap();
+                    index.addPlace(place, ordinals);
+                }
+                ordinals.add(doc);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * A copy with some documents taken out and others added, for an index that grows by segments. Bitmaps of
+     * places the change does not touch are shared with this index, which stays as it was.
+     * @param removed Ordinals to take out
+     * @param removedPlaces The place each removed ordinal was indexed with, null where it had none
+     * @param firstAdded Ordinal of the first added internship; the others follow it
+     * @param addedPlaces Canonical place per added internship, null where the location did not resolve
+     */
+    public GeoIndex withChanges(int[] removed, List<LocationNormalizer.Place> removedPlaces, int firstAdded,
+                                List<LocationNormalizer.Place> addedPlaces) {
+        GeoIndex index = new GeoIndex();
+        index.byPlace.putAll(byPlace);
+        index.byProvince.putAll(byProvince);
+        index.placesByCell.putAll(placesByCell);
+        Map<String, CompressedBitmap> copiedPlaces = new HashMap<>();
+        Map<String, CompressedBitmap> copiedProvinces = new HashMap<>();
+        for (int i = 0; i < removed.length; i++) {
+            LocationNormalizer.Place place = removedPlaces.get(i);
+            if (place != null) {
+                index.ordinals(place, copiedPlaces, copiedProvinces, false).remove(removed[i]);
+                if (!place.isProvince()) {
+                    index.ordinals(place, copiedPlaces, copiedProvinces, true).remove(removed[i]);
+                }
+            }
+        }
+        for (int i = 0; i < addedPlaces.size(); i++) {
+            LocationNormalizer.Place place = addedPlaces.get(i);
+            if (place != null) {
+                index.ordinals(place, copiedPlaces, copiedProvinces, false).add(firstAdded + i);
+                if (!place.isProvince()) {
+                    index.ordinals(place, copiedPlaces, copiedProvinces, true).add(firstAdded + i);
+                }
+            }
+        }
+        return index;
+    }
+
+    // The place's or its province's bitmap, copied on first use in a change; a new place gets an empty one
+    private CompressedBitmap ordinals(LocationNormalizer.Place place, Map<String, CompressedBitmap> copiedPlaces,
+                                      Map<String, CompressedBitmap> copiedProvinces, boolean byPlaceId) {
+        if (!byPlaceId) {
+            return copiedProvinces.computeIfAbsent(place.province(), p -> {
+                CompressedBitmap shared = byProvince.get(p);
+                CompressedBitmap copy = shared == null ? new CompressedBitmap() : shared.copy();
+                byProvince.put(p, copy);
+                return copy;
+            });
+        }
+        return copiedPlaces.computeIfAbsent(place.id(), id -> {
+            CompressedBitmap shared = byPlace.get(id);
+            if (shared == null) {
+                CompressedBitmap created = new CompressedBitmap();
+                // The cell list may be shared with the index this was copied from
+                String cell = Geohash.encode(place.latitude(), place.longitude(), INDEX_PRECISION);
+                List<LocationNormalizer.Place> places = new ArrayList<>(placesByCell.getOrDefault(cell, List.of()));
+                places.add(place);
+                placesByCell.put(cell, places);
+                byPlace.put(id, created);
+                return created;
+            }
+            CompressedBitmap copy = shared.copy();
+            byPlace.put(id, copy);
+            return copy;
+        });
+    }
+
+    /**
+     * Write the bitmaps by place id and by province; cells are derived from the places when read back
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        writeBitmaps(out, byPlace);
+        writeBitmaps(out, byProvince);
+    }
+
+    /**
+     * Read an index written by writeTo() without resolving any location again
+     * @param normalizer Gazetteer the place ids were resolved with
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     * @throws IllegalStateException if the gazetteer no longer knows a saved place
+     */
+    public static GeoIndex readFrom(ByteBuffer in, LocationNormalizer normalizer) {
+        GeoIndex index = new GeoIndex();
+        for (Map.Entry<String, CompressedBitmap> entry : readBitmaps(in).entrySet()) {
+            LocationNormalizer.Place place = normalizer.byId(entry.getKey());
+            if (place == null) {
+                throw new IllegalStateException("Unknown place " + entry.getKey());
+            }
+            index.addPlace(place, entry.getValue());
+        }
+        index.byProvince.putAll(readBitmaps(in));
+        return index;
+    }
+
+    private void addPlace(LocationNormalizer.Place place, CompressedBitmap ordinals) {
+        byPlace.put(place.id(), ordinals);
+        placesByCell.computeIfAbsent(Geohash.encode(place.latitude(), place.longitude(), INDEX_PRECISION), c -> new ArrayList<>()).add(place);
+    }
+
+    private static void writeBitmaps(DataOutputStream out, Map<String, CompressedBitmap> bitmaps) throws IOException {
+        out.writeInt(bitmaps.size());
+        for (Map.Entry<String, CompressedBitmap> entry : bitmaps.entrySet()) {
+            FuzzyTermIndex.writeString(out, entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    private static Map<String, CompressedBitmap> readBitmaps(ByteBuffer in) {
+        int count = in.getInt();
+        Map<String, CompressedBitmap> bitmaps = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            bitmaps.put(FuzzyTermIndex.readString(in), CompressedBitmap.readFrom(in));
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Canonical place of each internship, as placeOf() gives it, resolving each distinct location once
+     */
+    public static List<LocationNormalizer.Place> placesOf(List<? extends InternshipView> internships, LocationNormalizer normalizer) {
+        List<LocationNormalizer.Place> places = new ArrayList<>(internships.size());
+        Map<String, LocationNormalizer.Place> resolved = new HashMap<>();
+        for (InternshipView internship : internships) {
+            LocationNormalizer.Place place = normalizer.byId(internship.getPlaceId());
+            if (place == null) {
+                String location = internship.getLocation();
+                if (!resolved.containsKey(location)) {
+                    resolved.put(location, normalizer.resolve(location));
+                }
+                place = resolved.get(location);
+            }
+            places.add(place);
+        }
+        return places;
+    }
+
+    /**
+     * Canonical place of an internship: its stored placeId, else its location resolved now
+     */
+    public static LocationNormalizer.Place placeOf(InternshipView internship, LocationNormalizer normalizer) {
+        LocationNormalizer.Place stored = normalizer.byId(internship.getPlaceId());
+        return stored != null ? stored : normalizer.resolve(internship.getLocation());
+    }
+
+    /**
+     * Internships located at the place, or anywhere in it for a province
+     */
+    public CompressedBitmap at(LocationNormalizer.Place place) {
+        CompressedBitmap ordinals = place.isProvince() ? byProvince.get(place.province()) : byPlace.get(place.id());
+        return ordinals == null ? new CompressedBitmap() : ordinals;
+    }
+
+    public CompressedBitmap inProvince(String province) {
+        CompressedBitmap ordinals = byProvince.get(province);
+        return ordinals == null ? new CompressedBitmap() : ordinals;
+    }
+
+    /**
+     * Internships at cities within the radius of the point
+     */
+    public CompressedBitmap within(double latitude, double longitude, double radiusKm) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (String cell : Geohash.cover(latitude, longitude, radiusKm, coverPrecision(radiusKm))) {
+            for (List<LocationNormalizer.Place> places : placesByCell.subMap(cell, true, cell + Character.MAX_VALUE, true).values()) {
+                for (LocationNormalizer.Place place : places) {
+                    if (Geohash.distanceKm(latitude, longitude, place.latitude(), place.longitude()) <= radiusKm) {
+                        byPlace.get(place.id()).forEach(result::add);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Coarsest cells that still keep the cover to a few dozen cells
+    private static int coverPrecision(double radiusKm) {
+        if (radiusKm <= 20) {
+            return 4;
+        }
+        return radiusKm <= 600 ? 3 : 2;
+    }
+}
@@ -0,0 +1,108 @@
+package com.nexttern.search;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and the cell cover used by radius queries.
+ * A geohash of precision p is a base-32 string of 5p interleaved longitude/latitude bits, so every cell is
+ * the prefix of the cells inside it.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lonBit = true;
+        int bits = 0, value = 0;
+        while (hash.length() < precision) {
+            if (lonBit) {
+                double mid = (minLon + maxLon) / 2;
+                value <<= 1;
+                if (longitude >= mid) {
+                    value |= 1;
+                    minLon = mid;
+                } else {
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                value <<= 1;
+                if (latitude >= mid) {
+                    value |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+            lonBit = !lonBit;
+            if (++bits == 5) {
+                hash.append(BASE32[value]);
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /** Cell height in degrees of latitude */
+    public static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    /** Cell width in degrees of longitude */
+    public static double cellWidth(int precision) {
+        return 360.0 / (1L << (5 * precision - 5 * precision / 2));
+    }
+
+    /**
+     * Cells of the given precision covering the bounding box of the circle
+     */
+    public static Set<String> cover(double latitude, double longitude, double radiusKm, int precision) {
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        double dLon = Math.min(180, dLat / cosLat);
+        double minLat = Math.max(-90, latitude - dLat), maxLat = Math.min(90, latitude + dLat);
+        double minLon = longitude - dLon, maxLon = longitude + dLon;
+        double stepLat = cellHeight(precision), stepLon = cellWidth(precision);
+
+        Set<String> cells = new LinkedHashSet<>();
+        // Step by one cell and always include the far edge, so no cell in the box is skipped
+        for (double lat = minLat; ; lat = Math.min(lat + stepLat, maxLat)) {
+            for (double lon = minLon; ; lon = Math.min(lon + stepLon, maxLon)) {
+                cells.add(encode(lat, wrap(lon), precision));
+                if (lon >= maxLon) {
+                    break;
+                }
+            }
+            if (lat >= maxLat) {
+                break;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Great-circle distance in kilometres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude >= 180 ? longitude - 360 : longitude;
+    }
+}
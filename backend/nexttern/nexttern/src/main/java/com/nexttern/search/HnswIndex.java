@@ -0,0 +1,414 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical navigable small world graph for approximate nearest neighbours by cosine similarity.
+ * Vectors must be L2-normalized; they are kept in one contiguous float array indexed by node. Nodes are
+ * added one at a time and are immediately searchable; a single writer and concurrent readers are supported.
+ * A new node's neighbours are chosen with the diversity heuristic from the HNSW paper, topped up with the
+ * closest pruned candidates so sparse regions stay connected; overflowing back-link lists are re-pruned the
+ * same way. The graph can be written out and read back as built, so it need not be rebuilt after a restart.
+ */
+public final class HnswIndex {
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[] vectors;
+    // links[node][level] = neighbour nodes
+    private int[][][] links;
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * @param m Neighbours per node on the upper levels; level 0 keeps twice as many
+     * @param efConstruction Candidate list size while inserting
+     */
+    public HnswIndex(int dimensions, int m, int efConstruction, int expectedSize) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        int capacity = Math.max(16, expectedSize);
+        this.vectors = new float[capacity * dimensions];
+        this.links = new int[capacity][][];
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a vector
+     * @return Its node number, assigned sequentially from 0
+     */
+    public int add(float[] vector) {
+        lock.writeLock().lock();
+        try {
+            int node = size;
+            if (node == links.length) {
+                int capacity = links.length * 2;
+                links = Arrays.copyOf(links, capacity);
+                vectors = Arrays.copyOf(vectors, capacity * dimensions);
+            }
+            System.arraycopy(vector, 0, vectors, node * dimensions, dimensions);
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            links[node] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[node][l] = new int[0];
+            }
+            size++;
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return node;
+            }
+
+            int entry = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                entry = greedy(node, entry, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                long[] candidates = searchLayer(node, entry, efConstruction, l);
+                int[] neighbours = selectNeighbours(node, candidates, l == 0 ? maxM0 : m);
+                links[node][l] = neighbours;
+                for (int neighbour : neighbours) {
+                    connect(neighbour, node, l);
+                }
+                entry = node(candidates[0]);
+            }
+            if (level > maxLevel) {
+                entryPoint = node;
+                maxLevel = level;
+            }
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the parameters, the vectors and every node's links per level
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int i = 0; i < size * dimensions; i++) {
+                out.writeFloat(vectors[i]);
+            }
+            for (int node = 0; node < size; node++) {
+                out.writeInt(links[node].length);
+                for (int[] neighbours : links[node]) {
+                    out.writeInt(neighbours.length);
+                    for (int neighbour : neighbours) {
+                        out.writeInt(neighbour);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read a graph written by writeTo(); nodes can be added to it as usual
+     * @param expectedSize Capacity to allocate for, at least the saved node count
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     */
+    public static HnswIndex readFrom(ByteBuffer in, int expectedSize) {
+        int dimensions = in.getInt();
+        int m = in.getInt();
+        int efConstruction = in.getInt();
+        int size = in.getInt();
+        HnswIndex index = new HnswIndex(dimensions, m, efConstruction, Math.max(expectedSize, size));
+        index.entryPoint = in.getInt();
+        index.maxLevel = in.getInt();
+        in.asFloatBuffer().get(index.vectors, 0, size * dimensions);
+        in.position(in.position() + size * dimensions * Float.BYTES);
+        for (int node = 0; node < size; node++) {
+            int[][] levels = new int[in.getInt()][];
+            for (int l = 0; l < levels.length; l++) {
+                levels[l] = new int[in.getInt()];
+                in.asIntBuffer().get(levels[l]);
+                in.position(in.position() + levels[l].length * Integer.BYTES);
+            }
+            index.links[node] = levels;
+        }
+        index.size = size;
+        return index;
+    }
+
+    /**
+     * Copy of a stored vector
+     */
+    public float[] vector(int node) {
+        lock.readLock().lock();
+        try {
+            return Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate nearest neighbours of a normalized vector
+     * @param ef Candidate list size; larger is slower and more accurate
+     * @return Nodes, closest first
+     */
+    public int[] search(float[] query, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return new int[0];
+            }
+            int entry = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                entry = greedy(query, entry, l);
+            }
+            long[] found = searchLayer(query, entry, Math.max(ef, k), 0);
+            int[] nodes = new int[Math.min(k, found.length)];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = node(found[i]);
+            }
+            return nodes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int greedy(int node, int entry, int level) {
+        return greedy(Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions), entry, level);
+    }
+
+    private int greedy(float[] query, int entry, int level) {
+        int current = entry;
+        float currentDistance = distance(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links[current][level]) {
+                float d = distance(query, neighbour);
+                if (d < currentDistance) {
+                    current = neighbour;
+                    currentDistance = d;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private long[] searchLayer(int node, int entry, int ef, int level) {
+        return searchLayer(Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions), entry, ef, level);
+    }
+
+    /**
+     * Best-first search of one level
+     * @return Up to ef (distance, node) pairs packed as longs, closest first
+     */
+    private long[] searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        LongHeap candidates = new LongHeap(ef * 2, false);
+        // Farthest result at the top
+        LongHeap results = new LongHeap(ef + 1, true);
+        long start = pack(distance(query, entry), entry);
+        visited.set(entry);
+        candidates.push(start);
+        results.push(start);
+        while (candidates.size() > 0) {
+            long closest = candidates.pop();
+            if (results.size() >= ef && distanceOf(closest) > distanceOf(results.peek())) {
+                break;
+            }
+            for (int neighbour : links[node(closest)][level]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float d = distance(query, neighbour);
+                if (results.size() < ef || d < distanceOf(results.peek())) {
+                    long packed = pack(d, neighbour);
+                    candidates.push(packed);
+                    results.push(packed);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        long[] sorted = new long[results.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = results.pop();
+        }
+        return sorted;
+    }
+
+    // Keep a candidate only if it is closer to the node than to every neighbour already kept
+    private int[] selectNeighbours(int node, long[] candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.length)];
+        int count = 0;
+        List<Integer> pruned = new ArrayList<>();
+        for (long candidate : candidates) {
+            int c = node(candidate);
+            if (c == node) {
+                continue;
+            }
+            if (count == selected.length) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < count && diverse; i++) {
+                diverse = distance(c, selected[i]) > distanceOf(candidate);
+            }
+            if (diverse) {
+                selected[count++] = c;
+            } else {
+                pruned.add(c);
+            }
+        }
+        for (int i = 0; i < pruned.size() && count < selected.length; i++) {
+            selected[count++] = pruned.get(i);
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private void connect(int node, int neighbour, int level) {
+        int[] current = links[node][level];
+        int max = level == 0 ? maxM0 : m;
+        if (current.length < max) {
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = neighbour;
+            links[node][level] = grown;
+            return;
+        }
+        long[] candidates = new long[current.length + 1];
+        for (int i = 0; i < current.length; i++) {
+            candidates[i] = pack(distance(node, current[i]), current[i]);
+        }
+        candidates[current.length] = pack(distance(node, neighbour), neighbour);
+        Arrays.sort(candidates);
+        links[node][level] = selectNeighbours(node, candidates, max);
+    }
+
+    private float distance(float[] query, int node) {
+        int offset = node * dimensions;
+        float dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += query[i] * vectors[offset + i];
+        }
+        return Math.max(0, 1 - dot);
+    }
+
+    private float distance(int a, int b) {
+        int offsetA = a * dimensions, offsetB = b * dimensions;
+        float dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += vectors[offsetA + i] * vectors[offsetB + i];
+        }
+        return Math.max(0, 1 - dot);
+    }
+
+    // Non-negative floats order the same as their bit patterns, so packed pairs sort by distance, then node
+    private static long pack(float distance, int node) {
+        return ((long) Float.floatToIntBits(distance) << 32) | node;
+    }
+
+    private static float distanceOf(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    private static int node(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Binary heap of packed (distance, node) longs
+     */
+    private static final class LongHeap {
+        private long[] heap;
+        private int size;
+        private final boolean max;
+
+        LongHeap(int capacity, boolean max) {
+            this.heap = new long[Math.max(capacity, 4)];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(value, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!above(heap[child], last)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+
+        private boolean above(long a, long b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.nexttern.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves free-text locations ("Toronto, ON", "Toronto, Ontario", "GTA", "Montréal (Hybrid)") to canonical
+ * Canadian places with coordinates, using the gazetteer bundled as canada-places.csv.
+ * Cities and their aliases are matched as whole-word phrases, longest first. A province named in the text
+ * disambiguates the city, and a province on its own resolves to the province. Two-letter province codes
+ * only count as a separate comma-delimited part or the last word, so "on" in running text is not Ontario.
+ * The gazetteer also lists foreign countries and US states, by name and code: a location naming one and no
+ * province is not Canadian, so "London, UK" and "Richmond, VA" resolve to nothing rather than to London, ON
+ * and Richmond, BC.
+ */
+public final class LocationNormalizer {
+
+    private static final String GAZETTEER_RESOURCE = "/canada-places.csv";
+    private static final int MAX_PHRASE_WORDS = 4;
+
+    private static volatile LocationNormalizer canada;
+
+    /**
+     * A canonical place
+     * @param id City slug such as "toronto-on", or the province code for a province
+     * @param province Two-letter province or territory code
+     */
+    public record Place(String id, String name, String province, double latitude, double longitude, boolean isProvince) {
+
+        /** "Toronto, ON" for a city, "Ontario" for a province */
+        public String displayName() {
+            return isProvince ? name : name + ", " + province;
+        }
+    }
+
+    private final Map<String, Place> byId = new LinkedHashMap<>();
+    private final Map<String, List<Place>> cityPhrases = new HashMap<>();
+    private final Map<String, Place> provincePhrases = new HashMap<>();
+    private final Map<String, Place> provinceCodes = new HashMap<>();
+    private final Set<String> foreignPhrases = new HashSet<>();
+    private final Set<String> foreignCodes = new HashSet<>();
+
+    private LocationNormalizer(List<String[]> rows) {
+        for (String[] row : rows) {
+            if ("foreign".equals(row[0])) {
+                addForeign(row);
+                continue;
+            }
+            Place place = new Place(row[1], row[2], row[3], Double.parseDouble(row[4]), Double.parseDouble(row[5]), "province".equals(row[0]));
+            byId.put(place.id(), place);
+            List<String> phrases = new ArrayList<>();
+            phrases.add(normalize(place.name()));
+            if (row.length > 6 && !row[6].isBlank()) {
+                for (String alias : row[6].split("\\|")) {
+                    phrases.add(normalize(alias));
+                }
+            }
+            for (String phrase : phrases) {
+                if (place.isProvince()) {
+                    provincePhrases.put(phrase, place);
+                } else {
+                    cityPhrases.computeIfAbsent(phrase, p -> new ArrayList<>()).add(place);
+                }
+            }
+            if (place.isProvince()) {
+                provinceCodes.put(place.id().toLowerCase(Locale.ROOT), place);
+            }
+        }
+        provinceCodes.put("pei", byId.get("PE"));
+    }
+
+    /**
+     * The bundled Canadian gazetteer, loaded on first use
+     */
+    public static LocationNormalizer canada() {
+        LocationNormalizer loaded = canada;
+        if (loaded == null) {
+            synchronized (LocationNormalizer.class) {
+                if (canada == null) {
+                    canada = new LocationNormalizer(readRows());
+                }
+                loaded = canada;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Canonical place for a free-text location
+     * @return The city, else the province, or null for remote, unknown or non-Canadian locations
+     */
+    public Place resolve(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        List<String> words = TextAnalyzer.tokens(location);
+        List<Place> cities = new ArrayList<>();
+        Place province = null;
+        boolean foreign = false;
+        for (int i = 0; i < words.size(); ) {
+            int matched = 0;
+            for (int n = Math.min(MAX_PHRASE_WORDS, words.size() - i); n >= 1 && matched == 0; n--) {
+                String phrase = String.join(" ", words.subList(i, i + n));
+                List<Place> cityMatches = cityPhrases.get(phrase);
+                Place provinceMatch = provincePhrases.get(phrase);
+                if (cityMatches != null) {
+                    cities.addAll(cityMatches);
+                    matched = n;
+                } else if (provinceMatch != null) {
+                    province = province == null ? provinceMatch : province;
+                    matched = n;
+                } else if (foreignPhrases.contains(phrase)) {
+                    foreign = true;
+                    matched = n;
+                }
+            }
+            i += Math.max(matched, 1);
+        }
+        if (province == null) {
+            province = code(location, words, provinceCodes::get);
+        }
+        if (province == null && (foreign || code(location, words, c -> foreignCodes.contains(c) ? c : null) != null)) {
+            return null;
+        }
+        for (Place city : cities) {
+            if (province == null || city.province().equals(province.province())) {
+                return city;
+            }
+        }
+        return province;
+    }
+
+    /**
+     * Province or territory by code or name
+     * @return The province, or null if unknown
+     */
+    public Place province(String codeOrName) {
+        if (codeOrName == null) {
+            return null;
+        }
+        String normalized = normalize(codeOrName);
+        Place byCode = provinceCodes.get(normalized);
+        return byCode != null ? byCode : provincePhrases.get(normalized);
+    }
+
+    public Place byId(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public Collection<Place> places() {
+        return byId.values();
+    }
+
+    // Codes only count as a whole delimited part or the last word
+    private static <T> T code(String location, List<String> words, Function<String, T> lookup) {
+        for (String part : location.split("[,/;()|]")) {
+            T found = lookup.apply(normalize(part));
+            if (found != null) {
+                return found;
+            }
+        }
+        return words.isEmpty() ? null : lookup.apply(words.get(words.size() - 1));
+    }
+
+    private void addForeign(String[] row) {
+        if (!row[1].isBlank()) {
+            foreignCodes.add(row[1].toLowerCase(Locale.ROOT));
+        }
+        foreignPhrases.add(normalize(row[2]));
+        if (row.length > 6 && !row[6].isBlank()) {
+            for (String alias : row[6].split("\\|")) {
+                foreignPhrases.add(normalize(alias));
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", TextAnalyzer.tokens(text));
+    }
+
+    private static List<String[]> readRows() {
+        try (InputStream in = LocationNormalizer.class.getResourceAsStream(GAZETTEER_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + GAZETTEER_RESOURCE);
+            }
+            List<String[]> rows = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    rows.add(line.split(",", -1));
+                }
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
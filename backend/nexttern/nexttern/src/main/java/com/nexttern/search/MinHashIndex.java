@@ -0,0 +1,150 @@
+package com.nexttern.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MinHash signatures with LSH banding for near-duplicate lookup.
+ * Text is split into word 3-gram shingles; a signature keeps the minimum of each of 128 hash functions over
+ * the shingles, so the fraction of equal slots between two signatures estimates their Jaccard similarity.
+ * Signatures are cut into 16 bands of 8 rows and each band is bucketed, so only items sharing at least one
+ * whole band are compared. With these parameters pairs above roughly 0.7 similarity are very likely
+ * to collide and pairs below 0.4 rarely do.
+ */
+public final class MinHashIndex {
+
+    public static final int NUM_HASHES = 128;
+    private static final int BANDS = 16;
+    private static final int ROWS = NUM_HASHES / BANDS;
+    private static final int SHINGLE_SIZE = 3;
+
+    private final List<Map<Long, List<String>>> buckets = new ArrayList<>(BANDS);
+    private final Map<String, int[]> signatures = new HashMap<>();
+
+    public MinHashIndex() {
+        for (int b = 0; b < BANDS; b++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * MinHash signature of the text
+     */
+    public static int[] signature(String text) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> tokens = new ArrayList<>(words.length);
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                tokens.add(word);
+            }
+        }
+        int shingles = Math.max(1, tokens.size() - SHINGLE_SIZE + 1);
+        for (int s = 0; s < shingles; s++) {
+            long h = 0xCBF29CE484222325L;
+            for (int w = s; w < Math.min(tokens.size(), s + SHINGLE_SIZE); w++) {
+                for (byte b : tokens.get(w).getBytes(StandardCharsets.UTF_8)) {
+                    h = (h ^ b) * 0x100000001B3L;
+                }
+                h = (h ^ ' ') * 0x100000001B3L;
+            }
+            long h1 = mix(h);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            // Hash function i is h1 + i*h2, truncated to 31 bits
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) ((h1 + i * h2) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the shingle sets behind two signatures
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    /**
+     * Add an id, replacing its previous signature if it has one
+     */
+    public void add(String id, int[] signature) {
+        if (signatures.containsKey(id)) {
+            remove(id);
+        }
+        signatures.put(id, signature);
+        for (int b = 0; b < BANDS; b++) {
+            buckets.get(b).computeIfAbsent(bandKey(signature, b), k -> new ArrayList<>(1)).add(id);
+        }
+    }
+
+    /**
+     * Take an id out of the index, e.g. before adding it again with an edited signature
+     */
+    public void remove(String id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        for (int b = 0; b < BANDS; b++) {
+            long key = bandKey(signature, b);
+            List<String> bucket = buckets.get(b).get(key);
+            if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                buckets.get(b).remove(key);
+            }
+        }
+    }
+
+    public int[] signatureOf(String id) {
+        return signatures.get(id);
+    }
+
+    /**
+     * Ids that share at least one band with the signature. Callers confirm them with similarity().
+     */
+    public Set<String> candidates(int[] signature) {
+        Set<String> candidates = new LinkedHashSet<>();
+        for (int b = 0; b < BANDS; b++) {
+            List<String> bucket = buckets.get(b).get(bandKey(signature, b));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        return candidates;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++) {
+            h = mix(h * 31 + signature[r]);
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,143 @@
+package com.nexttern.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.nexttern.model.InternshipView;
+
+/**
+ * Turns an internship into a fixed-size, L2-normalized TF-IDF vector using feature hashing.
+ * Each term is hashed to one of a power-of-two number of dimensions with a hash-derived sign, so collisions
+ * tend to cancel rather than accumulate and no vocabulary has to be kept per dimension. Term frequencies
+ * are sublinear and weighted by field; IDF comes from the corpus the vectorizer was fitted on, so vectors
+ * of internships added later stay comparable with the existing ones.
+ */
+public final class TfIdfVectorizer {
+
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float COMPANY_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private final int dimensions;
+    private final int documents;
+    private final Map<String, Integer> documentFrequencies;
+
+    private TfIdfVectorizer(int dimensions, int documents, Map<String, Integer> documentFrequencies) {
+        this.dimensions = dimensions;
+        this.documents = documents;
+        this.documentFrequencies = documentFrequencies;
+    }
+
+    /**
+     * Fit IDF on the corpus
+     * @param dimensions Vector size, a power of two
+     */
+    public static TfIdfVectorizer fit(List<? extends InternshipView> internships, int dimensions) {
+        if (Integer.bitCount(dimensions) != 1) {
+            throw new IllegalArgumentException("dimensions must be a power of two: " + dimensions);
+        }
+        Map<String, Integer> documentFrequencies = new HashMap<>();
+        for (InternshipView internship : internships) {
+            Set<String> terms = new HashSet<>();
+            terms.addAll(TextAnalyzer.tokens(internship.getTitle()));
+            terms.addAll(TextAnalyzer.tokens(internship.getCompany()));
+            terms.addAll(TextAnalyzer.tokens(internship.getDescription()));
+            for (String term : terms) {
+                documentFrequencies.merge(term, 1, Integer::sum);
+            }
+        }
+        return new TfIdfVectorizer(dimensions, internships.size(), documentFrequencies);
+    }
+
+    /**
+     * Write the fitted IDF: dimensions, corpus size and document frequency per term
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(dimensions);
+        out.writeInt(documents);
+        out.writeInt(documentFrequencies.size());
+        for (Map.Entry<String, Integer> entry : documentFrequencies.entrySet()) {
+            FuzzyTermIndex.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    /**
+     * Read a vectorizer written by writeTo(), vectorizing exactly as the one written did
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     */
+    public static TfIdfVectorizer readFrom(ByteBuffer in) {
+        int dimensions = in.getInt();
+        int documents = in.getInt();
+        int terms = in.getInt();
+        Map<String, Integer> documentFrequencies = new HashMap<>(terms * 2);
+        for (int t = 0; t < terms; t++) {
+            documentFrequencies.put(FuzzyTermIndex.readString(in), in.getInt());
+        }
+        return new TfIdfVectorizer(dimensions, documents, documentFrequencies);
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /** Size of the corpus IDF was fitted on */
+    public int documents() {
+        return documents;
+    }
+
+    public float[] vectorize(InternshipView internship) {
+        Map<String, Float> weighted = new HashMap<>();
+        addTerms(weighted, internship.getTitle(), TITLE_WEIGHT);
+        addTerms(weighted, internship.getCompany(), COMPANY_WEIGHT);
+        addTerms(weighted, internship.getDescription(), DESCRIPTION_WEIGHT);
+
+        float[] vector = new float[dimensions];
+        for (Map.Entry<String, Float> entry : weighted.entrySet()) {
+            // Sublinear tf damps long descriptions repeating a word
+            float tfIdf = (float) ((1 + Math.log(entry.getValue())) * idf(entry.getKey()));
+            int hash = mix(entry.getKey().hashCode());
+            int dimension = hash & (dimensions - 1);
+            vector[dimension] += hash < 0 ? -tfIdf : tfIdf;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    // Smoothed IDF; terms unseen when fitting get the maximum
+    private double idf(String term) {
+        int df = documentFrequencies.getOrDefault(term, 0);
+        return Math.log((documents + 1.0) / (df + 1.0)) + 1;
+    }
+
+    private static void addTerms(Map<String, Float> weighted, String text, float weight) {
+        for (String term : TextAnalyzer.tokens(text)) {
+            weighted.merge(term, weight, Float::sum);
+        }
+    }
+
+    // murmur3 finalizer: String.hashCode() alone clusters in the low bits
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,106 @@
+package com.nexttern.search;
+
+/**
+ * Bounded min-heap keeping the k highest-scoring documents.
+ * Ties go to the lower ordinal so results are stable between identical queries.
+ */
+public final class TopK {
+
+    private final int k;
+    private final int[] docs;
+    private final float[] scores;
+    private int size;
+
+    public TopK(int k) {
+        this.k = Math.max(1, k);
+        this.docs = new int[this.k];
+        this.scores = new float[this.k];
+    }
+
+    /**
+     * Score a candidate must beat to enter the heap, or negative infinity while the heap is not full
+     */
+    public float threshold() {
+        return size < k ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public void offer(int doc, float score) {
+        if (size < k) {
+            docs[size] = doc;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (better(doc, score, docs[0], scores[0])) {
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Drain into descending score order
+     * @return Ordinals, best first; the matching scores are written into scoresOut if it is not null
+     */
+    public int[] sorted(float[] scoresOut) {
+        int n = size;
+        int[] result = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            result[i] = docs[0];
+            if (scoresOut != null) {
+                scoresOut[i] = scores[0];
+            }
+            size--;
+            docs[0] = docs[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // a ranks above b
+    private static boolean better(int docA, float scoreA, int docB, float scoreB) {
+        return scoreA > scoreB || (scoreA == scoreB && docA < docB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(docs[parent], scores[parent], docs[i], scores[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(docs[left], scores[left], docs[right], scores[right])) {
+                worst = right;
+            }
+            if (!better(docs[i], scores[i], docs[worst], scores[worst])) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int d = docs[a];
+        docs[a] = docs[b];
+        docs[b] = d;
+        float s = scores[a];
+        scores[a] = scores[b];
+        scores[b] = s;
+    }
+}
@@ -0,0 +1,138 @@
+package com.nexttern.service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.AccountDeletionJob;
+import com.nexttern.model.AccountDeletionJob.Status;
+import com.nexttern.repository.AccountDeletionJobRepository;
+
+/**
+ * Runs account deletions as durable background jobs.
+ * The request thread only records an outbox row; a scheduled worker performs each downstream delete once,
+ * retrying failures with exponential backoff until the job completes or runs out of attempts.
+ */
+@Service
+public class AccountDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountDeletionService.class);
+    private static final Set<Status> ACTIVE = EnumSet.of(Status.PENDING, Status.RUNNING);
+
+    private final AccountDeletionJobRepository jobRepository;
+    private final UserService userService;
+    private final ProfileService profileService;
+
+    @Value("${account-deletion.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${account-deletion.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    @Value("${account-deletion.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    // How long a worker owns a RUNNING job before another worker may pick it up again
+    @Value("${account-deletion.lease-ms:120000}")
+    private long leaseMs;
+
+    public AccountDeletionService(AccountDeletionJobRepository jobRepository, UserService userService,
+                                  ProfileService profileService) {
+        this.jobRepository = jobRepository;
+        this.userService = userService;
+        this.profileService = profileService;
+    }
+
+    /**
+     * Records a deletion job for the user, reusing an active job if one is already queued
+     * @param userId The Supabase user ID
+     * @return The queued job
+     */
+    public AccountDeletionJob enqueue(String userId) {
+        Optional<AccountDeletionJob> existing = jobRepository.findFirstByUserIdAndStatusIn(userId, ACTIVE);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        AccountDeletionJob job = jobRepository.save(new AccountDeletionJob(userId));
+        logger.info("Queued account deletion job {} for user {}", job.getId(), userId);
+        return job;
+    }
+
+    /**
+     * Look up a job, scoped to the user that requested it
+     * @return The job, or empty if it does not exist or belongs to another user
+     */
+    public Optional<AccountDeletionJob> getJob(UUID jobId, String userId) {
+        return jobRepository.findById(jobId).filter(job -> job.getUserId().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${account-deletion.poll-interval-ms:5000}")
+    public void processDueJobs() {
+        for (AccountDeletionJob job : jobRepository.findTop20ByStatusInAndNextAttemptAtBeforeOrderByNextAttemptAtAsc(ACTIVE, LocalDateTime.now())) {
+            AccountDeletionJob claimed = claim(job);
+            if (claimed != null) {
+                run(claimed);
+            }
+        }
+    }
+
+    /**
+     * Take a lease on the job. The version check makes the claim exclusive across replicas.
+     * @return The claimed job, or null if another worker got there first
+     */
+    private AccountDeletionJob claim(AccountDeletionJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(Status.RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+        job.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000L));
+        job.setUpdatedAt(now);
+        try {
+            return jobRepository.saveAndFlush(job);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.debug("Account deletion job {} was claimed by another worker", job.getId());
+            return null;
+        }
+    }
+
+    private void run(AccountDeletionJob job) {
+        try {
+            // Supabase Auth delete; profile and related rows go with it through ON DELETE CASCADE
+            if (job.getAuthDeletedAt() == null) {
+                userService.deleteUserAndData(job.getUserId());
+                job.setAuthDeletedAt(LocalDateTime.now());
+                // The cascade happens in the database, so no replica saw the profile go
+                profileService.evict(job.getUserId());
+            }
+            job.setStatus(Status.COMPLETE);
+            job.setLastError(null);
+            logger.info("Account deletion job {} completed after {} attempt(s)", job.getId(), job.getAttempts());
+        } catch (RuntimeException e) {
+            job.setLastError(e.getMessage());
+            if (job.getAttempts() >= maxAttempts) {
+                job.setStatus(Status.FAILED);
+                logger.error("Account deletion job {} failed permanently after {} attempts: {}", job.getId(), job.getAttempts(), e.getMessage());
+            } else {
+                long backoff = backoffMs(job.getAttempts());
+                job.setStatus(Status.PENDING);
+                job.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000L));
+                logger.warn("Account deletion job {} attempt {} failed, retrying in {} ms: {}", job.getId(), job.getAttempts(), backoff, e.getMessage());
+            }
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private long backoffMs(int attempts) {
+        int exponent = Math.min(attempts - 1, 20);
+        return Math.min(initialBackoffMs << exponent, maxBackoffMs);
+    }
+}
@@ -0,0 +1,207 @@
+package com.nexttern.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.Subscription;
+import com.nexttern.util.InternshipMatcher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Pushes newly posted internships to connected users whose keyword subscriptions match them.
+ * New postings are the ids a catalog snapshot adds over the previous one, so every replica sees them as soon as
+ * its catalog does (within seconds through InternshipStreamConsumer). An id that comes back (expired and
+ * re-created) is not news: only postings dated within alerts.stream.max-age-days are sent, and each id at most
+ * once per posted date. Nor is an alternate URL of a posting already stored (see NearDuplicateService). Each connection has its own bounded queue:
+ * when a client reads slower than alerts arrive the oldest queued alerts are dropped, never the stream.
+ * Heartbeats keep proxies from closing idle streams, and a connection that has not taken one for several
+ * intervals is closed and forgotten.
+ */
+@Service
+public class AlertStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStreamService.class);
+
+    private static final int MISSED_HEARTBEATS = 3;
+
+    private final class Connection {
+        private final String userId;
+        private final List<String> keywords;
+        private final Sinks.Empty<Void> closed = Sinks.empty();
+        private volatile FluxSink<InternshipView> sink;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Connection(String userId, List<String> keywords) {
+            this.userId = userId;
+            this.keywords = keywords;
+        }
+
+        private boolean matches(InternshipView internship) {
+            for (String keyword : keywords) {
+                if (InternshipMatcher.matchesKeyword(internship, keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void close() {
+            connections.remove(this);
+            closed.tryEmitEmpty();
+        }
+    }
+
+    private final UserService userService;
+    private final NearDuplicateService nearDuplicateService;
+    private final int queueSize;
+    private final long heartbeatMs;
+    private final Counter sent;
+    private final Counter dropped;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final long maxAgeDays;
+    // Posted date each recently alerted id was sent with, and when; older entries are pruned
+    private final Map<String, Alerted> alerted = new HashMap<>();
+
+    private record Alerted(String postedDate, long sentAt) {
+    }
+
+    public AlertStreamService(UserService userService, InternshipCatalogService catalogService,
+                              NearDuplicateService nearDuplicateService, MeterRegistry meterRegistry,
+                              @Value("${alerts.stream.queue-size:100}") int queueSize,
+                              @Value("${alerts.stream.heartbeat-ms:15000}") long heartbeatMs,
+                              @Value("${alerts.stream.max-age-days:7}") long maxAgeDays) {
+        this.userService = userService;
+        this.nearDuplicateService = nearDuplicateService;
+        this.queueSize = queueSize;
+        this.heartbeatMs = heartbeatMs;
+        this.maxAgeDays = maxAgeDays;
+        this.sent = meterRegistry.counter("alerts.stream.events", "outcome", "sent");
+        this.dropped = meterRegistry.counter("alerts.stream.events", "outcome", "dropped");
+        meterRegistry.gauge("alerts.stream.connections", connections, Set::size);
+        // Registered after NearDuplicateService's listener, so a snapshot's alternates are grouped before onSnapshot
+        catalogService.addListener(this::onSnapshot);
+    }
+
+    /**
+     * Open an alert stream for a user. Subscriptions are read once here; a client picks up keyword changes by
+     * reconnecting.
+     * @param userId The authenticated user's id
+     * @return "internship" events for matching new postings, interleaved with heartbeat comments
+     */
+    public Flux<ServerSentEvent<InternshipView>> connect(String userId) {
+        List<String> keywords = new ArrayList<>();
+        for (Subscription subscription : userService.getUserSubscriptions(userId)) {
+            String keyword = subscription.getKeyword() == null ? "" : subscription.getKeyword().trim().toLowerCase();
+            if (!keyword.isEmpty()) {
+                keywords.add(keyword);
+            }
+        }
+        Connection connection = new Connection(userId, List.copyOf(keywords));
+
+        Flux<ServerSentEvent<InternshipView>> alerts = Flux.<InternshipView>create(sink -> {
+                    connection.sink = sink;
+                    connections.add(connection);
+                    sink.onDispose(() -> connections.remove(connection));
+                })
+                .onBackpressureBuffer(queueSize, internship -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .map(internship -> ServerSentEvent.builder(internship).id(internship.getId()).event("internship").build());
+        // A tick nobody asked for is skipped rather than queued: the next one does the same job
+        Flux<ServerSentEvent<InternshipView>> heartbeats = Flux.interval(Duration.ofMillis(heartbeatMs))
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<InternshipView>builder().comment("heartbeat").build());
+
+        // Prefetch of 1 so alerts wait in the bounded queue above, not in the merge
+        return Flux.merge(1, alerts, heartbeats)
+                .doOnNext(event -> {
+                    connection.lastSentAt = System.currentTimeMillis();
+                    if (event.data() != null) {
+                        sent.increment();
+                    }
+                })
+                .takeUntilOther(connection.closed.asMono())
+                .doFinally(signal -> connections.remove(connection));
+    }
+
+    /**
+     * Close connections that have not taken a heartbeat for several intervals: the client is gone or stalled
+     * and its queue would only keep dropping.
+     */
+    @Scheduled(fixedDelayString = "${alerts.stream.heartbeat-ms:15000}")
+    public void closeStale() {
+        long cutoff = System.currentTimeMillis() - MISSED_HEARTBEATS * heartbeatMs;
+        for (Connection connection : connections) {
+            if (connection.lastSentAt < cutoff) {
+                logger.debug("Closing stale alert stream for user {}", connection.userId);
+                connection.close();
+            }
+        }
+    }
+
+    // Snapshots without additions (the first, or one restored from disk) are the baseline rather than news
+    private synchronized void onSnapshot(InternshipCatalogService.Snapshot snapshot) {
+        if (snapshot.added() == null || snapshot.added().isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(maxAgeDays);
+        alerted.values().removeIf(sent -> now - sent.sentAt() > maxAgeDays * 86_400_000L);
+        List<InternshipView> added = new ArrayList<>();
+        for (InternshipView internship : snapshot.added()) {
+            Alerted sent = alerted.get(internship.getId());
+            if (isRecent(internship.getPostedDate(), oldest) && !nearDuplicateService.isDuplicate(internship.getId())
+                    && (sent == null || !Objects.equals(sent.postedDate(), internship.getPostedDate()))) {
+                alerted.put(internship.getId(), new Alerted(internship.getPostedDate(), now));
+                added.add(internship);
+            }
+        }
+        if (added.isEmpty() || connections.isEmpty()) {
+            return;
+        }
+        for (Connection connection : connections) {
+            FluxSink<InternshipView> sink = connection.sink;
+            if (sink == null || connection.keywords.isEmpty()) {
+                continue;
+            }
+            for (InternshipView internship : added) {
+                if (connection.matches(internship)) {
+                    sink.next(internship);
+                }
+            }
+        }
+    }
+
+    // A date that does not parse cannot be judged, so it counts as recent
+    private static boolean isRecent(String postedDate, LocalDate oldest) {
+        if (postedDate == null || postedDate.length() < 10) {
+            return true;
+        }
+        try {
+            return !LocalDate.parse(postedDate.substring(0, 10)).isBefore(oldest);
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.nexttern.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps local caches consistent across replicas with Postgres LISTEN/NOTIFY.
+ * A write evicts the key from the local cache and sends a notification on a shared channel; every other
+ * replica holds one listening connection and evicts the same key when it arrives. Notifications are not
+ * durable, so whenever the listening connection is (re)established every subscribed cache is cleared:
+ * anything sent while it was down is lost. Against a database other than Postgres invalidations stay local.
+ * A cache over a table that is also written outside this service (the frontend writes some tables directly
+ * through Supabase) can have the database send its invalidations: an AFTER INSERT/UPDATE/DELETE trigger
+ * notifies on the same channel for every row written, by whichever client.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String CHANNEL = "nexttern_cache_invalidation";
+    private static final long MAX_BACKOFF_MS = 60_000;
+    // Sender of trigger notifications, never a replica's instance id
+    private static final String DATABASE_SENDER = "db";
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private record TableTrigger(String cache, String table, String keyColumn) {
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int pollMs;
+    // Notifications carry the sender so a replica skips its own
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final List<TableTrigger> tableTriggers = new CopyOnWriteArrayList<>();
+    // Caches whose table trigger is installed: the database notifies other replicas of every write
+    private final Set<String> triggered = ConcurrentHashMap.newKeySet();
+    // Null until the listener has connected; false when the database cannot notify
+    private volatile Boolean postgres;
+    private volatile Thread thread;
+
+    public CacheInvalidationBus(DataSource dataSource, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                @Value("${cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${cache.invalidation.poll-ms:5000}") int pollMs) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.pollMs = pollMs;
+    }
+
+    /**
+     * Register a cache for invalidations
+     * @param cache Cache name shared by every replica, e.g. "profile"
+     * @param evict Called with the key to evict, or null to clear the whole cache
+     */
+    public void subscribe(String cache, Consumer<String> evict) {
+        subscribers.computeIfAbsent(cache, c -> new CopyOnWriteArrayList<>()).add(evict);
+    }
+
+    /**
+     * Have the database publish invalidations for every row written to a table, including writes that bypass
+     * the backend. The trigger is (re)created once the listener has connected to Postgres; if the database
+     * user may not create it, other replicas only see this instance's own invalidations.
+     * @param cache Cache name the notifications are for
+     * @param table Table whose rows the cache holds
+     * @param keyColumn Column whose text value is the cache key
+     */
+    public void invalidateOnWrite(String cache, String table, String keyColumn) {
+        if (!IDENTIFIER.matcher(table).matches() || !IDENTIFIER.matcher(keyColumn).matches()) {
+            throw new IllegalArgumentException("Not a plain identifier: " + table + "." + keyColumn);
+        }
+        tableTriggers.add(new TableTrigger(cache, table, keyColumn));
+    }
+
+    /**
+     * Evict a key here and on every other replica. Call after the write is committed, so a replica that
+     * reloads the key straight away sees the new value.
+     */
+    public void invalidate(String cache, String key) {
+        evict(cache, key);
+        meterRegistry.counter("cache.invalidations", "cache", cache, "origin", "local").increment();
+        if (!enabled || Boolean.FALSE.equals(postgres) || triggered.contains(cache)) {
+            return;
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, instanceId + ":" + cache + ":" + key);
+        } catch (DataAccessException e) {
+            // Other replicas keep the stale entry until it expires
+            logger.warn("Failed to publish invalidation of {} {}: {}", cache, key, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (enabled) {
+            Thread listener = Thread.ofVirtual().name("cache-invalidation").unstarted(this::listen);
+            thread = listener;
+            listener.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = thread;
+        thread = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void listen() {
+        long backoff = pollMs;
+        while (thread == Thread.currentThread()) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    postgres = false;
+                    logger.info("Database is not Postgres; cache invalidations stay local to this instance");
+                    return;
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                postgres = true;
+                installTriggers();
+                // Invalidations sent before LISTEN took effect were missed
+                clearAll();
+                logger.info("Listening for cache invalidations on {}", CHANNEL);
+                backoff = pollMs;
+                while (thread == Thread.currentThread()) {
+                    PGNotification[] notifications = pg.getNotifications(pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (thread != Thread.currentThread()) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener lost its connection, reconnecting in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void installTriggers() {
+        for (TableTrigger trigger : tableTriggers) {
+            if (triggered.contains(trigger.cache())) {
+                continue;
+            }
+            String function = "nexttern_invalidate_" + trigger.table();
+            try {
+                jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + function + "() RETURNS trigger AS $$\n"
+                    + "BEGIN\n"
+                    + "  IF TG_OP = 'DELETE' THEN\n"
+                    + "    PERFORM pg_notify('" + CHANNEL + "', '" + DATABASE_SENDER + ":" + trigger.cache() + ":' || OLD." + trigger.keyColumn() + "::text);\n"
+                    + "  ELSE\n"
+                    + "    PERFORM pg_notify('" + CHANNEL + "', '" + DATABASE_SENDER + ":" + trigger.cache() + ":' || NEW." + trigger.keyColumn() + "::text);\n"
+                    + "  END IF;\n"
+                    + "  RETURN NULL;\n"
+                    + "END $$ LANGUAGE plpgsql");
+                jdbcTemplate.execute("CREATE OR REPLACE TRIGGER " + function + " AFTER INSERT OR UPDATE OR DELETE ON "
+                    + trigger.table() + " FOR EACH ROW EXECUTE FUNCTION " + function + "()");
+                triggered.add(trigger.cache());
+                logger.info("Writes to {} publish {} cache invalidations", trigger.table(), trigger.cache());
+            } catch (DataAccessException e) {
+                logger.warn("Could not install the invalidation trigger on {}; writes made outside this service "
+                    + "reach other replicas' {} cache only when entries expire: {}", trigger.table(), trigger.cache(), e.getMessage());
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length < 3) {
+            logger.debug("Ignoring malformed cache invalidation {}", payload);
+            return;
+        }
+        if (!parts[0].equals(instanceId)) {
+            evict(parts[1], parts[2]);
+            meterRegistry.counter("cache.invalidations", "cache", parts[1], "origin", "remote").increment();
+        }
+    }
+
+    private void evict(String cache, String key) {
+        for (Consumer<String> evict : subscribers.getOrDefault(cache, List.of())) {
+            try {
+                evict.accept(key);
+            } catch (RuntimeException e) {
+                logger.error("Evicting {} from cache {} failed: {}", key, cache, e.getMessage());
+            }
+        }
+    }
+
+    private void clearAll() {
+        subscribers.keySet().forEach(cache -> evict(cache, null));
+    }
+}
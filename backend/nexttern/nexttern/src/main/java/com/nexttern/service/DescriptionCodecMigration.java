@@ -0,0 +1,73 @@
+package com.nexttern.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.Internship;
+import com.nexttern.repository.InternshipRepository;
+import com.nexttern.util.DescriptionCodec;
+
+/**
+ * One-off rewrite of stored descriptions into the configured encoding.
+ * With internships.description-codec.migrate=true, plain descriptions are compressed when the codec is enabled,
+ * and compressed ones are written back as plain text when it is disabled (the rollback path).
+ * Items already in the target encoding are skipped, so the migration can be re-run safely.
+ */
+@Service
+public class DescriptionCodecMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(DescriptionCodecMigration.class);
+
+    private final InternshipRepository internshipRepository;
+    private final InternshipCatalogService internshipCatalogService;
+
+    @Value("${internships.description-codec.migrate:false}")
+    private boolean migrate;
+
+    // Spacing between writes so the migration stays inside the table's write capacity
+    @Value("${internships.description-codec.migrate-delay-ms:200}")
+    private long delayMs;
+
+    public DescriptionCodecMigration(InternshipRepository internshipRepository, InternshipCatalogService internshipCatalogService) {
+        this.internshipRepository = internshipRepository;
+        this.internshipCatalogService = internshipCatalogService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (migrate) {
+            Thread.ofVirtual().name("description-codec-migration").start(this::run);
+        }
+    }
+
+    private void run() {
+        boolean compress = DescriptionCodec.isCompressOnWrite();
+        int rewritten = 0;
+        int skipped = 0;
+        try {
+            for (Internship internship : internshipRepository.findAll()) {
+                if (internship.isDescriptionCompressed() == compress || internship.getDescription() == null) {
+                    skipped++;
+                    continue;
+                }
+                internshipRepository.save(internship);
+                rewritten++;
+                if (delayMs > 0) {
+                    Thread.sleep(delayMs);
+                }
+            }
+            logger.info("Description migration to {} storage rewrote {} item(s), {} already migrated",
+                compress ? "compressed" : "plain", rewritten, skipped);
+            internshipCatalogService.refresh();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Description migration interrupted after {} item(s)", rewritten);
+        } catch (RuntimeException e) {
+            logger.error("Description migration failed after {} item(s): {}", rewritten, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.nexttern.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.CompactInternships;
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.Subscription;
+import com.nexttern.model.User;
+import com.nexttern.model.dto.InternshipMatchDTO;
+import com.nexttern.util.InternshipMatcher;
+
+/**
+ * Matches newly posted internships against users' keyword subscriptions.
+ * New postings are the ids catalog snapshots add over their predecessors, collected between digest runs. A
+ * snapshot without additions (the first after startup, or one restored from disk) is the baseline, so a posting
+ * added while no instance was running is not part of a digest.
+ */
+@Service
+public class InternshipAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipAlertService.class);
+
+    private final UserService userService;
+    private final InternshipCatalogService catalogService;
+    private final NearDuplicateService nearDuplicateService;
+    private final boolean digestEnabled;
+    // Ids added to the catalog since the last digest, oldest first
+    private final Set<String> added = new LinkedHashSet<>();
+
+    public InternshipAlertService(UserService userService, InternshipCatalogService catalogService,
+                                  NearDuplicateService nearDuplicateService,
+                                  @Value("${alerts.digest.cron:-}") String digestCron) {
+        this.userService = userService;
+        this.catalogService = catalogService;
+        this.nearDuplicateService = nearDuplicateService;
+        this.digestEnabled = !"-".equals(digestCron);
+        // Registered after NearDuplicateService's listener, so alternates are grouped by the time a digest reads them
+        catalogService.addListener(this::onSnapshot);
+    }
+
+    /**
+     * Build the alert matches for the given catalog postings. Ids no longer in the catalog are skipped, as are
+     * alternates of a posting stored before them.
+     * @param ids Ids of the new postings
+     * @return One entry per user with at least one matching internship
+     */
+    public List<InternshipMatchDTO> findMatches(Collection<String> ids) {
+        CompactInternships catalog = catalogService.current().internships();
+        List<InternshipView> internships = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            int index = catalog.indexOf(id);
+            if (index >= 0) {
+                internships.add(catalog.get(index));
+            }
+        }
+        // The same job posted by several sources should appear once in a digest
+        internships = nearDuplicateService.collapse(internships);
+        if (internships.isEmpty()) {
+            return List.of();
+        }
+        Map<String, List<Subscription>> subscriptions = userService.getAllUserSubscriptions();
+        if (subscriptions.isEmpty()) {
+            return List.of();
+        }
+
+        List<InternshipMatchDTO> matches = matchSubscriptions(subscriptions, internships);
+
+        // User details are only needed for users that actually matched
+        Map<String, User> users = userService.getUsersByIds(matches.stream().map(m -> m.getUser().getId()).toList());
+        for (InternshipMatchDTO match : matches) {
+            User user = users.get(match.getUser().getId());
+            if (user != null) {
+                match.setUser(user);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Match each user's subscription keywords against the given internships.
+     * Users in the result only carry their id; callers resolve full user details.
+     * @param subscriptions Subscriptions grouped by user id
+     * @param internships Candidate internships
+     * @return One entry per user with at least one matching internship
+     */
+    public static List<InternshipMatchDTO> matchSubscriptions(Map<String, List<Subscription>> subscriptions, List<? extends InternshipView> internships) {
+        List<InternshipMatchDTO> matches = new ArrayList<>();
+        for (Map.Entry<String, List<Subscription>> entry : subscriptions.entrySet()) {
+            List<String> matchedKeywords = new ArrayList<>();
+            List<Subscription> matchedSubscriptions = new ArrayList<>();
+            Set<InternshipView> matchedInternships = new LinkedHashSet<>();
+            for (Subscription subscription : entry.getValue()) {
+                String keyword = subscription.getKeyword() == null ? "" : subscription.getKeyword().trim().toLowerCase();
+                if (keyword.isEmpty()) {
+                    continue;
+                }
+                boolean any = false;
+                for (InternshipView internship : internships) {
+                    if (InternshipMatcher.matchesKeyword(internship, keyword)) {
+                        matchedInternships.add(internship);
+                        any = true;
+                    }
+                }
+                if (any) {
+                    matchedKeywords.add(keyword);
+                    matchedSubscriptions.add(subscription);
+                }
+            }
+            if (!matchedInternships.isEmpty()) {
+                InternshipMatchDTO match = new InternshipMatchDTO(new User(entry.getKey(), null, null, null), matchedKeywords, new ArrayList<>(matchedInternships));
+                match.setMatchedSubscriptions(matchedSubscriptions);
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Periodic digest run over the postings added since the previous one. Disabled unless alerts.digest.cron is set.
+     */
+    @Scheduled(cron = "${alerts.digest.cron:-}")
+    public void runDigest() {
+        List<String> ids;
+        synchronized (added) {
+            ids = new ArrayList<>(added);
+            added.clear();
+        }
+        try {
+            List<InternshipMatchDTO> matches = findMatches(ids);
+            logger.info("Alert digest over {} new internship(s) matched {} user(s)", ids.size(), matches.size());
+        } catch (RuntimeException e) {
+            // Keep the postings for the next run
+            synchronized (added) {
+                added.addAll(ids);
+            }
+            logger.error("Alert digest failed: {}", e.getMessage());
+        }
+    }
+
+    private void onSnapshot(InternshipCatalogService.Snapshot snapshot) {
+        if (!digestEnabled || snapshot.added() == null) {
+            return;
+        }
+        synchronized (added) {
+            for (InternshipView internship : snapshot.added()) {
+                added.add(internship.getId());
+            }
+        }
+    }
+}
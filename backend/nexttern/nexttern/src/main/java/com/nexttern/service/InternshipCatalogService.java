@@ -0,0 +1,470 @@
+package com.nexttern.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.CompactInternships;
+import com.nexttern.model.Internship;
+import com.nexttern.model.InternshipView;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.repository.InternshipRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory view of the Internships table for the read endpoints.
+ * The table only changes when ingestion runs, so the view is refreshed on a schedule (or on demand after a write)
+ * instead of scanning DynamoDB on every request; a refresh only reads items written since the previous one.
+ * Between refreshes, InternshipStreamConsumer applies changes from the table's stream as they happen; they are
+ * queued and published together every internships.catalog.apply-ms, merged into the previous snapshot.
+ * Each snapshot carries a content-derived version that is identical on every replica holding the same data, and
+ * what changed since the previous one, so listeners can update their structures instead of rebuilding them.
+ * With 100k synthetic items and apply-ms 1000 (CatalogHarness mode=latency) a publish takes about 60 ms and a
+ * streamed change is searchable after 0.6-0.7 s at the median; the first one after a restore takes up to 4 s.
+ * The latest one is saved to local disk every internships.catalog.persist-ms, off the publishing path, and on
+ * shutdown, so a restarted instance starts from it and only fetches what changed since. Restoring maps the
+ * file and reads the rows back as the catalog held them, descriptions left compressed in the mapping, and each
+ * listener takes its structures back from its own section of the file instead of rebuilding them: with 100k
+ * synthetic items (CatalogHarness) the first search is served 0.5 to 0.8 s after a cold start on one CPU.
+ */
+@Service
+public class InternshipCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipCatalogService.class);
+
+    /**
+     * Immutable view of the dataset
+     * @param internships Internships in id order
+     * @param changes What changed since the previous snapshot; null when there was none (first load or restore)
+     * @param version Hex content hash, stable across replicas
+     * @param lastModified When this replica first saw this version (second precision, for Last-Modified)
+     */
+    public record Snapshot(CompactInternships internships, Changes changes, String version, Instant lastModified) {
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+
+        /**
+         * Internships whose ids the previous snapshot did not have, in id order; null when there was no
+         * previous snapshot
+         */
+        public List<InternshipView> added() {
+            return changes == null ? null : changes.added();
+        }
+
+        /**
+         * The internship with this InternshipIds.forUrl() id of its URL, whatever its stored id, or null
+         */
+        public InternshipView byUrlId(String urlId) {
+            return internships.byUrlId(urlId);
+        }
+
+        /**
+         * Pass the InternshipIds.forUrl() id of every internship's URL to the consumer
+         */
+        public void forEachUrlId(Consumer<String> consumer) {
+            internships.forEachUrlId(consumer);
+        }
+    }
+
+    /**
+     * Difference between two consecutive snapshots, all in id order
+     * @param since Version of the previous snapshot
+     * @param added Internships with ids the previous snapshot did not have, as rows of the new snapshot
+     * @param changed Internships whose content changed, as rows of the new snapshot
+     * @param removed Ids the new snapshot no longer has
+     */
+    public record Changes(String since, List<InternshipView> added, List<InternshipView> changed, List<String> removed) {
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    // A delta refresh re-reads items written this long before the previous one started, covering clock skew
+    // between writers and the updatedAt index lagging the table
+    private static final long DELTA_OVERLAP_MS = 120_000;
+
+    private final InternshipRepository internshipRepository;
+    private final CatalogSnapshotStore snapshotStore;
+    private final long fullRefreshMs;
+    private final boolean offHeap;
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    // Stream changes not published yet, by id; a null value is a removal
+    private final Object pendingLock = new Object();
+    private NavigableMap<String, Internship> pending = new TreeMap<>();
+    private volatile Snapshot snapshot;
+    // Epoch millis: items written after the watermark may be missing from the snapshot, -1 before the first load
+    private long watermark = -1;
+    private long scannedAt;
+    // What the snapshot file holds; written under persistLock, or by restore() before anything is published
+    private final Object persistLock = new Object();
+    private volatile Snapshot persisted;
+    private volatile long persistedScannedAt;
+
+    public InternshipCatalogService(InternshipRepository internshipRepository, CatalogSnapshotStore snapshotStore,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${internships.catalog.full-refresh-ms:21600000}") long fullRefreshMs,
+                                    @Value("${internships.catalog.off-heap:true}") boolean offHeap) {
+        this.internshipRepository = internshipRepository;
+        this.snapshotStore = snapshotStore;
+        this.fullRefreshMs = fullRefreshMs;
+        this.offHeap = offHeap;
+        Gauge.builder("internships.catalog.size", this, c -> c.snapshot == null ? 0 : c.snapshot.internships().size())
+            .description("Internships held in the in-memory catalog")
+            .register(meterRegistry);
+        Gauge.builder("internships.catalog.text.bytes", this,
+                c -> c.snapshot == null ? 0 : c.snapshot.internships().textBytes())
+            .description("Capacity of the catalog's compressed description and URL buffer, off-heap unless internships.catalog.off-heap=false")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot, loading it on first use: from the local snapshot file when there is one
+     * (then catching up with DynamoDB in the background), otherwise with a full scan
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    if (restore()) {
+                        Thread.ofVirtual().name("catalog-catch-up").start(this::scheduledRefresh);
+                    } else {
+                        refresh();
+                    }
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Register a callback run with every new snapshot on the refreshing thread, before the snapshot becomes
+     * current(): a request that sees a version is answered from structures derived from that version.
+     * Used by components that derive their own structures from the catalog.
+     * If a snapshot is already loaded the listener is called with it immediately.
+     */
+    public synchronized void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+        Snapshot current = snapshot;
+        if (current != null) {
+            listener.accept(current);
+        }
+    }
+
+    /**
+     * Load the catalog as soon as the application has started rather than on the first request
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmStart() {
+        Thread.ofVirtual().name("catalog-warm-start").start(() -> {
+            try {
+                current();
+            } catch (RuntimeException e) {
+                logger.error("Failed to load internship catalog at startup: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${internships.catalog.refresh-ms:300000}", initialDelayString = "${internships.catalog.refresh-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot
+            logger.error("Failed to refresh internship catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bring the catalog up to date. Only items written since the last refresh are read, from the updatedAt
+     * index, unless there is nothing to apply them to, the last full scan is older than
+     * internships.catalog.full-refresh-ms, or the index cannot be queried; then the table is scanned.
+     * The version only changes when the content does.
+     */
+    public synchronized void refresh() {
+        Snapshot previous = snapshot;
+        if (previous == null || watermark < 0 || System.currentTimeMillis() - scannedAt >= fullRefreshMs) {
+            reload();
+            return;
+        }
+        // Whatever the stream queued so far is older than what the refresh reads, and applied first
+        NavigableMap<String, Internship> changes = takePending();
+        try {
+            refreshDelta(previous, changes);
+        } catch (RuntimeException e) {
+            logger.warn("Delta catalog refresh failed, scanning instead: {}", e.getMessage());
+            reload();
+        }
+    }
+
+    /**
+     * Reload the catalog with a full scan. This is the only refresh that notices items hard-deleted before their
+     * TTL; InternshipRepository.expireAllById() removes items in a way delta refreshes see.
+     */
+    public synchronized void reload() {
+        long started = System.currentTimeMillis();
+        // The scan reads everything queued so far
+        takePending();
+        List<Internship> internships = internshipRepository.findAll();
+        watermark = started - DELTA_OVERLAP_MS;
+        scannedAt = started;
+        // Even with the same content a new scan is saved, so a restart can start its delta from here
+        publish(internships);
+    }
+
+    /**
+     * Queue item changes read from the table's change stream, to be published by publishPending() without
+     * reading DynamoDB. Returns at once: a burst of stream batches becomes one snapshot.
+     * Of two versions of an item the newer (by updatedAt) wins, including against the one already held, since a
+     * refresh may have read a newer version first. Before the first snapshot is loaded changes are ignored;
+     * loading reads them anyway.
+     * @param upserted New versions of inserted or modified items
+     * @param removed Ids of deleted items
+     */
+    public void apply(Collection<Internship> upserted, Collection<String> removed) {
+        if (snapshot == null || (upserted.isEmpty() && removed.isEmpty())) {
+            return;
+        }
+        synchronized (pendingLock) {
+            for (String id : removed) {
+                pending.put(id, null);
+            }
+            for (Internship internship : upserted) {
+                Internship queued = pending.get(internship.getId());
+                if (queued == null || !isOlder(internship, queued)) {
+                    pending.put(internship.getId(), internship);
+                }
+            }
+        }
+    }
+
+    /**
+     * Publish the stream changes queued by apply(), merged into the current snapshot. Listeners apply only the
+     * changes, so this takes time in proportion to them rather than to the catalog.
+     */
+    @Scheduled(fixedDelayString = "${internships.catalog.apply-ms:1000}")
+    public void publishPending() {
+        if (snapshot == null) {
+            return;
+        }
+        synchronized (this) {
+            NavigableMap<String, Internship> changes = takePending();
+            if (!changes.isEmpty()) {
+                publish(merge(snapshot.internships(), changes));
+            }
+        }
+    }
+
+    private void refreshDelta(Snapshot previous, NavigableMap<String, Internship> changes) {
+        long started = System.currentTimeMillis();
+        List<String> ids = internshipRepository.findIdsUpdatedSince(watermark);
+        if (ids.isEmpty() && changes.isEmpty() && !anyExpired(previous.internships(), started / 1000)) {
+            watermark = started - DELTA_OVERLAP_MS;
+            return;
+        }
+        if (!ids.isEmpty()) {
+            // An id in the index but no longer in the table was deleted since
+            ids.forEach(id -> changes.put(id, null));
+            for (Internship internship : internshipRepository.findAllById(ids)) {
+                changes.put(internship.getId(), internship);
+            }
+        }
+        watermark = started - DELTA_OVERLAP_MS;
+        logger.debug("Delta catalog refresh read {} changed item(s)", ids.size());
+        publish(merge(previous.internships(), changes));
+    }
+
+    private NavigableMap<String, Internship> takePending() {
+        synchronized (pendingLock) {
+            NavigableMap<String, Internship> taken = pending;
+            pending = new TreeMap<>();
+            return taken;
+        }
+    }
+
+    /**
+     * The held internships with changes applied, in id order. Both are in id order, so this is one pass over
+     * each with no lookups.
+     * @param changes New versions by id, or null for removals
+     */
+    private static List<InternshipView> merge(List<InternshipView> held, NavigableMap<String, Internship> changes) {
+        List<InternshipView> merged = new ArrayList<>(held.size() + changes.size());
+        Iterator<Map.Entry<String, Internship>> pendingChanges = changes.entrySet().iterator();
+        Map.Entry<String, Internship> change = pendingChanges.hasNext() ? pendingChanges.next() : null;
+        for (InternshipView internship : held) {
+            while (change != null && change.getKey().compareTo(internship.getId()) < 0) {
+                if (change.getValue() != null) {
+                    merged.add(change.getValue());
+                }
+                change = pendingChanges.hasNext() ? pendingChanges.next() : null;
+            }
+            if (change != null && change.getKey().equals(internship.getId())) {
+                Internship changed = change.getValue();
+                if (changed != null) {
+                    merged.add(isOlder(changed, internship) ? internship : changed);
+                }
+                change = pendingChanges.hasNext() ? pendingChanges.next() : null;
+            } else {
+                merged.add(internship);
+            }
+        }
+        while (change != null) {
+            if (change.getValue() != null) {
+                merged.add(change.getValue());
+            }
+            change = pendingChanges.hasNext() ? pendingChanges.next() : null;
+        }
+        return merged;
+    }
+
+    private static boolean isOlder(InternshipView internship, InternshipView than) {
+        return internship.getUpdatedAt() != null && than.getUpdatedAt() != null && internship.getUpdatedAt() < than.getUpdatedAt();
+    }
+
+    /**
+     * Publish the live internships as a new snapshot if their content differs from the current one.
+     * Items past their TTL are left out, since DynamoDB can take up to a couple of days to delete them.
+     * @return Whether a new snapshot was published
+     */
+    private boolean publish(Collection<? extends InternshipView> loaded) {
+        long now = System.currentTimeMillis() / 1000;
+        List<InternshipView> internships = new ArrayList<>(loaded.size());
+        for (InternshipView internship : loaded) {
+            if (!internship.isExpired(now)) {
+                internships.add(internship);
+            }
+        }
+        internships.sort(Comparator.comparing(InternshipView::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        String version = CompactInternships.contentVersion(internships);
+
+        Snapshot previous = snapshot;
+        if (previous != null && previous.version().equals(version)) {
+            return false;
+        }
+        Snapshot next = snapshot(internships, version, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        notifyListeners(next);
+        snapshot = next;
+        logger.info("Internship catalog loaded {} internships (version {})", internships.size(), version);
+        return true;
+    }
+
+    /**
+     * Publish the catalog saved on local disk, keeping its version and Last-Modified so clients' ETags stay valid
+     * @return false if there is no usable snapshot file
+     */
+    private boolean restore() {
+        long started = System.nanoTime();
+        CatalogSnapshotStore.Stored stored = snapshotStore.load();
+        if (stored == null) {
+            return false;
+        }
+        watermark = stored.watermark();
+        scannedAt = stored.scannedAt();
+        Snapshot restored = new Snapshot(stored.internships(), null, stored.version(), stored.lastModified());
+        notifyListeners(restored);
+        snapshot = restored;
+        persistedScannedAt = scannedAt;
+        persisted = restored;
+        logger.info("Internship catalog restored {} internships (version {}) from disk in {} ms",
+            stored.internships().size(), stored.version(), (System.nanoTime() - started) / 1_000_000);
+        return true;
+    }
+
+    // Both are in id order, so this is one pass over each; content is compared by the rows' stored hashes
+    private static Changes changes(String since, CompactInternships previous, CompactInternships next) {
+        List<InternshipView> added = new ArrayList<>();
+        List<InternshipView> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        int held = 0;
+        for (InternshipView internship : next) {
+            while (held < previous.size() && previous.get(held).getId().compareTo(internship.getId()) < 0) {
+                removed.add(previous.get(held++).getId());
+            }
+            if (held == previous.size() || !previous.get(held).getId().equals(internship.getId())) {
+                added.add(internship);
+            } else if (CompactInternships.contentHash(previous.get(held++)) != CompactInternships.contentHash(internship)) {
+                changed.add(internship);
+            }
+        }
+        while (held < previous.size()) {
+            removed.add(previous.get(held++).getId());
+        }
+        return new Changes(since, List.copyOf(added), List.copyOf(changed), List.copyOf(removed));
+    }
+
+    private static boolean anyExpired(List<InternshipView> internships, long nowEpochSeconds) {
+        for (InternshipView internship : internships) {
+            if (internship.isExpired(nowEpochSeconds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Save the current snapshot to disk if it or the last full scan changed since the last save. The write
+     * (and its fsync) happens outside the catalog's lock, so refreshes and stream changes are not held up.
+     */
+    @Scheduled(fixedDelayString = "${internships.catalog.persist-ms:60000}", initialDelayString = "${internships.catalog.persist-ms:60000}")
+    @PreDestroy
+    public void persistLatest() {
+        synchronized (persistLock) {
+            Snapshot latest;
+            long mark;
+            long scanned;
+            // The watermark has to be the one the snapshot was published under
+            synchronized (this) {
+                latest = snapshot;
+                mark = watermark;
+                scanned = scannedAt;
+            }
+            if (latest == null || (latest == persisted && scanned == persistedScannedAt)) {
+                return;
+            }
+            snapshotStore.save(latest.version(), latest.lastModified(), mark, scanned, latest.internships());
+            persisted = latest;
+            persistedScannedAt = scanned;
+        }
+    }
+
+    private void notifyListeners(Snapshot next) {
+        for (Consumer<Snapshot> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                logger.error("Internship catalog listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Rows carried over from the current snapshot keep their encoded text instead of being encoded again
+    private Snapshot snapshot(List<? extends InternshipView> loaded, String version, Instant lastModified) {
+        Snapshot previous = snapshot;
+        CompactInternships internships = CompactInternships.of(loaded, previous == null ? null : previous.internships(), offHeap);
+        return new Snapshot(internships, previous == null ? null : changes(previous.version(), previous.internships(), internships),
+            version, lastModified);
+    }
+}
@@ -0,0 +1,236 @@
+package com.nexttern.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.Internship;
+import com.nexttern.model.InternshipView;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.repository.InternshipRepository;
+import com.nexttern.util.BloomFilter;
+import com.nexttern.util.InternshipIds;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * URL-level deduplication in front of the internship write path.
+ * A Bloom filter of normalized-URL ids answers "definitely new" without any lookup; a positive is confirmed
+ * against the catalog, so known postings are recognised without a DynamoDB read. New postings are created
+ * with a conditional put, which also catches races with other replicas.
+ * Postings a catalog snapshot adds are put into the filter; it is rebuilt, and persisted so a restarted instance
+ * has it before the first scan completes, when there is no previous snapshot to compare with or the additions
+ * outgrow the size it was built for. The filter is also saved with the catalog snapshot, so a catalog restored
+ * from disk takes it back as it was instead of hashing every URL again.
+ */
+@Service
+public class InternshipDeduplicationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipDeduplicationService.class);
+
+    private static final String SNAPSHOT_SECTION = "dedup.bloom";
+
+    private final InternshipRepository internshipRepository;
+    private final InternshipCatalogService internshipCatalogService;
+    private final CatalogSnapshotStore snapshotStore;
+    private final MeterRegistry meterRegistry;
+    private final Path filterPath;
+    private final double falsePositiveRate;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Reads race with put(); a missed bit only turns a "known" answer into a conditional put, never the reverse
+    private volatile BloomFilter filter;
+    // Insertions the current filter was sized for, and made since it was built
+    private long capacity;
+    private long inserted;
+    // Catalog version whose URLs the filter holds, or null
+    private String filterVersion;
+
+    public InternshipDeduplicationService(InternshipRepository internshipRepository,
+                                          InternshipCatalogService internshipCatalogService,
+                                          CatalogSnapshotStore snapshotStore,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${internships.dedup.bloom-path:${java.io.tmpdir}/nexttern-url-bloom.bin}") String filterPath,
+                                          @Value("${internships.dedup.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.internshipRepository = internshipRepository;
+        this.internshipCatalogService = internshipCatalogService;
+        this.snapshotStore = snapshotStore;
+        this.meterRegistry = meterRegistry;
+        this.filterPath = Path.of(filterPath);
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = load();
+        snapshotStore.addSection(SNAPSHOT_SECTION, this::writeFilter);
+        internshipCatalogService.addListener(this::rebuild);
+    }
+
+    /**
+     * Find the stored posting with the same normalized URL
+     * @return The stored internship, or null if the URL has not been seen
+     */
+    public InternshipView findExisting(String url) {
+        String urlId = InternshipIds.forUrl(url);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(urlId)) {
+            meterRegistry.counter("internships.dedup.lookups", "result", "bloom_negative").increment();
+            return null;
+        }
+        InternshipView existing = internshipCatalogService.current().byUrlId(urlId);
+        meterRegistry.counter("internships.dedup.lookups", "result", existing == null ? "false_positive" : "known").increment();
+        return existing;
+    }
+
+    /**
+     * Create a posting whose URL is not stored yet. The id is set from the normalized URL.
+     * @return true if it was created, false if the URL turned out to exist already
+     */
+    public boolean insertIfAbsent(Internship internship) {
+        String urlId = InternshipIds.forUrl(internship.getUrl());
+        internship.setId(urlId);
+        boolean created = internshipRepository.insertIfAbsent(internship);
+        BloomFilter current = filter;
+        if (current != null) {
+            writeLock.lock();
+            try {
+                current.put(urlId);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return created;
+    }
+
+    private void rebuild(InternshipCatalogService.Snapshot snapshot) {
+        BloomFilter current = filter;
+        InternshipCatalogService.Changes changes = snapshot.changes();
+        // An edit can change an item's URL; the old one stays in the filter, which only costs a lookup
+        int puts = changes == null ? 0 : changes.added().size() + changes.changed().size();
+        if (current != null && changes != null && inserted + puts <= capacity) {
+            writeLock.lock();
+            try {
+                for (List<InternshipView> internships : List.of(changes.added(), changes.changed())) {
+                    for (InternshipView internship : internships) {
+                        String url = internship.getUrl();
+                        if (url != null && !url.isBlank()) {
+                            current.put(InternshipIds.forUrl(url));
+                        }
+                    }
+                }
+                inserted += puts;
+                filterVersion = snapshot.version();
+            } finally {
+                writeLock.unlock();
+            }
+            return;
+        }
+        if (restoreFilter(snapshot.version())) {
+            return;
+        }
+        long expected = Math.max(10_000L, snapshot.internships().size() * 2L);
+        BloomFilter rebuilt = BloomFilter.create(expected, falsePositiveRate);
+        snapshot.forEachUrlId(rebuilt::put);
+        writeLock.lock();
+        try {
+            capacity = expected;
+            inserted = snapshot.internships().size();
+            filter = rebuilt;
+            filterVersion = snapshot.version();
+        } finally {
+            writeLock.unlock();
+        }
+        persist(rebuilt);
+    }
+
+    // The filter saved with the catalog snapshot, if it holds the URLs of this version
+    private boolean restoreFilter(String version) {
+        ByteBuffer saved = snapshotStore.section(SNAPSHOT_SECTION);
+        if (saved == null) {
+            return false;
+        }
+        try {
+            if (!version.equals(CatalogSnapshotStore.readString(saved))) {
+                return false;
+            }
+            long savedCapacity = saved.getLong();
+            long savedInserted = saved.getLong();
+            byte[] bytes = new byte[saved.getInt()];
+            saved.get(bytes);
+            BloomFilter restored = BloomFilter.readFrom(new ByteArrayInputStream(bytes));
+            writeLock.lock();
+            try {
+                capacity = savedCapacity;
+                inserted = savedInserted;
+                filter = restored;
+                filterVersion = version;
+            } finally {
+                writeLock.unlock();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring saved URL Bloom filter: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeFilter(String version, DataOutputStream out) throws IOException {
+        writeLock.lock();
+        try {
+            if (filter == null || !version.equals(filterVersion)) {
+                return;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) filter.sizeInBytes() + 16);
+            filter.writeTo(bytes);
+            CatalogSnapshotStore.writeString(out, version);
+            out.writeLong(capacity);
+            out.writeLong(inserted);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private BloomFilter load() {
+        if (!Files.exists(filterPath)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(filterPath)) {
+            BloomFilter loaded = BloomFilter.readFrom(in);
+            logger.info("Loaded URL Bloom filter from {} ({} bytes)", filterPath, loaded.sizeInBytes());
+            return loaded;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable URL Bloom filter at {}: {}", filterPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(BloomFilter bloomFilter) {
+        try {
+            Path parent = filterPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = filterPath.resolveSibling(filterPath.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                bloomFilter.writeTo(out);
+            }
+            // Readers never see a half-written file
+            Files.move(tmp, filterPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to persist URL Bloom filter to {}: {}", filterPath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nexttern.service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.Internship;
+import com.nexttern.repository.InternshipRepository;
+
+/**
+ * Expiry of stale internships.
+ * Ingestion stamps each item with an expiresAt TTL of postedDate plus the retention window, and DynamoDB's TTL
+ * process deletes it some time after that. For explicit cleanups, purgeExpired() removes every item past
+ * its expiry at once: batched deletes for items whose TTL has passed, and tombstones for older items written
+ * without a TTL, which the catalog still holds and has to see go.
+ */
+@Service
+public class InternshipExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipExpiryService.class);
+
+    private final InternshipRepository internshipRepository;
+    private final InternshipCatalogService internshipCatalogService;
+
+    @Value("${internships.retention-days:60}")
+    private long retentionDays;
+
+    public InternshipExpiryService(InternshipRepository internshipRepository, InternshipCatalogService internshipCatalogService) {
+        this.internshipRepository = internshipRepository;
+        this.internshipCatalogService = internshipCatalogService;
+    }
+
+    /**
+     * TTL for a posting: start of its posted day (UTC) plus the retention window
+     * @param postedDate ISO date or date-time; anything unparseable counts as posted today
+     * @return Epoch seconds
+     */
+    public long expiresAt(String postedDate) {
+        LocalDate day = postedDay(postedDate);
+        return (day == null ? LocalDate.now(ZoneOffset.UTC) : day).plusDays(retentionDays).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    /**
+     * Whether expiresAt() can date a posting from this value rather than from today
+     */
+    public boolean isDated(String postedDate) {
+        return postedDay(postedDate) != null;
+    }
+
+    /**
+     * Remove every internship past its expiry now instead of waiting for TTL, then refresh the catalog
+     * @return Number of items removed
+     */
+    @Scheduled(cron = "${internships.purge.cron:-}")
+    public int purgeExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        List<String> expired = new ArrayList<>();
+        List<String> untimed = new ArrayList<>();
+        for (Internship internship : internshipRepository.findAll()) {
+            if (internship.getExpiresAt() != null) {
+                if (internship.getExpiresAt() <= now) {
+                    expired.add(internship.getId());
+                }
+            } else if (expiresAt(internship.getPostedDate()) <= now) {
+                untimed.add(internship.getId());
+            }
+        }
+        if (expired.isEmpty() && untimed.isEmpty()) {
+            return 0;
+        }
+        // The catalog already hides items past their TTL; the others reach it through the updatedAt index
+        int removed = internshipRepository.deleteAllById(expired) + internshipRepository.expireAllById(untimed);
+        logger.info("Purged {} expired internship(s)", removed);
+        internshipCatalogService.refresh();
+        return removed;
+    }
+
+    private static LocalDate postedDay(String postedDate) {
+        if (postedDate != null && postedDate.length() >= 10) {
+            try {
+                return LocalDate.parse(postedDate.substring(0, 10));
+            } catch (DateTimeParseException e) {
+                // Fall through
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,692 @@
+package com.nexttern.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.CompactInternships;
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.dto.FacetCount;
+import com.nexttern.model.dto.SearchResults;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.search.Bm25Index;
+import com.nexttern.search.CompressedBitmap;
+import com.nexttern.search.FacetIndex;
+import com.nexttern.search.FuzzyTermIndex;
+import com.nexttern.search.GeoIndex;
+import com.nexttern.search.LocationNormalizer;
+import com.nexttern.search.TextAnalyzer;
+import com.nexttern.util.InternshipMatcher;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keyword search over the catalog with optional relevance ranking, facets and location filters.
+ * BM25, facet and geo indexes of the distinct (near-duplicate collapsed) internships share the same ordinals.
+ * Ranked queries return the top k by score instead of the first k in scan order; facet, place, province and
+ * radius filters are per-value bitmaps.
+ * Each catalog snapshot is applied as a change rather than a rebuild: internships that left the distinct set are
+ * taken out of the facet and geo bitmaps and masked out of the ordinals, and those that entered get new ordinals
+ * and a small BM25 segment of their own, scored with the main index's statistics, so a streamed change is
+ * searchable as soon as its snapshot is published. More than MAX_SEGMENTS segments are folded into one; once
+ * the internships changed since the main index was built reach a tenth of it, a background merge rebuilds it in
+ * one piece and then applies the snapshots published meanwhile. Spelling correction suggests terms of the main
+ * index, and accepts terms only found in segments as they are.
+ * Everything is saved with the catalog snapshot and reused after a restart, so a restarted instance neither
+ * tokenizes a description nor resolves a location; the BM25 postings are read from the mapped file as queries
+ * need them. A rebuild derives facets and places from the catalog's dictionary-encoded fields, resolving each
+ * distinct value once.
+ */
+@Service
+public class InternshipSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipSearchService.class);
+
+    public static final int FACET_VALUES = 10;
+
+    private static final String SNAPSHOT_SECTION = "search.index";
+
+    // Segments on top of the main index before they are folded into one
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * @param catalog Catalog snapshot the internships are rows of
+     * @param internships By ordinal: the main part in id order, then the internships added since, in batches;
+     *                    null where an internship left or was indexed again under a new ordinal
+     * @param mainIds Id of each ordinal of the main part, including masked ones, to find an ordinal by id
+     * @param segments BM25 of the main part, then one segment per batch added since
+     * @param deltaOrdinals Ordinal of each live internship added after the main part, by id
+     * @param deltaOrder Those ordinals in id order
+     * @param live Number of internships not masked
+     */
+    private record Indexed(String version, CompactInternships catalog, InternshipView[] internships, String[] mainIds,
+                           List<Bm25Index> segments, FacetIndex facets, GeoIndex geo, FuzzyTermIndex terms,
+                           Map<String, Integer> deltaOrdinals, int[] deltaOrder, int live) {
+
+        int ordinalOf(String id) {
+            int doc = Arrays.binarySearch(mainIds, id);
+            if (doc >= 0 && internships[doc] != null) {
+                return doc;
+            }
+            Integer delta = deltaOrdinals.get(id);
+            return delta == null ? -1 : delta;
+        }
+    }
+
+    private final NearDuplicateService nearDuplicateService;
+    private final CatalogSnapshotStore snapshotStore;
+    // Held while indexed is replaced, so a merge cannot lose a change published while it ran
+    private final Object updateLock = new Object();
+    private final AtomicBoolean merging = new AtomicBoolean();
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("search-merge").factory());
+    private volatile Indexed indexed = build("", null, List.of());
+
+    // Registered after NearDuplicateService's listener, so distinct() already reflects the new snapshot
+    public InternshipSearchService(InternshipCatalogService internshipCatalogService, NearDuplicateService nearDuplicateService,
+                                   CatalogSnapshotStore snapshotStore) {
+        this.nearDuplicateService = nearDuplicateService;
+        this.snapshotStore = snapshotStore;
+        snapshotStore.addSection(SNAPSHOT_SECTION, this::writeIndex);
+        internshipCatalogService.addListener(this::rebuild);
+    }
+
+    /**
+     * A search request
+     * @param keyword Trimmed, lower-cased keyword (may be empty)
+     * @param location Free-text location; resolved to a canonical place when the gazetteer knows it,
+     *                 otherwise matched as a lower-cased substring (may be empty)
+     * @param filters Facet name to the exact value required (case-insensitive); unknown facets are ignored
+     * @param near Place the results must be within radiusKm of, or null
+     * @param province Province or territory code or name the results must be in, or null
+     * @param ranked Order by BM25 relevance instead of catalog order; ignored without a keyword
+     * @param withFacets Count matches per facet value
+     * @param limit Maximum number of items returned
+     */
+    public record Query(String keyword, String location, Map<String, String> filters, String near, double radiusKm,
+                        String province, boolean ranked, boolean withFacets, int limit) {
+    }
+
+    /**
+     * Replace misspelled keyword terms with the closest catalog term, so the keyword can be searched as usual.
+     * Terms that occur in the catalog are kept; a misspelled term becomes the nearest term within its edit
+     * distance budget, preferring the one in the most internships.
+     * @param keyword Trimmed, lower-cased keyword
+     * @return The corrected keyword, or the keyword unchanged if every term is known or none can be corrected
+     */
+    public String correct(String keyword) {
+        Indexed current = indexed;
+        FuzzyTermIndex terms = current.terms();
+        List<String> words = TextAnalyzer.tokens(keyword);
+        List<String> corrected = new ArrayList<>(words.size());
+        boolean changed = false;
+        for (String word : words) {
+            if (terms.contains(word) || inSegments(current, word)) {
+                corrected.add(word);
+                continue;
+            }
+            List<FuzzyTermIndex.Match> matches = terms.lookup(word, FuzzyTermIndex.maxDistance(word), 1);
+            if (matches.isEmpty()) {
+                corrected.add(word);
+            } else {
+                corrected.add(matches.get(0).term());
+                changed = true;
+            }
+        }
+        return changed ? String.join(" ", corrected) : keyword;
+    }
+
+    // Whether a segment added since the main index was built has the term
+    private static boolean inSegments(Indexed current, String term) {
+        for (int s = 1; s < current.segments().size(); s++) {
+            if (current.segments().get(s).containsTerm(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Top internships for the keyword, best first
+     * @param keyword Free text; every term that occurs in the catalog contributes to the score
+     * @param location Location, as for Query
+     * @param limit Maximum number of results
+     */
+    public List<InternshipView> search(String keyword, String location, int limit) {
+        return search(new Query(keyword, location, Map.of(), null, 0, null, true, false, limit)).getItems();
+    }
+
+    /**
+     * Search with location, facet and distance filters and, optionally, facet counts over all matches
+     */
+    public SearchResults search(Query query) {
+        Indexed current = indexed;
+        InternshipView[] internships = current.internships();
+        LocationNormalizer normalizer = LocationNormalizer.canada();
+
+        List<CompressedBitmap> required = new ArrayList<>();
+        for (Map.Entry<String, String> filter : query.filters().entrySet()) {
+            if (FacetIndex.FACETS.containsKey(filter.getKey()) && filter.getValue() != null && !filter.getValue().isBlank()) {
+                CompressedBitmap ordinals = current.facets().ordinals(filter.getKey(), filter.getValue());
+                if (ordinals == null) {
+                    return noResults(query);
+                }
+                required.add(ordinals);
+            }
+        }
+        String locationSubstring = "";
+        if (!query.location().isEmpty()) {
+            LocationNormalizer.Place place = normalizer.resolve(query.location());
+            if (place != null) {
+                required.add(current.geo().at(place));
+            } else {
+                locationSubstring = query.location();
+            }
+        }
+        if (query.province() != null && !query.province().isBlank()) {
+            LocationNormalizer.Place province = normalizer.province(query.province());
+            if (province == null) {
+                return noResults(query);
+            }
+            required.add(current.geo().inProvince(province.province()));
+        }
+        if (query.near() != null && !query.near().isBlank()) {
+            LocationNormalizer.Place center = normalizer.resolve(query.near());
+            if (center == null) {
+                return noResults(query);
+            }
+            required.add(current.geo().within(center.latitude(), center.longitude(), query.radiusKm()));
+        }
+
+        String substring = locationSubstring;
+        IntPredicate allowed = doc -> {
+            if (internships[doc] == null) {
+                return false;
+            }
+            for (CompressedBitmap ordinals : required) {
+                if (!ordinals.contains(doc)) {
+                    return false;
+                }
+            }
+            return substring.isEmpty() || InternshipMatcher.matchesLocation(internships[doc], substring);
+        };
+
+        String keyword = query.keyword();
+        int limit = query.limit();
+        boolean withFacets = query.withFacets();
+        List<InternshipView> items = new ArrayList<>();
+        CompressedBitmap matches = withFacets ? new CompressedBitmap() : null;
+        int total;
+        if (query.ranked() && !keyword.isEmpty()) {
+            List<String> terms = TextAnalyzer.tokens(keyword);
+            for (int doc : Bm25Index.search(current.segments(), terms, limit, allowed)) {
+                items.add(internships[doc]);
+            }
+            if (withFacets) {
+                for (Bm25Index segment : current.segments()) {
+                    segment.forEachMatch(terms, doc -> {
+                        if (allowed.test(doc)) {
+                            matches.add(doc);
+                        }
+                    });
+                }
+            }
+            total = withFacets ? matches.cardinality() : items.size();
+        } else if (keyword.isEmpty() && substring.isEmpty() && required.isEmpty()) {
+            // Everything matches: overall counts need no intersection
+            int[] order = idOrder(current, null);
+            int count = order == null ? internships.length : order.length;
+            for (int i = 0; i < count && items.size() < limit; i++) {
+                InternshipView internship = internships[order == null ? i : order[i]];
+                if (internship != null) {
+                    items.add(internship);
+                }
+            }
+            return new SearchResults(items, current.live(), withFacets ? counts(current.facets(), null) : null);
+        } else {
+            total = 0;
+            // With a bitmap filter only its members can match, so scan the smallest one instead of the catalog
+            int[] order = idOrder(current, required.isEmpty() ? null : smallest(required).toArray());
+            int count = order == null ? internships.length : order.length;
+            for (int i = 0; i < count; i++) {
+                int doc = order == null ? i : order[i];
+                if (allowed.test(doc) && InternshipMatcher.matchesKeyword(internships[doc], keyword)) {
+                    total++;
+                    if (items.size() < limit) {
+                        items.add(internships[doc]);
+                    }
+                    if (withFacets) {
+                        matches.add(doc);
+                    } else if (items.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return new SearchResults(items, total, withFacets ? counts(current.facets(), matches) : null);
+    }
+
+    /**
+     * Ordinals in id order, which unranked results are in: the main part's are in it already and the ones added
+     * since are merged in by id. Masked ordinals of the main part are left out.
+     * @param candidates Ordinals in ascending order, or null for all
+     * @return The ordinals, or null when that is every ordinal in ascending order
+     */
+    private static int[] idOrder(Indexed current, int[] candidates) {
+        InternshipView[] internships = current.internships();
+        int mainSize = current.mainIds().length;
+        if (candidates == null && current.deltaOrder().length == 0) {
+            return null;
+        }
+        int split = mainSize;
+        int[] delta = current.deltaOrder();
+        if (candidates != null) {
+            split = Arrays.binarySearch(candidates, mainSize);
+            split = split < 0 ? -split - 1 : split;
+            if (split == candidates.length) {
+                return candidates;
+            }
+            delta = Arrays.stream(candidates, split, candidates.length)
+                .filter(doc -> internships[doc] != null)
+                .boxed()
+                .sorted(Comparator.comparing(doc -> internships[doc].getId()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+        int[] ordered = new int[split + delta.length];
+        int n = 0;
+        int d = 0;
+        for (int i = 0; i < split; i++) {
+            int doc = candidates == null ? i : candidates[i];
+            InternshipView internship = internships[doc];
+            if (internship == null) {
+                continue;
+            }
+            while (d < delta.length && internships[delta[d]].getId().compareTo(internship.getId()) < 0) {
+                ordered[n++] = delta[d++];
+            }
+            ordered[n++] = doc;
+        }
+        while (d < delta.length) {
+            ordered[n++] = delta[d++];
+        }
+        return n == ordered.length ? ordered : Arrays.copyOf(ordered, n);
+    }
+
+    private static CompressedBitmap smallest(List<CompressedBitmap> bitmaps) {
+        CompressedBitmap smallest = bitmaps.get(0);
+        for (CompressedBitmap bitmap : bitmaps) {
+            if (bitmap.cardinality() < smallest.cardinality()) {
+                smallest = bitmap;
+            }
+        }
+        return smallest;
+    }
+
+    private static SearchResults noResults(Query query) {
+        return new SearchResults(List.of(), 0, query.withFacets() ? emptyFacets() : null);
+    }
+
+    private static Map<String, List<FacetCount>> counts(FacetIndex facets, CompressedBitmap matches) {
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        for (String facet : FacetIndex.FACETS.keySet()) {
+            counts.put(facet, facets.counts(facet, matches, FACET_VALUES));
+        }
+        return counts;
+    }
+
+    private static Map<String, List<FacetCount>> emptyFacets() {
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        for (String facet : FacetIndex.FACETS.keySet()) {
+            counts.put(facet, List.of());
+        }
+        return counts;
+    }
+
+    private void rebuild(InternshipCatalogService.Snapshot snapshot) {
+        long started = System.nanoTime();
+        NearDuplicateService.DistinctChanges changes = nearDuplicateService.changes(snapshot);
+        synchronized (updateLock) {
+            Indexed current = indexed;
+            if (changes != null && current.version().equals(changes.since())) {
+                Indexed updated = apply(current, current.segments(), snapshot.version(), snapshot.internships(), changes.left(), changes.entered());
+                if (updated != null) {
+                    indexed = updated;
+                    logger.debug("Search index updated for catalog version {}: {} internships out, {} in, {} segments in {} ms",
+                        snapshot.version(), changes.left().size(), changes.entered().size(), updated.segments().size(),
+                        (System.nanoTime() - started) / 1_000_000);
+                    mergeIfDue(updated);
+                    return;
+                }
+                logger.warn("Search index out of step with the near-duplicate changes for catalog version {}, rebuilding", snapshot.version());
+            }
+        }
+        List<InternshipView> distinct = nearDuplicateService.distinct(snapshot);
+        Indexed restored = restoreIndex(snapshot.version(), snapshot.internships(), distinct);
+        Indexed next = restored != null ? restored : build(snapshot.version(), snapshot.internships(), distinct);
+        synchronized (updateLock) {
+            indexed = next;
+        }
+        logger.info("Search index {} for catalog version {}: {} internships in {} ms", restored != null ? "restored" : "rebuilt",
+            snapshot.version(), distinct.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Every internship in one main part
+    private static Indexed build(String version, CompactInternships catalog, List<InternshipView> distinct) {
+        Bm25Index index = Bm25Index.build(distinct);
+        String[] ids = new String[distinct.size()];
+        for (int doc = 0; doc < ids.length; doc++) {
+            ids[doc] = distinct.get(doc).getId();
+        }
+        return new Indexed(version, catalog, distinct.toArray(new InternshipView[0]), ids, List.of(index), FacetIndex.build(distinct),
+            GeoIndex.build(GeoIndex.placesOf(distinct, LocationNormalizer.canada())), FuzzyTermIndex.build(index.documentFrequencies()),
+            Map.of(), new int[0], distinct.size());
+    }
+
+    /**
+     * The index with internships taken out and others added under new ordinals, leaving the given one as it was
+     * @param segments Segments to keep; the added internships get one more
+     * @param left Internships to take out, by id
+     * @param entered Internships to add, in id order
+     * @return The new index, or null if an internship to take out is not in it or one to add already is
+     */
+    private static Indexed apply(Indexed current, List<Bm25Index> segments, String version, CompactInternships catalog,
+                                 List<InternshipView> left, List<InternshipView> entered) {
+        int first = current.internships().length;
+        InternshipView[] internships = Arrays.copyOf(current.internships(), first + entered.size());
+        Map<String, Integer> deltaOrdinals = new TreeMap<>(current.deltaOrdinals());
+        int[] removed = new int[left.size()];
+        List<InternshipView> removedInternships = new ArrayList<>(left.size());
+        for (int i = 0; i < removed.length; i++) {
+            String id = left.get(i).getId();
+            int doc = current.ordinalOf(id);
+            if (doc < 0 || internships[doc] == null) {
+                return null;
+            }
+            removed[i] = doc;
+            removedInternships.add(internships[doc]);
+            internships[doc] = null;
+            deltaOrdinals.remove(id);
+        }
+        for (int i = 0; i < entered.size(); i++) {
+            String id = entered.get(i).getId();
+            int main = Arrays.binarySearch(current.mainIds(), id);
+            if (deltaOrdinals.containsKey(id) || (main >= 0 && internships[main] != null)) {
+                return null;
+            }
+            internships[first + i] = entered.get(i);
+            deltaOrdinals.put(id, first + i);
+        }
+        if (catalog != null) {
+            remap(internships, current.mainIds().length, deltaOrdinals, catalog);
+        }
+
+        List<Bm25Index> kept = new ArrayList<>(segments);
+        if (!entered.isEmpty()) {
+            kept.add(Bm25Index.build(entered, first, segments.get(0)));
+        }
+        LocationNormalizer normalizer = LocationNormalizer.canada();
+        FacetIndex facets = current.facets().withChanges(removed, removedInternships, first, entered);
+        GeoIndex geo = current.geo().withChanges(removed, GeoIndex.placesOf(removedInternships, normalizer), first,
+            GeoIndex.placesOf(entered, normalizer));
+        int[] deltaOrder = new int[deltaOrdinals.size()];
+        int d = 0;
+        for (int doc : deltaOrdinals.values()) {
+            deltaOrder[d++] = doc;
+        }
+        Indexed updated = new Indexed(version, catalog, internships, current.mainIds(), List.copyOf(kept), facets, geo, current.terms(),
+            deltaOrdinals, deltaOrder, current.live() - removed.length + entered.size());
+        if (updated.segments().size() <= MAX_SEGMENTS) {
+            return updated;
+        }
+        // Fold the segments into one: index the internships they hold again, after the others
+        List<InternshipView> added = new ArrayList<>(deltaOrder.length);
+        for (int doc : deltaOrder) {
+            added.add(internships[doc]);
+        }
+        return apply(updated, List.of(segments.get(0)), version, catalog, added, added);
+    }
+
+    // Point every live ordinal at the catalog's row for its id, so earlier catalog snapshots are not kept reachable
+    private static void remap(InternshipView[] internships, int mainSize, Map<String, Integer> deltaOrdinals, CompactInternships catalog) {
+        int row = 0;
+        for (int doc = 0; doc < mainSize; doc++) {
+            InternshipView internship = internships[doc];
+            if (internship == null) {
+                continue;
+            }
+            while (row < catalog.size() && catalog.get(row).getId().compareTo(internship.getId()) < 0) {
+                row++;
+            }
+            if (row < catalog.size() && catalog.get(row).getId().equals(internship.getId())) {
+                internships[doc] = catalog.get(row);
+            }
+        }
+        for (Map.Entry<String, Integer> delta : deltaOrdinals.entrySet()) {
+            int found = catalog.indexOf(delta.getKey());
+            if (found >= 0) {
+                internships[delta.getValue()] = catalog.get(found);
+            }
+        }
+    }
+
+    // Merge in the background once the internships changed since the main index was built reach a tenth of it
+    private void mergeIfDue(Indexed current) {
+        int added = current.internships().length - current.mainIds().length;
+        int masked = current.internships().length - current.live();
+        if (Math.max(added, masked) * 10L < current.mainIds().length || !merging.compareAndSet(false, true)) {
+            return;
+        }
+        merger.execute(() -> {
+            try {
+                merge(current);
+            } catch (RuntimeException e) {
+                logger.error("Search index merge failed: {}", e.getMessage());
+            } finally {
+                merging.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rebuild the live internships of an index as one main part, then apply what was published since to it
+     */
+    private void merge(Indexed base) {
+        long started = System.nanoTime();
+        List<InternshipView> live = live(base);
+        Indexed merged = build(base.version(), base.catalog(), live);
+        synchronized (updateLock) {
+            Indexed current = indexed;
+            List<InternshipView> latest = live(current);
+            List<InternshipView> left = new ArrayList<>();
+            List<InternshipView> entered = new ArrayList<>();
+            int i = 0;
+            int j = 0;
+            while (i < live.size() || j < latest.size()) {
+                int order = i == live.size() ? 1 : j == latest.size() ? -1 : live.get(i).getId().compareTo(latest.get(j).getId());
+                if (order < 0) {
+                    left.add(live.get(i++));
+                } else if (order > 0) {
+                    entered.add(latest.get(j++));
+                } else {
+                    if (CompactInternships.contentHash(live.get(i)) != CompactInternships.contentHash(latest.get(j))) {
+                        left.add(live.get(i));
+                        entered.add(latest.get(j));
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            Indexed rebased = apply(merged, merged.segments(), current.version(), current.catalog(), left, entered);
+            if (rebased == null) {
+                logger.warn("Search index merge for catalog version {} could not catch up, dropped", base.version());
+                return;
+            }
+            indexed = rebased;
+            logger.info("Search index merged for catalog version {}: {} segments into one, {} internships, in {} ms",
+                current.version(), current.segments().size(), rebased.live(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // The internships an index holds, in id order
+    private static List<InternshipView> live(Indexed current) {
+        int[] order = idOrder(current, null);
+        int count = order == null ? current.internships().length : order.length;
+        List<InternshipView> live = new ArrayList<>(current.live());
+        for (int i = 0; i < count; i++) {
+            InternshipView internship = current.internships()[order == null ? i : order[i]];
+            if (internship != null) {
+                live.add(internship);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Saved as is, segments included: the ids of masked ordinals of the main part, and where each added
+     * internship falls among the distinct internships, so they can be put back on their ordinals without a lookup
+     */
+    private void writeIndex(String version, DataOutputStream out) throws IOException {
+        Indexed current = indexed;
+        if (!current.version().equals(version)) {
+            return;
+        }
+        InternshipView[] internships = current.internships();
+        String[] mainIds = current.mainIds();
+        int[] order = idOrder(current, null);
+        List<InternshipView> live = new ArrayList<>(current.live());
+        int[] ranks = new int[current.deltaOrder().length];
+        int count = order == null ? internships.length : order.length;
+        for (int i = 0, d = 0; i < count; i++) {
+            int doc = order == null ? i : order[i];
+            if (internships[doc] != null) {
+                if (doc >= mainIds.length) {
+                    ranks[d++] = live.size();
+                }
+                live.add(internships[doc]);
+            }
+        }
+        CatalogSnapshotStore.writeString(out, version);
+        out.writeInt(idsHash(live));
+        out.writeInt(internships.length);
+        out.writeInt(mainIds.length);
+        int masked = 0;
+        for (int doc = 0; doc < mainIds.length; doc++) {
+            masked += internships[doc] == null ? 1 : 0;
+        }
+        out.writeInt(masked);
+        for (int doc = 0; doc < mainIds.length; doc++) {
+            if (internships[doc] == null) {
+                out.writeInt(doc);
+                CatalogSnapshotStore.writeString(out, mainIds[doc]);
+            }
+        }
+        out.writeInt(ranks.length);
+        for (int d = 0; d < ranks.length; d++) {
+            out.writeInt(current.deltaOrder()[d]);
+            out.writeInt(ranks[d]);
+        }
+        out.writeInt(current.segments().size());
+        for (Bm25Index segment : current.segments()) {
+            segment.writeTo(out);
+        }
+        current.terms().writeTo(out);
+        current.facets().writeTo(out);
+        current.geo().writeTo(out);
+    }
+
+    // The index saved with the catalog snapshot, if it was built from the same distinct internships
+    private Indexed restoreIndex(String version, CompactInternships catalog, List<InternshipView> distinct) {
+        ByteBuffer saved = snapshotStore.section(SNAPSHOT_SECTION);
+        if (saved == null) {
+            return null;
+        }
+        try {
+            if (!version.equals(CatalogSnapshotStore.readString(saved)) || saved.getInt() != idsHash(distinct)) {
+                return null;
+            }
+            InternshipView[] internships = new InternshipView[saved.getInt()];
+            String[] mainIds = new String[saved.getInt()];
+            boolean[] masked = new boolean[mainIds.length];
+            for (int n = saved.getInt(); n > 0; n--) {
+                int doc = saved.getInt();
+                masked[doc] = true;
+                mainIds[doc] = CatalogSnapshotStore.readString(saved);
+            }
+            int[] deltaOrder = new int[saved.getInt()];
+            int[] ranks = new int[deltaOrder.length];
+            for (int d = 0; d < deltaOrder.length; d++) {
+                deltaOrder[d] = saved.getInt();
+                ranks[d] = saved.getInt();
+            }
+            Map<String, Integer> deltaOrdinals = new TreeMap<>();
+            int main = 0;
+            int d = 0;
+            for (int i = 0; i < distinct.size(); i++) {
+                InternshipView internship = distinct.get(i);
+                if (d < ranks.length && ranks[d] == i) {
+                    internships[deltaOrder[d]] = internship;
+                    deltaOrdinals.put(internship.getId(), deltaOrder[d++]);
+                    continue;
+                }
+                while (main < masked.length && masked[main]) {
+                    main++;
+                }
+                if (main == masked.length) {
+                    return null;
+                }
+                internships[main] = internship;
+                mainIds[main++] = internship.getId();
+            }
+            while (main < masked.length && masked[main]) {
+                main++;
+            }
+            if (main != masked.length || d != ranks.length) {
+                return null;
+            }
+            List<Bm25Index> segments = new ArrayList<>();
+            for (int n = saved.getInt(); n > 0; n--) {
+                segments.add(Bm25Index.readFrom(saved));
+            }
+            if (segments.isEmpty() || segments.get(0).docCount() != mainIds.length) {
+                return null;
+            }
+            FuzzyTermIndex terms = FuzzyTermIndex.readFrom(saved);
+            FacetIndex facets = FacetIndex.readFrom(saved);
+            GeoIndex geo = GeoIndex.readFrom(saved, LocationNormalizer.canada());
+            return new Indexed(version, catalog, internships, mainIds, List.copyOf(segments), facets, geo, terms, deltaOrdinals,
+                deltaOrder, distinct.size());
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring saved search index: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static int idsHash(List<InternshipView> internships) {
+        int hash = 1;
+        for (InternshipView internship : internships) {
+            hash = 31 * hash + Objects.hashCode(internship.getId());
+        }
+        return hash;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        merger.shutdownNow();
+    }
+}
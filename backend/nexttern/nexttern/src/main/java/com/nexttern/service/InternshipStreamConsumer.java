@@ -0,0 +1,457 @@
+package com.nexttern.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreams;
+import com.amazonaws.services.dynamodbv2.model.DescribeStreamRequest;
+import com.amazonaws.services.dynamodbv2.model.ExpiredIteratorException;
+import com.amazonaws.services.dynamodbv2.model.GetRecordsRequest;
+import com.amazonaws.services.dynamodbv2.model.GetRecordsResult;
+import com.amazonaws.services.dynamodbv2.model.GetShardIteratorRequest;
+import com.amazonaws.services.dynamodbv2.model.Record;
+import com.amazonaws.services.dynamodbv2.model.Shard;
+import com.amazonaws.services.dynamodbv2.model.ShardIteratorType;
+import com.amazonaws.services.dynamodbv2.model.StreamDescription;
+import com.amazonaws.services.dynamodbv2.model.StreamRecord;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.TrimmedDataAccessException;
+import com.nexttern.model.Internship;
+import com.nexttern.repository.InternshipRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tails the Internships table's DynamoDB stream and applies inserts, modifications and deletions to the
+ * catalog as they happen, so new postings are searchable within seconds without a scan.
+ * Shards are read in lineage order (a child only after its parent is exhausted) and each poll's records are
+ * applied as one batch; the last applied sequence number per shard is then checkpointed to local disk, so a
+ * restart resumes where it stopped. The first start reads from the tip of the stream, since the catalog is
+ * loaded from the table anyway. When records are lost (the checkpoint is past the 24 hour retention, or the
+ * stream was replaced) the catalog is refreshed from the table instead; the scheduled delta refresh stays
+ * as the backstop either way.
+ */
+@Service
+public class InternshipStreamConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipStreamConsumer.class);
+
+    private static final String TABLE_NAME = "Internships";
+    // "NSC2": each shard also records where it starts without a checkpoint; "NSCP" files did not
+    private static final int CHECKPOINT_MAGIC = 0x4E53_4332;
+    // GetRecords returns at most 1000 records per call
+    private static final int MAX_RECORDS = 1000;
+    private static final long SHARD_REFRESH_MS = 60_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    /**
+     * Read position in one shard
+     */
+    private static final class ShardState {
+        final String id;
+        final String parentId;
+        // Last sequence number applied to the catalog, null before the first record
+        String checkpoint;
+        // Last sequence number read in the current poll, applied with its batch
+        String read;
+        // Where to start when there is no checkpoint
+        ShardIteratorType start;
+        String iterator;
+        boolean exhausted;
+        boolean finished;
+
+        ShardState(String id, String parentId, ShardIteratorType start) {
+            this.id = id;
+            this.parentId = parentId;
+            this.start = start;
+        }
+    }
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final AmazonDynamoDBStreams amazonDynamoDBStreams;
+    private final InternshipRepository internshipRepository;
+    private final InternshipCatalogService internshipCatalogService;
+    private final MeterRegistry meterRegistry;
+    private final Timer lag;
+    private final boolean enabled;
+    private final long pollMs;
+    private final Path checkpointPath;
+    // Only touched by the consumer thread
+    private final Map<String, ShardState> shards = new LinkedHashMap<>();
+    private String streamArn;
+    private long discoveredAt;
+    private volatile Thread thread;
+
+    public InternshipStreamConsumer(AmazonDynamoDB amazonDynamoDB, AmazonDynamoDBStreams amazonDynamoDBStreams,
+                                    InternshipRepository internshipRepository,
+                                    InternshipCatalogService internshipCatalogService, MeterRegistry meterRegistry,
+                                    @Value("${internships.stream.enabled:true}") boolean enabled,
+                                    @Value("${internships.stream.poll-ms:1000}") long pollMs,
+                                    @Value("${internships.stream.checkpoint-path:${java.io.tmpdir}/nexttern-stream.checkpoint}") String checkpointPath) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.amazonDynamoDBStreams = amazonDynamoDBStreams;
+        this.internshipRepository = internshipRepository;
+        this.internshipCatalogService = internshipCatalogService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.pollMs = pollMs;
+        this.checkpointPath = Path.of(checkpointPath);
+        this.lag = Timer.builder("internships.stream.lag")
+            .description("Time from a write to the Internships table until the catalog has queued it; publishing adds up to internships.catalog.apply-ms")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (enabled) {
+            Thread consumer = Thread.ofVirtual().name("internship-stream").unstarted(this::run);
+            thread = consumer;
+            consumer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = thread;
+        thread = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void run() {
+        long backoff = pollMs;
+        while (thread == Thread.currentThread()) {
+            try {
+                boolean read = poll();
+                backoff = pollMs;
+                if (!read) {
+                    Thread.sleep(pollMs);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Internship stream read failed, retrying in {} ms: {}", backoff, e.getMessage());
+                // Re-read anything not applied yet from the checkpoints
+                for (ShardState shard : shards.values()) {
+                    shard.iterator = null;
+                    shard.read = null;
+                    shard.exhausted = false;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Read every readable shard once and apply what was read
+     * @return Whether any records were read
+     */
+    private boolean poll() {
+        if (streamArn == null || System.currentTimeMillis() - discoveredAt >= SHARD_REFRESH_MS) {
+            discover();
+        }
+        if (streamArn == null) {
+            return false;
+        }
+
+        Map<String, Internship> upserted = new LinkedHashMap<>();
+        Set<String> removed = new LinkedHashSet<>();
+        Set<String> missingImages = new LinkedHashSet<>();
+        List<StreamRecord> applied = new ArrayList<>();
+        boolean gap = false;
+        boolean shardEnded = false;
+        for (ShardState shard : new ArrayList<>(shards.values())) {
+            if (shard.finished || !parentFinished(shard)) {
+                continue;
+            }
+            GetRecordsResult result;
+            try {
+                if (shard.iterator == null) {
+                    shard.iterator = iterator(shard);
+                }
+                result = amazonDynamoDBStreams.getRecords(new GetRecordsRequest()
+                    .withShardIterator(shard.iterator)
+                    .withLimit(MAX_RECORDS));
+            } catch (ExpiredIteratorException e) {
+                // Iterators expire after 15 minutes unused; get a new one from the same position next time
+                shard.iterator = null;
+                continue;
+            } catch (TrimmedDataAccessException e) {
+                logger.warn("Internship stream shard {} was trimmed past its checkpoint; refreshing the catalog", shard.id);
+                shard.checkpoint = null;
+                shard.start = ShardIteratorType.TRIM_HORIZON;
+                shard.iterator = null;
+                gap = true;
+                continue;
+            }
+            for (Record record : result.getRecords()) {
+                StreamRecord change = record.getDynamodb();
+                String id = change.getKeys().get("id").getS();
+                if ("REMOVE".equals(record.getEventName())) {
+                    upserted.remove(id);
+                    missingImages.remove(id);
+                    removed.add(id);
+                } else if (change.getNewImage() != null) {
+                    removed.remove(id);
+                    missingImages.remove(id);
+                    upserted.put(id, internshipRepository.fromItem(change.getNewImage()));
+                } else {
+                    // The stream carries keys only; read the item itself
+                    removed.remove(id);
+                    upserted.remove(id);
+                    missingImages.add(id);
+                }
+                meterRegistry.counter("internships.stream.records", "event", record.getEventName()).increment();
+                applied.add(change);
+                shard.read = change.getSequenceNumber();
+            }
+            shard.iterator = result.getNextShardIterator();
+            if (shard.iterator == null) {
+                shard.exhausted = true;
+                shardEnded = true;
+            }
+        }
+
+        if (gap) {
+            internshipCatalogService.refresh();
+        }
+        if (!missingImages.isEmpty()) {
+            Set<String> found = new HashSet<>();
+            for (Internship internship : internshipRepository.findAllById(missingImages)) {
+                upserted.put(internship.getId(), internship);
+                found.add(internship.getId());
+            }
+            for (String id : missingImages) {
+                if (!found.contains(id)) {
+                    removed.add(id);
+                }
+            }
+        }
+        if (!upserted.isEmpty() || !removed.isEmpty()) {
+            internshipCatalogService.apply(upserted.values(), removed);
+            long now = System.currentTimeMillis();
+            for (StreamRecord change : applied) {
+                if (change.getApproximateCreationDateTime() != null) {
+                    lag.record(Duration.ofMillis(Math.max(0, now - change.getApproximateCreationDateTime().getTime())));
+                }
+            }
+            logger.debug("Applied {} internship stream record(s): {} upserted, {} removed",
+                applied.size(), upserted.size(), removed.size());
+        }
+
+        boolean advanced = false;
+        for (ShardState shard : shards.values()) {
+            if (shard.read != null) {
+                shard.checkpoint = shard.read;
+                shard.read = null;
+                advanced = true;
+            }
+            if (shard.exhausted && !shard.finished) {
+                shard.finished = true;
+                advanced = true;
+            }
+        }
+        if (advanced) {
+            saveCheckpoint();
+        }
+        if (shardEnded) {
+            // The children of a closed shard may not be known yet
+            discoveredAt = 0;
+        }
+        return !applied.isEmpty();
+    }
+
+    /**
+     * Find the table's stream and its shards. A stream seen for the first time is picked up from the
+     * checkpoint file if that was written for it; otherwise reading starts at the tip of each open shard.
+     */
+    private void discover() {
+        discoveredAt = System.currentTimeMillis();
+        TableDescription table = amazonDynamoDB.describeTable(TABLE_NAME).getTable();
+        boolean streaming = table.getStreamSpecification() != null
+            && Boolean.TRUE.equals(table.getStreamSpecification().getStreamEnabled());
+        String arn = streaming ? table.getLatestStreamArn() : null;
+        if (arn == null) {
+            if (streamArn != null) {
+                logger.warn("Stream on '{}' is no longer enabled; relying on scheduled catalog refreshes", TABLE_NAME);
+                streamArn = null;
+                shards.clear();
+            }
+            return;
+        }
+
+        boolean initial = false;
+        if (!arn.equals(streamArn)) {
+            shards.clear();
+            boolean resumed = loadCheckpoint(arn);
+            if (!resumed && streamArn != null) {
+                // Records between the old stream and this one were never seen
+                internshipCatalogService.refresh();
+            }
+            initial = !resumed;
+            streamArn = arn;
+            logger.info("Reading internship changes from stream {}{}", arn, resumed ? " from checkpoint" : "");
+        }
+
+        Set<String> live = new HashSet<>();
+        String lastShardId = null;
+        do {
+            StreamDescription description = amazonDynamoDBStreams.describeStream(new DescribeStreamRequest()
+                .withStreamArn(arn)
+                .withExclusiveStartShardId(lastShardId))
+                .getStreamDescription();
+            for (Shard shard : description.getShards()) {
+                live.add(shard.getShardId());
+                if (shards.containsKey(shard.getShardId())) {
+                    continue;
+                }
+                boolean closed = shard.getSequenceNumberRange() != null
+                    && shard.getSequenceNumberRange().getEndingSequenceNumber() != null;
+                // On the first start history is skipped; shards appearing later are read from their beginning
+                ShardState state = new ShardState(shard.getShardId(), shard.getParentShardId(),
+                    initial ? ShardIteratorType.LATEST : ShardIteratorType.TRIM_HORIZON);
+                state.finished = initial && closed;
+                shards.put(state.id, state);
+            }
+            lastShardId = description.getLastEvaluatedShardId();
+        } while (lastShardId != null);
+        // Shards past the retention period are gone from the stream
+        shards.keySet().retainAll(live);
+        if (initial) {
+            saveCheckpoint();
+        }
+    }
+
+    private boolean parentFinished(ShardState shard) {
+        ShardState parent = shard.parentId == null ? null : shards.get(shard.parentId);
+        return parent == null || parent.finished;
+    }
+
+    private String iterator(ShardState shard) {
+        GetShardIteratorRequest request = new GetShardIteratorRequest()
+            .withStreamArn(streamArn)
+            .withShardId(shard.id);
+        if (shard.checkpoint != null) {
+            request.withShardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER).withSequenceNumber(shard.checkpoint);
+        } else {
+            request.withShardIteratorType(shard.start);
+        }
+        return amazonDynamoDBStreams.getShardIterator(request).getShardIterator();
+    }
+
+    private void saveCheckpoint() {
+        try {
+            Path parent = checkpointPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            CRC32C crc = new CRC32C();
+            try (OutputStream file = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc))) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeUTF(streamArn);
+                out.writeInt(shards.size());
+                for (ShardState shard : shards.values()) {
+                    out.writeUTF(shard.id);
+                    writeNullable(out, shard.parentId);
+                    writeNullable(out, shard.checkpoint);
+                    out.writeUTF(shard.start.name());
+                    out.writeBoolean(shard.finished);
+                }
+                out.flush();
+                new DataOutputStream(file).writeInt((int) crc.getValue());
+            }
+            Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to save internship stream checkpoint to {}: {}", checkpointPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Restore shard positions saved for this stream
+     * @return false if there is no usable checkpoint for it
+     */
+    private boolean loadCheckpoint(String arn) {
+        if (!Files.exists(checkpointPath)) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        try (InputStream file = Files.newInputStream(checkpointPath);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("not a stream checkpoint");
+            }
+            String savedArn = in.readUTF();
+            int count = in.readInt();
+            Map<String, ShardState> saved = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                ShardState shard = new ShardState(in.readUTF(), readNullable(in), null);
+                shard.checkpoint = readNullable(in);
+                // A shard without a checkpoint starts where it was going to: the tip when it was first seen on a
+                // first start (the catalog's catch-up refresh covers the downtime), its beginning when it
+                // appeared later
+                shard.start = ShardIteratorType.fromValue(in.readUTF());
+                shard.finished = in.readBoolean();
+                saved.put(shard.id, shard);
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            if (!savedArn.equals(arn)) {
+                logger.info("Ignoring internship stream checkpoint for another stream {}", savedArn);
+                return false;
+            }
+            shards.putAll(saved);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable internship stream checkpoint at {}: {}", checkpointPath, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,258 @@
+package com.nexttern.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.dto.Suggestion;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.search.CompletionTrie;
+import com.nexttern.search.TextAnalyzer;
+
+/**
+ * Typeahead completions for company names, titles and locations.
+ * Distinct values are counted across the distinct internships and indexed under every word start, so
+ * "eng" completes "Software Engineer" as well as "Engineering Intern". With each catalog snapshot the counts are
+ * adjusted for the internships that left or entered the distinct set and the trie is rebuilt from them; it
+ * answers from precomputed per-node results, keeping keystroke traffic off the search path.
+ * The spelling counts are saved with the catalog snapshot, so a restarted instance only rebuilds the trie.
+ */
+@Service
+public class InternshipSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipSuggestService.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final String SNAPSHOT_SECTION = "suggest.spellings";
+
+    // Normalized value ("type:value") -> spelling -> internships with it
+    private record Completions(String version, Map<String, Map<String, Integer>> spellings, CompletionTrie trie,
+                               Suggestion[] suggestions) {
+    }
+
+    private final NearDuplicateService nearDuplicateService;
+    private final CatalogSnapshotStore snapshotStore;
+    private volatile Completions completions = build("", Map.of());
+
+    public InternshipSuggestService(InternshipCatalogService internshipCatalogService, NearDuplicateService nearDuplicateService,
+                                    CatalogSnapshotStore snapshotStore) {
+        this.nearDuplicateService = nearDuplicateService;
+        this.snapshotStore = snapshotStore;
+        snapshotStore.addSection(SNAPSHOT_SECTION, this::writeSpellings);
+        internshipCatalogService.addListener(this::rebuild);
+    }
+
+    /**
+     * Most popular values starting with the typed text at a word boundary
+     * @param query What the user has typed so far
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = normalizePrefix(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Completions current = completions;
+        int[] ordinals = current.trie().complete(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        List<Suggestion> results = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            results.add(current.suggestions()[ordinal]);
+        }
+        return results;
+    }
+
+    private void rebuild(InternshipCatalogService.Snapshot snapshot) {
+        long started = System.nanoTime();
+        NearDuplicateService.DistinctChanges changes = nearDuplicateService.changes(snapshot);
+        Completions current = completions;
+        if (changes != null && current.version().equals(changes.since())) {
+            Map<String, Map<String, Integer>> spellings = new HashMap<>(current.spellings());
+            Set<String> copied = new HashSet<>();
+            adjust(changes.left(), -1, spellings, copied);
+            adjust(changes.entered(), 1, spellings, copied);
+            Completions built = build(snapshot.version(), spellings);
+            completions = built;
+            logger.debug("Suggestion trie rebuilt from updated counts: {} values, {} nodes in {} ms",
+                built.suggestions().length, built.trie().nodeCount(), (System.nanoTime() - started) / 1_000_000);
+            return;
+        }
+        Map<String, Map<String, Integer>> spellings = restoreSpellings(snapshot.version());
+        boolean restored = spellings != null;
+        if (!restored) {
+            List<InternshipView> internships = nearDuplicateService.distinct(snapshot);
+            spellings = new HashMap<>();
+            count(internships, "company", InternshipView::getCompany, spellings);
+            count(internships, "title", InternshipView::getTitle, spellings);
+            count(internships, "location", InternshipView::getLocation, spellings);
+        }
+        Completions built = build(snapshot.version(), spellings);
+        completions = built;
+        logger.info("Suggestion trie rebuilt from {} counts: {} values, {} nodes in {} ms", restored ? "saved" : "fresh",
+            built.suggestions().length, built.trie().nodeCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Spelling counts saved with the catalog snapshot under the same version, or null
+    private Map<String, Map<String, Integer>> restoreSpellings(String version) {
+        ByteBuffer saved = snapshotStore.section(SNAPSHOT_SECTION);
+        if (saved == null) {
+            return null;
+        }
+        try {
+            if (!version.equals(CatalogSnapshotStore.readString(saved))) {
+                return null;
+            }
+            int values = saved.getInt();
+            Map<String, Map<String, Integer>> spellings = new HashMap<>(values * 2);
+            for (int v = 0; v < values; v++) {
+                String normalized = CatalogSnapshotStore.readString(saved);
+                int count = saved.getInt();
+                Map<String, Integer> bySpelling = new HashMap<>(count * 2);
+                for (int s = 0; s < count; s++) {
+                    bySpelling.put(CatalogSnapshotStore.readString(saved), saved.getInt());
+                }
+                spellings.put(normalized, bySpelling);
+            }
+            return spellings;
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring saved suggestion counts: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSpellings(String version, DataOutputStream out) throws IOException {
+        Completions current = completions;
+        if (!current.version().equals(version)) {
+            return;
+        }
+        CatalogSnapshotStore.writeString(out, version);
+        out.writeInt(current.spellings().size());
+        for (Map.Entry<String, Map<String, Integer>> value : current.spellings().entrySet()) {
+            CatalogSnapshotStore.writeString(out, value.getKey());
+            out.writeInt(value.getValue().size());
+            for (Map.Entry<String, Integer> spelling : value.getValue().entrySet()) {
+                CatalogSnapshotStore.writeString(out, spelling.getKey());
+                out.writeInt(spelling.getValue());
+            }
+        }
+    }
+
+    // Most common spelling of each normalized value, and how many internships have it
+    private static Completions build(String version, Map<String, Map<String, Integer>> spellings) {
+        List<Suggestion> suggestions = new ArrayList<>(spellings.size());
+        List<String> keys = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Integer>> entry : spellings.entrySet()) {
+            String display = null;
+            int best = 0, total = 0;
+            for (Map.Entry<String, Integer> spelling : entry.getValue().entrySet()) {
+                total += spelling.getValue();
+                if (spelling.getValue() > best || (spelling.getValue() == best && spelling.getKey().compareTo(display) < 0)) {
+                    display = spelling.getKey();
+                    best = spelling.getValue();
+                }
+            }
+            String type = entry.getKey().substring(0, entry.getKey().indexOf(':'));
+            String normalized = entry.getKey().substring(type.length() + 1);
+            int ordinal = suggestions.size();
+            suggestions.add(new Suggestion(display, type, total));
+            // Index under every word start
+            for (int start = 0; start >= 0; start = nextWord(normalized, start)) {
+                keys.add(normalized.substring(start));
+                values.add(ordinal);
+            }
+        }
+
+        int[] weights = new int[suggestions.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = suggestions.get(i).getCount();
+        }
+        CompletionTrie trie = CompletionTrie.build(keys.toArray(new String[0]),
+            values.stream().mapToInt(Integer::intValue).toArray(), weights, MAX_SUGGESTIONS);
+        return new Completions(version, spellings, trie, suggestions.toArray(new Suggestion[0]));
+    }
+
+    private static void count(List<InternshipView> internships, String type, Function<InternshipView, String> field,
+                              Map<String, Map<String, Integer>> spellings) {
+        // Few distinct spellings repeat across many internships: count them, then normalize each once
+        Map<String, Integer> counts = new HashMap<>();
+        for (InternshipView internship : internships) {
+            String value = field.apply(internship);
+            if (value != null) {
+                counts.merge(value, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> value : counts.entrySet()) {
+            if (value.getKey().isBlank()) {
+                continue;
+            }
+            String normalized = String.join(" ", TextAnalyzer.tokens(value.getKey()));
+            if (!normalized.isEmpty()) {
+                spellings.computeIfAbsent(type + ":" + normalized, k -> new HashMap<>()).merge(value.getKey().trim(), value.getValue(), Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Add the internships' spellings to the counts, or subtract them, copying each value's counts before its
+     * first change so the map they were copied from stays as it was
+     * @param copied Values already copied
+     */
+    private static void adjust(List<InternshipView> internships, int delta, Map<String, Map<String, Integer>> spellings,
+                               Set<String> copied) {
+        for (InternshipView internship : internships) {
+            adjust(internship.getCompany(), "company", delta, spellings, copied);
+            adjust(internship.getTitle(), "title", delta, spellings, copied);
+            adjust(internship.getLocation(), "location", delta, spellings, copied);
+        }
+    }
+
+    private static void adjust(String value, String type, int delta, Map<String, Map<String, Integer>> spellings, Set<String> copied) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String normalized = String.join(" ", TextAnalyzer.tokens(value));
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String key = type + ":" + normalized;
+        Map<String, Integer> bySpelling = spellings.get(key);
+        if (copied.add(key)) {
+            bySpelling = bySpelling == null ? new HashMap<>() : new HashMap<>(bySpelling);
+            spellings.put(key, bySpelling);
+        }
+        if (bySpelling.merge(value.trim(), delta, Integer::sum) <= 0) {
+            bySpelling.remove(value.trim());
+        }
+        if (bySpelling.isEmpty()) {
+            spellings.remove(key);
+            copied.remove(key);
+        }
+    }
+
+    private static int nextWord(String normalized, int start) {
+        int space = normalized.indexOf(' ', start);
+        return space < 0 ? -1 : space + 1;
+    }
+
+    // A trailing separator is kept so "data " does not complete "database"
+    static String normalizePrefix(String query) {
+        if (query == null) {
+            return "";
+        }
+        String normalized = String.join(" ", TextAnalyzer.tokens(query));
+        char last = query.isEmpty() ? 'a' : query.charAt(query.length() - 1);
+        return !normalized.isEmpty() && !Character.isLetterOrDigit(last) ? normalized + " " : normalized;
+    }
+}
@@ -0,0 +1,565 @@
+package com.nexttern.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.CompactInternships;
+import com.nexttern.model.InternshipView;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.search.MinHashIndex;
+
+/**
+ * Groups postings that are the same job listed by several sources under different URLs.
+ * Each internship gets a MinHash signature over its title, company and description; LSH candidates from the
+ * same company whose estimated similarity reaches the threshold join the earlier posting's group. The
+ * earliest posting of a group is its canonical item. Ingestion stores a new posting that already has a
+ * near-duplicate as an alternate, and search and alerts show only canonical items. Groups follow every catalog
+ * snapshot: postings added, edited or removed since the previous one, and the alternates of edited or removed
+ * canonical items, are placed again in posting order, so when a canonical item expires or is removed its earliest
+ * alternate takes its place. What that changed in the distinct internships is published with them (changes()),
+ * so search and suggestions can update in place too.
+ * Signatures are cached by content hash and saved with the catalog snapshot along with the grouping. A restarted
+ * instance takes the saved grouping as it is and leaves the LSH index, which only ingestion needs, to be built
+ * from the saved signatures when ingestion first looks a posting up.
+ */
+@Service
+public class NearDuplicateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateService.class);
+
+    private static final String SIGNATURES_SECTION = "near-duplicate.signatures";
+    private static final String GROUPS_SECTION = "near-duplicate.groups";
+
+    // Past this share of the catalog changing at once, regrouping from scratch costs about the same
+    private static final int MAX_UPDATED_PERCENT = 25;
+
+    private static final Set<String> COMPANY_SUFFIXES = Set.of("inc", "incorporated", "ltd", "limited", "llc", "corp", "corporation", "co", "company", "ulc", "lp");
+
+    private record CachedSignature(long contentHash, int[] signature) {
+    }
+
+    /**
+     * How distinct() changed from one catalog snapshot to the next; an internship edited while distinct is in both
+     * @param since Version of the previous snapshot
+     * @param left Internships no longer distinct or since edited, as they were, in id order
+     * @param entered Internships newly distinct or edited, as rows of the new snapshot, in id order
+     */
+    public record DistinctChanges(String since, List<InternshipView> left, List<InternshipView> entered) {
+    }
+
+    /**
+     * @param internships Catalog the grouping was built from, or null before the first one
+     * @param index Signatures of the catalog's and the registered postings; null until built after a restore
+     * @param registered Postings stored since the catalog was published
+     * @param canonicalById Canonical id of every alternate; canonical postings are not listed
+     * @param changes Changes from the previous grouping, or null if this one was rebuilt or restored
+     */
+    private record Groups(String version, CompactInternships internships, MinHashIndex index, Map<String, InternshipView> registered,
+                          Map<String, String> canonicalById, List<InternshipView> distinct, DistinctChanges changes) {
+
+        InternshipView byId(String id) {
+            InternshipView registeredPosting = registered.get(id);
+            if (registeredPosting != null || internships == null) {
+                return registeredPosting;
+            }
+            int row = internships.indexOf(id);
+            return row < 0 ? null : internships.get(row);
+        }
+
+        Groups withIndex(MinHashIndex built) {
+            return new Groups(version, internships, built, registered, canonicalById, distinct, changes);
+        }
+    }
+
+    // A posting with its sort key read once: a catalog row formats its postedDate on every call
+    private record Dated(String postedDate, String id, InternshipView internship) {
+    }
+
+    // Oldest first, so the canonical item is the one that was posted first
+    private static final Comparator<Dated> CANONICAL_ORDER = Comparator
+        .comparing(Dated::postedDate, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Dated::id, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final double threshold;
+    private final CatalogSnapshotStore snapshotStore;
+    // Signatures survive catalog refreshes, so only new or edited postings are re-hashed
+    private final Map<String, CachedSignature> signatureCache = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Groups groups = new Groups("", null, new MinHashIndex(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), List.of(), null);
+
+    public NearDuplicateService(InternshipCatalogService internshipCatalogService, CatalogSnapshotStore snapshotStore,
+                                @Value("${internships.near-duplicate.threshold:0.8}") double threshold) {
+        this.threshold = threshold;
+        this.snapshotStore = snapshotStore;
+        snapshotStore.addSection(SIGNATURES_SECTION, (version, out) -> writeSignatures(out));
+        snapshotStore.addSection(GROUPS_SECTION, this::writeGroups);
+        internshipCatalogService.addListener(this::rebuild);
+    }
+
+    /**
+     * The snapshot's internships without non-canonical near-duplicates
+     */
+    public List<InternshipView> distinct(InternshipCatalogService.Snapshot snapshot) {
+        Groups current = groups;
+        if (current.version().equals(snapshot.version())) {
+            return current.distinct();
+        }
+        // Grouping for this snapshot is still being built; use the previous grouping
+        return keepCanonical(snapshot.internships(), current.canonicalById());
+    }
+
+    /**
+     * How distinct() changed with this snapshot, for listeners that update their own structures in place
+     * @return The changes, or null if the grouping for the snapshot was rebuilt or restored rather than updated
+     */
+    public DistinctChanges changes(InternshipCatalogService.Snapshot snapshot) {
+        Groups current = groups;
+        return current.version().equals(snapshot.version()) ? current.changes() : null;
+    }
+
+    /**
+     * Drop alternates of a canonical posting, preserving order. They are dropped even when the canonical posting
+     * is not in the list: it was stored before them, so they are not new.
+     */
+    public List<InternshipView> collapse(List<InternshipView> internships) {
+        List<InternshipView> distinct = new ArrayList<>(internships.size());
+        for (InternshipView internship : internships) {
+            if (!isDuplicate(internship.getId())) {
+                distinct.add(internship);
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Id of the canonical posting of the given posting's group; the id itself if it is canonical or unknown
+     */
+    public String canonicalOf(String id) {
+        return groups.canonicalById().getOrDefault(id, id);
+    }
+
+    /**
+     * Whether a posting is an alternate of another posting's group rather than a canonical item
+     */
+    public boolean isDuplicate(String id) {
+        String canonical = groups.canonicalById().get(id);
+        return canonical != null && !canonical.equals(id);
+    }
+
+    /**
+     * Find a stored posting that is a near-duplicate of the given one
+     * @return The canonical stored posting, or null if there is none
+     */
+    public InternshipView findNearDuplicate(InternshipView internship) {
+        int[] signature = signature(internship);
+        lock.lock();
+        try {
+            Groups current = indexed();
+            String match = bestMatch(current, internship, signature);
+            if (match == null) {
+                return null;
+            }
+            return current.byId(current.canonicalById().getOrDefault(match, match));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a newly stored posting so later postings in the same ingestion run are compared against it
+     */
+    public void register(InternshipView internship) {
+        int[] signature = signature(internship);
+        lock.lock();
+        try {
+            Groups current = indexed();
+            current.index().add(internship.getId(), signature);
+            current.registered().put(internship.getId(), internship);
+            current.canonicalById().remove(internship.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a newly stored alternate of a canonical posting found by findNearDuplicate()
+     */
+    public void registerDuplicate(InternshipView internship, InternshipView canonical) {
+        int[] signature = signature(internship);
+        lock.lock();
+        try {
+            Groups current = indexed();
+            current.index().add(internship.getId(), signature);
+            current.registered().put(internship.getId(), internship);
+            current.canonicalById().put(internship.getId(), canonical.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuild(InternshipCatalogService.Snapshot snapshot) {
+        long started = System.nanoTime();
+        CompactInternships internships = snapshot.internships();
+        InternshipCatalogService.Changes changes = snapshot.changes();
+        Groups current = groups;
+        if (changes != null && current.internships() != null && current.version().equals(changes.since())
+                && (long) (changes.added().size() + changes.changed().size() + changes.removed().size()) * 100
+                    <= (long) internships.size() * MAX_UPDATED_PERCENT) {
+            DistinctChanges distinctChanges = update(snapshot);
+            logger.debug("Near-duplicate groups updated for catalog version {}: {} left and {} entered the distinct internships in {} ms",
+                snapshot.version(), distinctChanges.left().size(), distinctChanges.entered().size(), (System.nanoTime() - started) / 1_000_000);
+            return;
+        }
+        // Saved with the catalog snapshot this version was restored from: no need to compare candidates again
+        Map<String, String> savedDuplicates = restoreGroups(snapshot.version());
+        if (savedDuplicates != null) {
+            Map<String, String> canonicalById = new ConcurrentHashMap<>(savedDuplicates);
+            // The LSH index is left to the first ingestion lookup that needs it
+            publish(new Groups(snapshot.version(), internships, null, new ConcurrentHashMap<>(), canonicalById,
+                keepCanonical(internships, canonicalById), null));
+            logger.info("Near-duplicate groups restored for catalog version {}: {} alternates in {} ms",
+                snapshot.version(), canonicalById.size(), (System.nanoTime() - started) / 1_000_000);
+            return;
+        }
+        if (signatureCache.isEmpty()) {
+            restoreSignatures();
+        }
+
+        // Concurrent maps: register() adds to them while requests read them
+        Groups next = new Groups(snapshot.version(), internships, new MinHashIndex(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), List.of(), null);
+        for (InternshipView internship : canonicalOrder(internships)) {
+            int[] signature = signature(internship);
+            String match = bestMatch(next, internship, signature);
+            if (match != null) {
+                next.canonicalById().put(internship.getId(), next.canonicalById().getOrDefault(match, match));
+            }
+            next.index().add(internship.getId(), signature);
+        }
+        signatureCache.keySet().removeIf(id -> internships.indexOf(id) < 0);
+
+        publish(new Groups(next.version(), internships, next.index(), next.registered(), next.canonicalById(),
+            keepCanonical(internships, next.canonicalById()), null));
+        logger.info("Near-duplicate groups rebuilt for catalog version {}: {} alternates in {} ms",
+            snapshot.version(), next.canonicalById().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Regroup only what the snapshot's changes touch: its added, edited and removed postings, postings registered
+     * by ingestion that the catalog now holds, and the alternates of any of them. They are taken out of the index
+     * and placed again in canonical order; one posted before the canonical item of the group it joins takes the
+     * group over, as it would have in a full rebuild.
+     */
+    private DistinctChanges update(InternshipCatalogService.Snapshot snapshot) {
+        InternshipCatalogService.Changes changes = snapshot.changes();
+        CompactInternships internships = snapshot.internships();
+        lock.lock();
+        try {
+            Groups previous = indexed();
+            Map<String, String> before = previous.canonicalById();
+            Set<String> touched = new HashSet<>(changes.removed());
+            Set<String> edited = new HashSet<>();
+            for (InternshipView internship : changes.added()) {
+                touched.add(internship.getId());
+            }
+            for (InternshipView internship : changes.changed()) {
+                touched.add(internship.getId());
+                edited.add(internship.getId());
+            }
+            Map<String, InternshipView> registered = new ConcurrentHashMap<>();
+            for (Map.Entry<String, InternshipView> posting : previous.registered().entrySet()) {
+                if (internships.indexOf(posting.getKey()) >= 0) {
+                    touched.add(posting.getKey());
+                } else {
+                    registered.put(posting.getKey(), posting.getValue());
+                }
+            }
+            Set<String> orphans = new HashSet<>();
+            for (Map.Entry<String, String> duplicate : before.entrySet()) {
+                if (touched.contains(duplicate.getValue()) && !touched.contains(duplicate.getKey())) {
+                    orphans.add(duplicate.getKey());
+                }
+            }
+
+            // The index is only used under the lock, so it is updated in place; readers keep the previous map
+            MinHashIndex index = previous.index();
+            Map<String, String> canonicalById = new ConcurrentHashMap<>(before);
+            Groups next = new Groups(snapshot.version(), internships, index, registered, canonicalById, List.of(), null);
+            List<InternshipView> placing = new ArrayList<>();
+            for (String id : touched) {
+                index.remove(id);
+                canonicalById.remove(id);
+                int row = internships.indexOf(id);
+                if (row >= 0) {
+                    placing.add(internships.get(row));
+                }
+            }
+            for (String id : orphans) {
+                index.remove(id);
+                canonicalById.remove(id);
+                InternshipView orphan = next.byId(id);
+                if (orphan != null) {
+                    placing.add(orphan);
+                }
+            }
+            Set<String> takenOver = new HashSet<>();
+            for (InternshipView internship : canonicalOrder(placing)) {
+                int[] signature = signature(internship);
+                String match = bestMatch(next, internship, signature);
+                if (match != null) {
+                    String canonical = canonicalById.getOrDefault(match, match);
+                    InternshipView held = next.byId(canonical);
+                    if (held != null && CANONICAL_ORDER.compare(dated(internship), dated(held)) < 0) {
+                        canonicalById.replaceAll((id, c) -> c.equals(canonical) ? internship.getId() : c);
+                        canonicalById.put(canonical, internship.getId());
+                        takenOver.add(canonical);
+                    } else {
+                        canonicalById.put(internship.getId(), canonical);
+                    }
+                }
+                index.add(internship.getId(), signature);
+            }
+            changes.removed().forEach(signatureCache::remove);
+
+            // Only the postings placed again, and canonical items that lost their group, can change distinct()
+            Set<String> affected = new HashSet<>(touched);
+            affected.addAll(orphans);
+            affected.addAll(takenOver);
+            CompactInternships held = previous.internships();
+            List<InternshipView> left = new ArrayList<>();
+            List<InternshipView> entered = new ArrayList<>();
+            for (String id : affected) {
+                int oldRow = held.indexOf(id);
+                int newRow = internships.indexOf(id);
+                boolean was = oldRow >= 0 && !isAlternate(before, id);
+                boolean is = newRow >= 0 && !isAlternate(canonicalById, id);
+                if (was && (!is || edited.contains(id))) {
+                    left.add(held.get(oldRow));
+                }
+                if (is && (!was || edited.contains(id))) {
+                    entered.add(internships.get(newRow));
+                }
+            }
+            left.sort(Comparator.comparing(InternshipView::getId));
+            entered.sort(Comparator.comparing(InternshipView::getId));
+            DistinctChanges distinctChanges = new DistinctChanges(changes.since(), List.copyOf(left), List.copyOf(entered));
+            groups = new Groups(snapshot.version(), internships, index, registered, canonicalById,
+                keepCanonical(internships, canonicalById), distinctChanges);
+            return distinctChanges;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isAlternate(Map<String, String> canonicalById, String id) {
+        String canonical = canonicalById.get(id);
+        return canonical != null && !canonical.equals(id);
+    }
+
+    private static Dated dated(InternshipView internship) {
+        return new Dated(internship.getPostedDate(), internship.getId(), internship);
+    }
+
+    private void publish(Groups built) {
+        lock.lock();
+        try {
+            groups = built;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The current grouping with its LSH index, building the index first if the grouping was restored without
+     * one. Callers hold the lock.
+     */
+    private Groups indexed() {
+        Groups current = groups;
+        if (current.index() != null) {
+            return current;
+        }
+        long started = System.nanoTime();
+        if (signatureCache.isEmpty()) {
+            restoreSignatures();
+        }
+        MinHashIndex index = new MinHashIndex();
+        for (InternshipView internship : current.internships()) {
+            index.add(internship.getId(), signature(internship));
+        }
+        current = current.withIndex(index);
+        groups = current;
+        logger.info("Near-duplicate index built for catalog version {}: {} signatures in {} ms",
+            current.version(), index.size(), (System.nanoTime() - started) / 1_000_000);
+        return current;
+    }
+
+    private static List<InternshipView> canonicalOrder(List<InternshipView> internships) {
+        List<Dated> dated = new ArrayList<>(internships.size());
+        for (InternshipView internship : internships) {
+            dated.add(dated(internship));
+        }
+        dated.sort(CANONICAL_ORDER);
+        List<InternshipView> ordered = new ArrayList<>(dated.size());
+        for (Dated d : dated) {
+            ordered.add(d.internship());
+        }
+        return ordered;
+    }
+
+    private String bestMatch(Groups in, InternshipView internship, int[] signature) {
+        String company = normalizeCompany(internship.getCompany());
+        String best = null;
+        double bestSimilarity = threshold;
+        for (String candidate : in.index().candidates(signature)) {
+            if (candidate.equals(internship.getId())) {
+                continue;
+            }
+            InternshipView other = in.byId(candidate);
+            String otherCompany = other == null ? "" : normalizeCompany(other.getCompany());
+            if (!company.isEmpty() && !otherCompany.isEmpty() && !company.equals(otherCompany)) {
+                continue;
+            }
+            double similarity = MinHashIndex.similarity(signature, in.index().signatureOf(candidate));
+            if (similarity >= bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    private int[] signature(InternshipView internship) {
+        long contentHash = CompactInternships.contentHash(internship);
+        if (internship.getId() != null) {
+            CachedSignature cached = signatureCache.get(internship.getId());
+            if (cached != null && cached.contentHash() == contentHash) {
+                return cached.signature();
+            }
+        }
+        int[] signature = MinHashIndex.signature(Objects.toString(internship.getTitle(), "") + "\n"
+            + Objects.toString(internship.getCompany(), "") + "\n"
+            + Objects.toString(internship.getDescription(), ""));
+        if (internship.getId() != null) {
+            signatureCache.put(internship.getId(), new CachedSignature(contentHash, signature));
+        }
+        return signature;
+    }
+
+    private void writeSignatures(DataOutputStream out) throws IOException {
+        // Restored groups leave the signatures in the loaded file until ingestion needs them
+        if (signatureCache.isEmpty()) {
+            restoreSignatures();
+        }
+        List<Map.Entry<String, CachedSignature>> entries = new ArrayList<>(signatureCache.entrySet());
+        out.writeInt(entries.size());
+        for (Map.Entry<String, CachedSignature> entry : entries) {
+            CatalogSnapshotStore.writeString(out, entry.getKey());
+            out.writeLong(entry.getValue().contentHash());
+            int[] signature = entry.getValue().signature();
+            out.writeInt(signature.length);
+            for (int value : signature) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    // Entries are checked against the content hash on use, so signatures from any catalog version are safe
+    private void restoreSignatures() {
+        ByteBuffer saved = snapshotStore.section(SIGNATURES_SECTION);
+        if (saved == null) {
+            return;
+        }
+        try {
+            for (int n = saved.getInt(); n > 0; n--) {
+                String id = CatalogSnapshotStore.readString(saved);
+                long contentHash = saved.getLong();
+                int[] signature = new int[saved.getInt()];
+                saved.asIntBuffer().get(signature);
+                saved.position(saved.position() + signature.length * Integer.BYTES);
+                signatureCache.put(id, new CachedSignature(contentHash, signature));
+            }
+        } catch (RuntimeException e) {
+            signatureCache.clear();
+            logger.warn("Ignoring saved MinHash signatures: {}", e.getMessage());
+        }
+    }
+
+    // Only the alternates; every other posting is its own canonical item
+    private void writeGroups(String version, DataOutputStream out) throws IOException {
+        Groups current = groups;
+        if (!current.version().equals(version)) {
+            return;
+        }
+        List<Map.Entry<String, String>> duplicates = new ArrayList<>(current.canonicalById().entrySet());
+        CatalogSnapshotStore.writeString(out, version);
+        out.writeInt(duplicates.size());
+        for (Map.Entry<String, String> duplicate : duplicates) {
+            CatalogSnapshotStore.writeString(out, duplicate.getKey());
+            CatalogSnapshotStore.writeString(out, duplicate.getValue());
+        }
+    }
+
+    /**
+     * @return Duplicate id to canonical id as saved for this catalog version, or null if there is no such grouping
+     */
+    private Map<String, String> restoreGroups(String version) {
+        ByteBuffer saved = snapshotStore.section(GROUPS_SECTION);
+        if (saved == null) {
+            return null;
+        }
+        try {
+            if (!version.equals(CatalogSnapshotStore.readString(saved))) {
+                return null;
+            }
+            int count = saved.getInt();
+            Map<String, String> duplicates = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                duplicates.put(CatalogSnapshotStore.readString(saved), CatalogSnapshotStore.readString(saved));
+            }
+            return duplicates;
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring saved near-duplicate groups: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<InternshipView> keepCanonical(List<InternshipView> internships, Map<String, String> canonicalById) {
+        List<InternshipView> distinct = new ArrayList<>(internships.size());
+        for (InternshipView internship : internships) {
+            String canonical = canonicalById.get(internship.getId());
+            if (canonical == null || canonical.equals(internship.getId())) {
+                distinct.add(internship);
+            }
+        }
+        return List.copyOf(distinct);
+    }
+
+    static String normalizeCompany(String company) {
+        if (company == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder();
+        for (String word : company.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !COMPANY_SUFFIXES.contains(word)) {
+                normalized.append(word);
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.nexttern.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.InternshipView;
+import com.nexttern.model.Profile;
+import com.nexttern.model.Subscription;
+import com.nexttern.model.dto.ProfileOverview;
+import com.nexttern.util.InternshipMatcher;
+import com.nexttern.util.ParallelLookups;
+
+/**
+ * Builds the signed-in user's dashboard: profile, keyword subscriptions and the catalog internships they match.
+ * The profile (Postgres) and subscriptions (Supabase REST) are independent remote lookups, so they load in
+ * parallel under one deadline; matching runs against the in-memory catalog once the subscriptions are in.
+ */
+@Service
+public class ProfileOverviewService {
+
+    public static final int MAX_MATCHES = 50;
+
+    private final ProfileService profileService;
+    private final UserService userService;
+    private final InternshipCatalogService catalogService;
+    private final NearDuplicateService nearDuplicateService;
+
+    @Value("${profile.overview.timeout-ms:5000}")
+    private long timeoutMs;
+
+    public ProfileOverviewService(ProfileService profileService, UserService userService,
+                                  InternshipCatalogService catalogService, NearDuplicateService nearDuplicateService) {
+        this.profileService = profileService;
+        this.userService = userService;
+        this.catalogService = catalogService;
+        this.nearDuplicateService = nearDuplicateService;
+    }
+
+    /**
+     * @param userId The Supabase user ID
+     * @throws IllegalStateException if a lookup failed or did not finish within profile.overview.timeout-ms
+     */
+    public ProfileOverview overview(String userId) {
+        Profile profile;
+        List<Subscription> subscriptions;
+        try (ParallelLookups scope = ParallelLookups.open(Duration.ofMillis(timeoutMs))) {
+            Supplier<Profile> profileLookup = scope.fork(() -> profileService.getProfile(userId));
+            Supplier<List<Subscription>> subscriptionLookup = scope.fork(() -> userService.getUserSubscriptions(userId));
+            scope.join();
+            profile = profileLookup.get();
+            subscriptions = subscriptionLookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the profile overview", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to load the profile overview: " + e.getMessage(), e);
+        }
+        return new ProfileOverview(profile, subscriptions, matching(subscriptions));
+    }
+
+    private List<InternshipView> matching(List<Subscription> subscriptions) {
+        List<String> keywords = new ArrayList<>(subscriptions.size());
+        for (Subscription subscription : subscriptions) {
+            String keyword = subscription.getKeyword() == null ? "" : subscription.getKeyword().trim().toLowerCase();
+            if (!keyword.isEmpty()) {
+                keywords.add(keyword);
+            }
+        }
+        List<InternshipView> matches = new ArrayList<>();
+        if (keywords.isEmpty()) {
+            return matches;
+        }
+        for (InternshipView internship : nearDuplicateService.distinct(catalogService.current())) {
+            for (String keyword : keywords) {
+                if (InternshipMatcher.matchesKeyword(internship, keyword)) {
+                    matches.add(internship);
+                    break;
+                }
+            }
+            if (matches.size() == MAX_MATCHES) {
+                break;
+            }
+        }
+        return matches;
+    }
+}
@@ -1,19 +1,57 @@
 package com.nexttern.service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.nexttern.model.Profile;
 import com.nexttern.repository.ProfileRepository;
 
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Profiles, read through a local cache.
+ * Every write to the profiles table evicts the cached entry on every replica through CacheInvalidationBus,
+ * including the frontend's direct Supabase writes, since a trigger on the table publishes the invalidation.
+ * Entries also expire after profiles.cache.ttl-ms in case an invalidation is lost. Missing profiles are not
+ * cached: one created by sign-up is served as soon as it exists.
+ */
 @Service
 public class ProfileService {
 
+    /** CacheInvalidationBus cache name; keys are user ids */
+    public static final String CACHE = "profile";
+
+    private record Cached(Profile profile, long loadedAt) {
+    }
+
     @Autowired
     private ProfileRepository profileRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${profiles.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    @Value("${profiles.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private final Map<UUID, Cached> cache = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a read that raced with a write does not cache what it read
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void subscribe() {
+        cacheInvalidationBus.subscribe(CACHE, this::evictLocal);
+        cacheInvalidationBus.invalidateOnWrite(CACHE, "profiles", "id");
+    }
     
     /**
      * Get a user's profile by their ID
@@ -23,7 +61,20 @@ public class ProfileService {
     public Profile getProfile(String userId) {
         try {
             UUID userUuid = UUID.fromString(userId);
-            return profileRepository.findById(userUuid).orElse(null);
+            long now = System.currentTimeMillis();
+            Cached cached = cache.get(userUuid);
+            if (cached != null && now - cached.loadedAt() < cacheTtlMs) {
+                return cached.profile();
+            }
+            long generation = evictions.get();
+            Profile profile = profileRepository.findById(userUuid).orElse(null);
+            if (profile != null && evictions.get() == generation) {
+                if (cache.size() >= cacheMaxEntries) {
+                    cache.clear();
+                }
+                cache.put(userUuid, new Cached(profile, now));
+            }
+            return profile;
         } catch (IllegalArgumentException e) {
             // Log the error
             System.err.println("Invalid UUID format: " + userId);
@@ -43,7 +94,9 @@ public class ProfileService {
         }
         profile.setUpdatedAt(LocalDateTime.now());
         
-        return profileRepository.save(profile);
+        Profile saved = profileRepository.save(profile);
+        evict(saved.getId().toString());
+        return saved;
     }
     
     /**
@@ -62,7 +115,9 @@ public class ProfileService {
                 profileData.setId(userUuid);
                 profileData.setCreatedAt(LocalDateTime.now());
                 profileData.setUpdatedAt(LocalDateTime.now());
-                return profileRepository.save(profileData);
+                Profile created = profileRepository.save(profileData);
+                evict(userId);
+                return created;
             }
             
             // Update only non-null fields
@@ -80,11 +135,35 @@ public class ProfileService {
             }
             
             existingProfile.setUpdatedAt(LocalDateTime.now());
-            return profileRepository.save(existingProfile);
+            Profile updated = profileRepository.save(existingProfile);
+            evict(userId);
+            return updated;
         } catch (IllegalArgumentException e) {
             // Log the error
             System.err.println("Invalid UUID format: " + userId);
             return null;
         }
     }
+
+    /**
+     * Drop a user's cached profile on every replica, for writes that bypass this service
+     * @param userId The Supabase user ID as string
+     */
+    public void evict(String userId) {
+        cacheInvalidationBus.invalidate(CACHE, userId);
+    }
+
+    // Null clears the whole cache
+    private void evictLocal(String userId) {
+        evictions.incrementAndGet();
+        if (userId == null) {
+            cache.clear();
+            return;
+        }
+        try {
+            cache.remove(UUID.fromString(userId));
+        } catch (IllegalArgumentException e) {
+            // Not a key this cache holds
+        }
+    }
 }
@@ -1,8 +1,16 @@
 package com.nexttern.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexttern.config.GeminiConfig;
 import com.nexttern.model.dto.ProjectRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct; 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource; 
 import org.springframework.core.io.ResourceLoader; 
@@ -27,19 +35,29 @@ import java.util.Map;
 @Service
 public class ProjectGeneratorService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProjectGeneratorService.class);
+
     private final WebClient webClient;
     private final GeminiConfig geminiConfig;
     private final ResourceLoader resourceLoader; 
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
 
     private String systemPrompt;
 
     @Autowired
     public ProjectGeneratorService(
         GeminiConfig geminiConfig,
-        ResourceLoader resourceLoader 
+        ResourceLoader resourceLoader,
+        WebClient.Builder webClientBuilder,
+        MeterRegistry meterRegistry,
+        ObjectMapper objectMapper
     ) {
         this.geminiConfig = geminiConfig;
-        this.webClient = WebClient.builder()
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        // The auto-configured builder records http.client.requests and propagates trace context
+        this.webClient = webClientBuilder
             .baseUrl(geminiConfig.getBaseUrl())
             .clientConnector(new ReactorClientHttpConnector(
                 HttpClient.create().responseTimeout(Duration.ofSeconds(60))
@@ -79,11 +97,55 @@ public class ProjectGeneratorService {
         contents.add(userPart);
         body.put("contents", contents);
 
-        return webClient.post()
-                .uri(url)
-                .bodyValue(body)
-                .retrieve()
-                .bodyToMono(String.class);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return webClient.post()
+                    .uri(url)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .doOnSuccess(response -> {
+                        sample.stop(generateTimer("success"));
+                        recordTokenUsage(response);
+                    })
+                    .doOnError(e -> sample.stop(generateTimer("error")));
+        });
+    }
+
+    private Timer generateTimer(String outcome) {
+        return Timer.builder("gemini.generate")
+                .description("Gemini generateContent latency")
+                .tag("model", geminiConfig.getModel())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Token counts come from the usageMetadata block of the generateContent response
+    private void recordTokenUsage(String response) {
+        if (response == null) {
+            return;
+        }
+        try {
+            JsonNode usage = objectMapper.readTree(response).path("usageMetadata");
+            recordTokens("prompt", usage.path("promptTokenCount"));
+            recordTokens("candidates", usage.path("candidatesTokenCount"));
+            recordTokens("total", usage.path("totalTokenCount"));
+        } catch (JsonProcessingException e) {
+            logger.debug("Could not read Gemini usage metadata: {}", e.getMessage());
+        }
+    }
+
+    private void recordTokens(String type, JsonNode count) {
+        if (count.isNumber()) {
+            DistributionSummary.builder("gemini.tokens")
+                    .description("Tokens per Gemini generateContent call")
+                    .baseUnit("tokens")
+                    .tag("model", geminiConfig.getModel())
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .record(count.asLong());
+        }
     }
 
     // hashPrompt and all prompt cache logic removed.
@@ -0,0 +1,251 @@
+package com.nexttern.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.nexttern.model.CompactInternships;
+import com.nexttern.model.InternshipView;
+import com.nexttern.repository.CatalogSnapshotStore;
+import com.nexttern.search.HnswIndex;
+import com.nexttern.search.TfIdfVectorizer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * "Similar internships" by nearest-neighbour search over TF-IDF vectors.
+ * Distinct internships are vectorized locally and added to an HNSW graph as they appear in the catalog;
+ * edited postings get a new node and removed ones are tombstoned. An alternate near-duplicate posting is
+ * answered with its canonical posting's neighbours. Updates run on a background thread so a
+ * catalog refresh is never held up, and the graph is rebuilt from scratch (refitting IDF) once tombstones
+ * or growth make the old one a poor fit. The graph and its IDF are saved with the catalog snapshot; a restarted
+ * instance reads them back and only adds what changed since, instead of vectorizing the whole catalog again.
+ */
+@Service
+public class SimilarInternshipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarInternshipService.class);
+
+    private static final int M = 12;
+    private static final int EF_CONSTRUCTION = 64;
+    private static final int EF_SEARCH = 64;
+
+    private static final String SNAPSHOT_SECTION = "similar.graph";
+
+    // Any edit re-vectorizes the posting: comparing content hashes needs no description inflated
+    private record Node(InternshipView internship, long contentHash) {
+    }
+
+    private record SavedNode(String id, int node, long contentHash) {
+    }
+
+    private record Graph(TfIdfVectorizer vectorizer, HnswIndex index, Map<String, Integer> nodeById, Map<Integer, Node> nodes) {
+    }
+
+    private final NearDuplicateService nearDuplicateService;
+    private final CatalogSnapshotStore snapshotStore;
+    private final int dimensions;
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("similar-index").factory());
+    private final AtomicReference<InternshipCatalogService.Snapshot> pending = new AtomicReference<>();
+    private volatile InternshipCatalogService.Snapshot catalog;
+    private volatile Graph graph;
+    private volatile String indexedVersion;
+
+    public SimilarInternshipService(InternshipCatalogService internshipCatalogService, NearDuplicateService nearDuplicateService,
+                                    CatalogSnapshotStore snapshotStore, @Value("${internships.similar.dimensions:256}") int dimensions) {
+        this.nearDuplicateService = nearDuplicateService;
+        this.snapshotStore = snapshotStore;
+        this.dimensions = dimensions;
+        snapshotStore.addSection(SNAPSHOT_SECTION, (version, out) -> writeGraph(out));
+        internshipCatalogService.addListener(this::onSnapshot);
+    }
+
+    /**
+     * Catalog version the graph was last brought up to date with, or null before the first update
+     */
+    public String indexedVersion() {
+        return indexedVersion;
+    }
+
+    /**
+     * Most similar distinct internships, closest first
+     * @return The internships, empty while the posting is not indexed yet, or null if the id is not in the catalog
+     */
+    public List<InternshipView> similar(String id, int limit) {
+        Graph current = graph;
+        Integer node = current == null ? null : current.nodeById().get(nearDuplicateService.canonicalOf(id));
+        if (node == null) {
+            InternshipCatalogService.Snapshot known = catalog;
+            return known != null && known.internships().indexOf(id) >= 0 ? List.of() : null;
+        }
+        // Extra candidates cover the posting itself and tombstoned nodes
+        int[] neighbours = current.index().search(current.index().vector(node), limit + 1 + limit / 2, Math.max(EF_SEARCH, limit * 4));
+        List<InternshipView> similar = new ArrayList<>(limit);
+        for (int neighbour : neighbours) {
+            Node found = current.nodes().get(neighbour);
+            if (neighbour != node && found != null && similar.size() < limit) {
+                similar.add(found.internship());
+            }
+        }
+        return similar;
+    }
+
+    private void onSnapshot(InternshipCatalogService.Snapshot snapshot) {
+        catalog = snapshot;
+        // Only the latest snapshot matters if several arrive while the graph is updating
+        if (pending.getAndSet(snapshot) == null) {
+            updater.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        InternshipCatalogService.Snapshot snapshot;
+        while ((snapshot = pending.getAndSet(null)) != null) {
+            try {
+                update(snapshot);
+            } catch (RuntimeException e) {
+                logger.error("Failed to update similar-internship index: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void update(InternshipCatalogService.Snapshot snapshot) {
+        long started = System.nanoTime();
+        List<InternshipView> distinct = nearDuplicateService.distinct(snapshot);
+        Graph current = graph;
+        boolean restored = false;
+        if (current == null) {
+            current = restoreGraph(snapshot, distinct.size());
+            restored = current != null;
+        }
+        if (current == null || needsRebuild(current, distinct.size())) {
+            TfIdfVectorizer vectorizer = TfIdfVectorizer.fit(distinct, dimensions);
+            current = new Graph(vectorizer, new HnswIndex(dimensions, M, EF_CONSTRUCTION, distinct.size()),
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        Set<String> live = new HashSet<>(distinct.size() * 2);
+        int added = 0;
+        for (InternshipView internship : distinct) {
+            live.add(internship.getId());
+            long contentHash = CompactInternships.contentHash(internship);
+            Integer existing = current.nodeById().get(internship.getId());
+            if (existing != null && current.nodes().get(existing).contentHash() == contentHash) {
+                // Unchanged, but the row now belongs to this snapshot
+                current.nodes().put(existing, new Node(internship, contentHash));
+                continue;
+            }
+            int node = current.index().add(current.vectorizer().vectorize(internship));
+            current.nodes().put(node, new Node(internship, contentHash));
+            current.nodeById().put(internship.getId(), node);
+            if (existing != null) {
+                current.nodes().remove(existing);
+            }
+            added++;
+        }
+        int removed = 0;
+        for (Map.Entry<String, Integer> entry : current.nodeById().entrySet()) {
+            if (!live.contains(entry.getKey())) {
+                current.nodeById().remove(entry.getKey());
+                current.nodes().remove(entry.getValue());
+                removed++;
+            }
+        }
+        graph = current;
+        indexedVersion = snapshot.version();
+        logger.info("Similar-internship index {}: {} added, {} removed, {} live of {} nodes in {} ms",
+            restored ? "restored" : "updated", added, removed, current.nodes().size(), current.index().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Tombstones waste graph hops and IDF drifts as the catalog grows
+    private static boolean needsRebuild(Graph current, int catalogSize) {
+        int nodes = current.index().size();
+        int live = current.nodes().size();
+        return nodes - live > nodes / 4 || catalogSize > 2 * Math.max(current.vectorizer().documents(), 100);
+    }
+
+    /**
+     * The graph saved with the catalog snapshot, whatever version it was saved under: nodes whose posting left the
+     * catalog come back tombstoned, and update() re-adds the postings edited since
+     * @return The graph, or null if none was saved or it no longer fits
+     */
+    private Graph restoreGraph(InternshipCatalogService.Snapshot snapshot, int expectedSize) {
+        ByteBuffer saved = snapshotStore.section(SNAPSHOT_SECTION);
+        if (saved == null) {
+            return null;
+        }
+        try {
+            SavedNode[] savedNodes = new SavedNode[saved.getInt()];
+            for (int i = 0; i < savedNodes.length; i++) {
+                savedNodes[i] = new SavedNode(CatalogSnapshotStore.readString(saved), saved.getInt(), saved.getLong());
+            }
+            TfIdfVectorizer vectorizer = TfIdfVectorizer.readFrom(saved);
+            if (vectorizer.dimensions() != dimensions) {
+                return null;
+            }
+            HnswIndex index = HnswIndex.readFrom(saved, expectedSize);
+            Graph restored = new Graph(vectorizer, index, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            for (SavedNode node : savedNodes) {
+                int row = snapshot.internships().indexOf(node.id());
+                if (row >= 0 && node.node() < index.size()) {
+                    restored.nodes().put(node.node(), new Node(snapshot.internships().get(row), node.contentHash()));
+                    restored.nodeById().put(node.id(), node.node());
+                }
+            }
+            return restored;
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring saved similar-internship index: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeGraph(DataOutputStream out) throws IOException {
+        Graph current = graph;
+        if (current == null) {
+            // Saved while the graph is still being read back after a restore: carry the saved one over
+            ByteBuffer saved = snapshotStore.section(SNAPSHOT_SECTION);
+            byte[] chunk = new byte[1 << 16];
+            while (saved != null && saved.hasRemaining()) {
+                int length = Math.min(chunk.length, saved.remaining());
+                saved.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+            return;
+        }
+        // Mappings before the index: a node is added to the index before it is mapped, so every node saved is in it
+        List<SavedNode> savedNodes = new ArrayList<>(current.nodeById().size());
+        for (Map.Entry<String, Integer> entry : current.nodeById().entrySet()) {
+            Node node = current.nodes().get(entry.getValue());
+            if (node != null) {
+                savedNodes.add(new SavedNode(entry.getKey(), entry.getValue(), node.contentHash()));
+            }
+        }
+        out.writeInt(savedNodes.size());
+        for (SavedNode node : savedNodes) {
+            CatalogSnapshotStore.writeString(out, node.id());
+            out.writeInt(node.node());
+            out.writeLong(node.contentHash());
+        }
+        current.vectorizer().writeTo(out);
+        current.index().writeTo(out);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+    }
+}
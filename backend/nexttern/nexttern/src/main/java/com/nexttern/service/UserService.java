@@ -11,12 +11,14 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -39,19 +41,22 @@ public class UserService {
     
     private final RestTemplate restTemplate;
     
-    public UserService() {
-        this.restTemplate = new RestTemplate();
+    // Built from the auto-configured builder so Supabase calls are timed (http.client.requests) and carry trace headers
+    public UserService(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder.build();
     }
 
     /**
      * Deletes a user and all related data from the database.
      * Assumes ON DELETE CASCADE is set up for all related tables.
+     * A 404 from Supabase means an earlier attempt already removed the user, so retries are safe.
      * @param userId The user's UUID
      */
     public void deleteUserAndData(String userId) {
         // Delete user from Supabase Auth using the Admin API
         try {
-            String adminUrl = supabaseUrl + "/auth/v1/admin/users/" + userId;
+            // Templated so the user id stays out of the metrics uri tag
+            String adminUrl = supabaseUrl + "/auth/v1/admin/users/{userId}";
             HttpHeaders headers = new HttpHeaders();
             headers.set("apikey", supabaseKey); // Service role key required
             headers.set("Authorization", "Bearer " + supabaseKey);
@@ -61,7 +66,8 @@ public class UserService {
                     adminUrl,
                     HttpMethod.DELETE,
                     entity,
-                    String.class
+                    String.class,
+                    userId
             );
 
             if (response.getStatusCode().is2xxSuccessful()) {
@@ -70,6 +76,8 @@ public class UserService {
                 logger.error("Failed to delete user {} from Supabase Auth. Status: {} Body: {}", userId, response.getStatusCode(), response.getBody());
                 throw new RuntimeException("Supabase Auth deletion failed: " + response.getStatusCode());
             }
+        } catch (HttpClientErrorException.NotFound e) {
+            logger.info("User {} was already removed from Supabase Auth.", userId);
         } catch (Exception e) {
             logger.error("Exception deleting user {} from Supabase Auth", userId, e);
             throw new RuntimeException("Failed to delete user from Supabase Auth: " + e.getMessage());
@@ -107,25 +115,7 @@ public class UserService {
                 return userSubscriptions;
             }
             
-            JSONArray subscriptionsArray = new JSONArray(responseBody);
-            
-            for (int i = 0; i < subscriptionsArray.length(); i++) {
-                JSONObject subscriptionJson = subscriptionsArray.getJSONObject(i);
-                
-                Subscription subscription = new Subscription(
-                        subscriptionJson.getString("id"),
-                        subscriptionJson.getString("user_id"),
-                        subscriptionJson.getString("keyword"),
-                        subscriptionJson.getString("created_at")
-                );
-                
-                String userId = subscription.getUserId();
-                if (!userSubscriptions.containsKey(userId)) {
-                    userSubscriptions.put(userId, new ArrayList<>());
-                }
-                
-                userSubscriptions.get(userId).add(subscription);
-            }
+            userSubscriptions = parseSubscriptions(responseBody);
         } catch (RestClientException e) {
             logger.error("REST client error fetching subscriptions", e);
         } catch (JSONException e) {
@@ -137,6 +127,66 @@ public class UserService {
         return userSubscriptions;
     }
     
+    /**
+     * Fetches one user's subscriptions from Supabase
+     * @param userId The user's UUID
+     * @return The user's subscriptions, empty if there are none or they could not be fetched
+     */
+    public List<Subscription> getUserSubscriptions(String userId) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("apikey", supabaseKey);
+            headers.set("Authorization", "Bearer " + supabaseKey);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    supabaseUrl + "/rest/v1/subscriptions?select=*&user_id=eq.{userId}",
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    String.class,
+                    userId);
+
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null || response.getBody().isEmpty()) {
+                logger.error("Failed to fetch subscriptions for user {}: {}", userId, response.getStatusCode());
+                return List.of();
+            }
+            return parseSubscriptions(response.getBody()).getOrDefault(userId, List.of());
+        } catch (RestClientException e) {
+            logger.error("REST client error fetching subscriptions for user {}", userId, e);
+        } catch (JSONException e) {
+            logger.error("Error parsing subscription JSON for user {}", userId, e);
+        }
+        return List.of();
+    }
+
+    /**
+     * Parses the Supabase subscriptions payload and groups it by user
+     * @param responseBody JSON array of subscription rows
+     * @return A map of user IDs to their subscriptions
+     */
+    public static Map<String, List<Subscription>> parseSubscriptions(String responseBody) {
+        Map<String, List<Subscription>> userSubscriptions = new HashMap<>();
+        JSONArray subscriptionsArray = new JSONArray(responseBody);
+        
+        for (int i = 0; i < subscriptionsArray.length(); i++) {
+            JSONObject subscriptionJson = subscriptionsArray.getJSONObject(i);
+            
+            Subscription subscription = new Subscription(
+                    subscriptionJson.getString("id"),
+                    subscriptionJson.getString("user_id"),
+                    subscriptionJson.getString("keyword"),
+                    subscriptionJson.getString("created_at")
+            );
+            
+            String userId = subscription.getUserId();
+            if (!userSubscriptions.containsKey(userId)) {
+                userSubscriptions.put(userId, new ArrayList<>());
+            }
+            
+            userSubscriptions.get(userId).add(subscription);
+        }
+        return userSubscriptions;
+    }
+    
     /**
      * Fetches user details from Supabase for a list of user IDs
      * @param userIds The list of user IDs to fetch
@@ -0,0 +1,141 @@
+package com.nexttern.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed-size Bloom filter over strings.
+ * Uses double hashing (h1 + i*h2) from one 64-bit hash, so each operation hashes the key once.
+ * Not thread-safe for concurrent put(); callers publish a fully built filter or synchronize writes.
+ */
+public final class BloomFilter {
+
+    private static final int MAGIC = 0x4E42_4C4D; // "NBLM"
+    private static final int FORMAT_VERSION = 1;
+
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long[] bits, int numHashes) {
+        this.bits = bits;
+        this.numBits = (long) bits.length * 64;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Size a filter for the expected number of keys and false-positive rate
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(new long[(int) Math.max(1, (m + 63) / 64)], k);
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the key was definitely never added, true if it probably was
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return (long) bits.length * 8;
+    }
+
+    /**
+     * Write the filter with a header and a CRC32 trailer
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        CRC32 crc = new CRC32();
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(numHashes);
+        data.writeInt(bits.length);
+        byte[] word = new byte[8];
+        for (long value : bits) {
+            for (int i = 0; i < 8; i++) {
+                word[i] = (byte) (value >>> (56 - 8 * i));
+            }
+            crc.update(word);
+            data.write(word);
+        }
+        data.writeLong(crc.getValue());
+        data.flush();
+    }
+
+    /**
+     * Read a filter written by writeTo()
+     * @throws IOException if the data is truncated, from another format, or fails its checksum
+     */
+    public static BloomFilter readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a Bloom filter snapshot");
+        }
+        int numHashes = data.readInt();
+        int words = data.readInt();
+        if (numHashes < 1 || words < 1) {
+            throw new IOException("Corrupt Bloom filter header");
+        }
+        long[] bits = new long[words];
+        CRC32 crc = new CRC32();
+        byte[] word = new byte[8];
+        for (int w = 0; w < words; w++) {
+            data.readFully(word);
+            crc.update(word);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (word[i] & 0xFF);
+            }
+            bits[w] = value;
+        }
+        if (data.readLong() != crc.getValue()) {
+            throw new IOException("Bloom filter checksum mismatch");
+        }
+        return new BloomFilter(bits, numHashes);
+    }
+
+    // FNV-1a over UTF-8, finished with a strong mixer so similar keys spread across the table
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
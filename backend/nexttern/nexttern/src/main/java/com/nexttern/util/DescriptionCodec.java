@@ -0,0 +1,127 @@
+package com.nexttern.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage codec for internship descriptions.
+ * Descriptions are stored as zlib streams compressed against a shared preset dictionary of phrases common
+ * to job postings, which lets short descriptions compress well too. The first byte is a format version so
+ * the encoding can change without rewriting existing items.
+ */
+public final class DescriptionCodec {
+
+    /** zlib with the bundled preset dictionary */
+    static final byte FORMAT_DEFLATE_DICT = 1;
+
+    private static final String DICTIONARY_RESOURCE = "/description-codec.dict";
+    private static final byte[] DICTIONARY = loadDictionary();
+    private static final int DICTIONARY_ID = adler32(DICTIONARY);
+
+    // Set from configuration at startup; the v1 mapper creates Internship instances itself so this cannot be injected
+    private static volatile boolean compressOnWrite = false;
+
+    private DescriptionCodec() {
+    }
+
+    public static boolean isCompressOnWrite() {
+        return compressOnWrite;
+    }
+
+    public static void setCompressOnWrite(boolean enabled) {
+        compressOnWrite = enabled;
+    }
+
+    public static byte[] compress(String description) {
+        byte[] input = description.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            out.write(FORMAT_DEFLATE_DICT);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decompress(byte[] stored) {
+        return decompress(ByteBuffer.wrap(stored));
+    }
+
+    /**
+     * Decompress a stored description held in a buffer, such as a region of the catalog's off-heap text
+     * @param stored From the format byte to the end of the description; its position is left unchanged
+     */
+    public static String decompress(ByteBuffer stored) {
+        return new String(inflate(stored), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * UTF-8 bytes of a stored description, for callers that search the text without building a String
+     * @param stored From the format byte to the end of the description; its position is left unchanged
+     */
+    public static byte[] inflate(ByteBuffer stored) {
+        int length = stored.remaining();
+        if (length == 0 || stored.get(stored.position()) != FORMAT_DEFLATE_DICT) {
+            throw new IllegalArgumentException("Unknown description encoding: " + (length == 0 ? "empty" : stored.get(stored.position())));
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored.slice(stored.position() + 1, length - 1));
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0) {
+                    if (inflater.needsDictionary()) {
+                        if (inflater.getAdler() != DICTIONARY_ID) {
+                            throw new IllegalArgumentException("Description was compressed with a different dictionary");
+                        }
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new IllegalArgumentException("Truncated compressed description");
+                    }
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed description", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] loadDictionary() {
+        try (InputStream in = DescriptionCodec.class.getResourceAsStream(DICTIONARY_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + DICTIONARY_RESOURCE);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int adler32(byte[] bytes) {
+        Adler32 adler = new Adler32();
+        adler.update(bytes);
+        return (int) adler.getValue();
+    }
+}
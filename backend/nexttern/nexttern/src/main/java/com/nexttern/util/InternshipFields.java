@@ -0,0 +1,75 @@
+package com.nexttern.util;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Field selection for internship responses.
+ * Clients pass either fields=title,company,... or view=summary; the result is used both as the DynamoDB
+ * projection and as the Jackson property filter, so unrequested attributes are neither read nor written.
+ */
+public final class InternshipFields {
+
+    public static final String FILTER_ID = "internshipFields";
+
+    /** Every Internship attribute, which is also its JSON property name */
+    public static final List<String> ALL = List.of("id", "title", "company", "location", "placeId", "description", "url", "postedDate", "source");
+
+    /** What the list views render */
+    public static final Set<String> SUMMARY = Set.of("id", "title", "company", "location", "url", "postedDate");
+
+    /**
+     * Mixin registered for InternshipView in JacksonConfig, so only the web ObjectMapper knows about the filter
+     */
+    @JsonFilter(FILTER_ID)
+    public interface FilterMixin {
+    }
+
+    private InternshipFields() {
+    }
+
+    /**
+     * Resolve the requested attributes. Unknown names are ignored and id is always included.
+     * @param fields Comma-separated attribute names, may be null
+     * @param view "summary" for the list-view fields, may be null
+     * @return The attributes to return, or null for the full item
+     */
+    public static Set<String> parse(String fields, String view) {
+        if (fields != null && !fields.isBlank()) {
+            Set<String> selected = new LinkedHashSet<>();
+            selected.add("id");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (ALL.contains(name)) {
+                    selected.add(name);
+                }
+            }
+            return selected.size() == ALL.size() ? null : selected;
+        }
+        if ("summary".equalsIgnoreCase(view)) {
+            return SUMMARY;
+        }
+        return null;
+    }
+
+    /**
+     * Wrap a response body so Jackson only writes the selected Internship properties
+     * @param body Internship, collection of internships or a DTO containing them
+     * @param selected Result of parse(), null to write everything
+     */
+    public static MappingJacksonValue project(Object body, Set<String> selected) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        SimpleBeanPropertyFilter filter = selected == null
+            ? SimpleBeanPropertyFilter.serializeAll()
+            : SimpleBeanPropertyFilter.filterOutAllExcept(selected);
+        value.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID, filter));
+        return value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nexttern.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Deterministic internship ids derived from the posting URL.
+ * URLs are normalized first so the same posting reached through different links
+ * (tracking parameters, parameter order, case of the host, fragments) gets the same id.
+ */
+public final class InternshipIds {
+
+    private static final Set<String> TRACKING_PARAMS = Set.of(
+        "gclid", "fbclid", "msclkid", "ref", "refid", "trk", "trackingid", "src", "source", "campaign", "mc_cid", "mc_eid"
+    );
+
+    private InternshipIds() {
+    }
+
+    /**
+     * Id for a posting URL: the first 128 bits of SHA-256 over the normalized URL, as hex
+     */
+    public static String forUrl(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalizeUrl(url).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Lower-cases scheme and host, drops default ports, fragments, trailing slashes and tracking parameters,
+     * and sorts the remaining query parameters. Unparseable URLs are only trimmed.
+     */
+    public static String normalizeUrl(String url) {
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return trimmed;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(trimmed.length()).append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            normalized.append(uri.getRawUserInfo()).append('@');
+        }
+        normalized.append(uri.getHost() == null ? uri.getRawAuthority().toLowerCase(Locale.ROOT) : uri.getHost().toLowerCase(Locale.ROOT));
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https"))) {
+            normalized.append(':').append(port);
+        }
+
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        normalized.append(path);
+
+        if (uri.getRawQuery() != null) {
+            List<String> params = new ArrayList<>();
+            for (String param : uri.getRawQuery().split("&")) {
+                String name = param.split("=", 2)[0].toLowerCase(Locale.ROOT);
+                if (!param.isEmpty() && !name.startsWith("utm_") && !TRACKING_PARAMS.contains(name)) {
+                    params.add(param);
+                }
+            }
+            if (!params.isEmpty()) {
+                params.sort(null);
+                normalized.append('?').append(String.join("&", params));
+            }
+        }
+        return normalized.toString();
+    }
+}
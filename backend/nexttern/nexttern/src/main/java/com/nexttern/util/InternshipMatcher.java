@@ -0,0 +1,41 @@
+package com.nexttern.util;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.nexttern.model.InternshipView;
+
+public class InternshipMatcher {
+    /**
+     * Case-insensitive keyword match against title, company and description.
+     * @param internship The internship to test
+     * @param keyword The keyword, already trimmed and lower-cased
+     * @return true if the keyword is empty or appears in any of the fields
+     */
+    public static boolean matchesKeyword(InternshipView internship, String keyword) {
+        // Catalog rows match titles and companies in their dictionary and inflate only the description
+        return keyword.isEmpty() || internship.mentions(keyword);
+    }
+
+    /**
+     * Case-insensitive substring match against location.
+     * @param location The location filter, already trimmed and lower-cased
+     */
+    public static boolean matchesLocation(InternshipView internship, String location) {
+        return location.isEmpty() ||
+            (internship.getLocation() != null && internship.getLocation().toLowerCase().contains(location));
+    }
+
+    /**
+     * Filter internships by keyword and location, keeping scan order.
+     * @param keyword Trimmed, lower-cased keyword (may be empty)
+     * @param location Trimmed, lower-cased location (may be empty)
+     * @param limit Maximum number of matches to return
+     */
+    public static <T extends InternshipView> List<T> filter(List<T> internships, String keyword, String location, int limit) {
+        return internships.stream()
+                .filter(internship -> matchesKeyword(internship, keyword) && matchesLocation(internship, location))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+}
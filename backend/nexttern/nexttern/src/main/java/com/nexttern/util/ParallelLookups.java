@@ -0,0 +1,104 @@
+package com.nexttern.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Structured fan-out of independent blocking lookups onto virtual threads.
+ * Follows the shutdown-on-failure shape of StructuredTaskScope (still a preview API on Java 21):
+ * forks run in parallel, join() waits for all of them, and the first failure or an expired deadline
+ * interrupts the forks that are still running. Scopes opened inside a fork inherit the parent's deadline.
+ *
+ * <pre>
+ * try (ParallelLookups scope = ParallelLookups.open(Duration.ofSeconds(5))) {
+ *     Supplier&lt;A&gt; a = scope.fork(this::loadA);
+ *     Supplier&lt;B&gt; b = scope.fork(this::loadB);
+ *     scope.join();
+ *     return combine(a.get(), b.get());
+ * }
+ * </pre>
+ */
+public final class ParallelLookups implements AutoCloseable {
+
+    // Deadline of the scope that forked the current thread, if any
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> running = new ArrayList<>();
+    private final List<CompletableFuture<?>> results = new ArrayList<>();
+    private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+    private final long deadlineNanos;
+
+    private ParallelLookups(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Open a scope whose forks must finish within the timeout, or by the enclosing scope's deadline if that is sooner
+     */
+    public static ParallelLookups open(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Long inherited = DEADLINE.get();
+        if (inherited != null && inherited - deadline < 0) {
+            deadline = inherited;
+        }
+        return new ParallelLookups(deadline);
+    }
+
+    /**
+     * Start a task on its own virtual thread
+     * @return A supplier for the task's result, valid after join() returns normally
+     */
+    public <T> Supplier<T> fork(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> future = executor.submit(() -> {
+            DEADLINE.set(deadlineNanos);
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                firstFailure.completeExceptionally(t);
+            }
+        });
+        running.add(future);
+        results.add(result);
+        return result::join;
+    }
+
+    /**
+     * Wait for every fork. On the first failure or at the deadline, the remaining forks are interrupted.
+     * @throws ExecutionException if any fork failed, wrapping the first failure
+     * @throws TimeoutException if the deadline passed first
+     */
+    public void join() throws InterruptedException, ExecutionException, TimeoutException {
+        CompletableFuture<Void> all = CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+        try {
+            CompletableFuture.anyOf(all, firstFailure).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException | InterruptedException e) {
+            cancelRunning();
+            throw e;
+        }
+    }
+
+    private void cancelRunning() {
+        for (Future<?> future : running) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelRunning();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,28 @@
+-- Outbox for account deletion requests (model/AccountDeletionJob, service/AccountDeletionService).
+-- Idempotent: AccountDeletionSchemaInitializer runs it on startup, and it can be pasted into the Supabase SQL editor.
+
+create table if not exists account_deletion_jobs (
+    id              uuid primary key,
+    user_id         text not null,
+    status          varchar(16) not null check (status in ('PENDING', 'RUNNING', 'COMPLETE', 'FAILED')),
+    attempts        integer not null default 0,
+    -- Earliest time the job may run again, and doubles as the lease expiry while RUNNING
+    next_attempt_at timestamp,
+    auth_deleted_at timestamp,
+    last_error      text,
+    created_at      timestamp not null default now(),
+    updated_at      timestamp not null default now(),
+    -- JPA @Version: a worker claiming a job fails if another worker updated it first
+    version         bigint not null default 0
+);
+
+-- processDueJobs(): active jobs whose next attempt is due, oldest first
+create index if not exists account_deletion_jobs_status_next_attempt_idx
+    on account_deletion_jobs (status, next_attempt_at);
+
+-- enqueue(): an active job for the same user is reused
+create index if not exists account_deletion_jobs_user_status_idx
+    on account_deletion_jobs (user_id, status);
+
+-- Only the backend's own connection uses this table, so keep it out of the Supabase client APIs
+alter table account_deletion_jobs enable row level security;